@@ -0,0 +1,173 @@
+package no.vegvesen.nvdbapi.client.http2;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.Statuses;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A Jersey connector sending requests with {@code java.net.http.HttpClient}.
+ * Responses compressed with gzip or deflate are decompressed, like the Apache connector does,
+ * since the clients read the entity stream directly.
+ */
+class Http2Connector implements Connector {
+    // set by HttpClient itself, which does not allow them to be set
+    private static final Set<String> RESTRICTED_HEADERS =
+        new HashSet<>(Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+    private final HttpClient httpClient;
+
+    Http2Connector(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public ClientResponse apply(ClientRequest request) {
+        try {
+            HttpResponse<InputStream> response = httpClient.send(toHttpRequest(request),
+                HttpResponse.BodyHandlers.ofInputStream());
+            return toClientResponse(request, response, response.body());
+        } catch (IOException e) {
+            throw new ProcessingException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException(e);
+        }
+    }
+
+    /**
+     * Sends the request without blocking a thread. The callback gets the response when its whole body
+     * has been received, so reading the entity never blocks the thread of the callback.
+     */
+    @Override
+    public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = toHttpRequest(request);
+        } catch (ProcessingException e) {
+            callback.failure(e);
+            CompletableFuture<ClientResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray())
+            .thenApply(response -> toClientResponse(request, response, new ByteArrayInputStream(response.body())))
+            .whenComplete((response, failure) -> {
+                if (failure != null) {
+                    callback.failure(failure instanceof CompletionException ? failure.getCause() : failure);
+                } else {
+                    callback.response(response);
+                }
+            });
+    }
+
+    @Override
+    public String getName() {
+        return "java.net.http.HttpClient " + httpClient.version();
+    }
+
+    @Override
+    public void close() {
+        // the HttpClient is shared by the clients of the ClientFactory, and has nothing to close on Java 11
+    }
+
+    private static HttpRequest toHttpRequest(ClientRequest request) {
+        HttpRequest.BodyPublisher body = bodyOf(request);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri());
+        int readTimeout = request.resolveProperty(ClientProperties.READ_TIMEOUT, 0);
+        if (readTimeout > 0) {
+            builder.timeout(Duration.ofMillis(readTimeout));
+        }
+        for (Map.Entry<String, List<String>> header : request.getStringHeaders().entrySet()) {
+            if (RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                builder.header(header.getKey(), value);
+            }
+        }
+        if (request.getHeaderString(HttpHeaders.ACCEPT_ENCODING) == null) {
+            builder.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        }
+        return builder.method(request.getMethod(), body).build();
+    }
+
+    private static HttpRequest.BodyPublisher bodyOf(ClientRequest request) {
+        if (!request.hasEntity()) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        ByteArrayOutputStream entity = new ByteArrayOutputStream();
+        request.setStreamProvider(contentLength -> entity);
+        try {
+            request.writeEntity();
+        } catch (IOException e) {
+            throw new ProcessingException(e);
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(entity.toByteArray());
+    }
+
+    private static ClientResponse toClientResponse(ClientRequest request, HttpResponse<?> response, InputStream body) {
+        ClientResponse clientResponse = new ClientResponse(Statuses.from(response.statusCode()), request);
+        clientResponse.setResolvedRequestUri(response.uri());
+
+        String encoding = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse("");
+        boolean decompress = encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("deflate");
+        response.headers().map().forEach((name, values) -> {
+            if (name.startsWith(":")) {
+                return;
+            }
+            if (decompress && (name.equalsIgnoreCase(HttpHeaders.CONTENT_ENCODING)
+                || name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH))) {
+                return;
+            }
+            clientResponse.getHeaders().put(name, new ArrayList<>(values));
+        });
+
+        try {
+            if (encoding.equalsIgnoreCase("gzip")) {
+                body = new GZIPInputStream(body);
+            } else if (encoding.equalsIgnoreCase("deflate")) {
+                body = new InflaterInputStream(body);
+            }
+        } catch (IOException e) {
+            closeQuietly(body);
+            throw new ProcessingException(e);
+        }
+        clientResponse.setEntityStream(body);
+        return clientResponse;
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // already failing
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package no.vegvesen.nvdbapi.client.http2;
+
+import no.vegvesen.nvdbapi.client.HttpTransport;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+
+import javax.ws.rs.core.Configuration;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends requests with {@code java.net.http.HttpClient}, preferring HTTP/2. All clients of a
+ * {@code ClientFactory} share one {@code HttpClient}, so concurrent requests to the API are multiplexed
+ * over one connection instead of one connection each. Servers that do not support HTTP/2 are
+ * spoken to with HTTP/1.1.
+ * <p>
+ * Unless an {@code HttpClient} is given, it is created when the first client is created, with the connect
+ * timeout and proxy of the {@code ClientFactory}. A transport given to factories with other timeouts or
+ * proxies creates an {@code HttpClient} for each of them. The read timeout is applied to each request as the time
+ * to wait for the response headers.
+ */
+public final class Http2Transport implements HttpTransport {
+    private final HttpClient httpClient;
+    private final Map<List<Object>, HttpClient> httpClients = new ConcurrentHashMap<>();
+
+    private Http2Transport(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public static Http2Transport create() {
+        return new Http2Transport(null);
+    }
+
+    /**
+     * @param httpClient send requests with this client, instead of one created from the client configuration.
+     * @return a transport using the given client
+     */
+    public static Http2Transport using(HttpClient httpClient) {
+        return new Http2Transport(Objects.requireNonNull(httpClient, "Missing httpClient argument!"));
+    }
+
+    @Override
+    public void configure(ClientConfig config) {
+        config.connectorProvider((client, runtimeConfig) -> new Http2Connector(getHttpClient(runtimeConfig)));
+    }
+
+    private HttpClient getHttpClient(Configuration config) {
+        if (httpClient != null) {
+            return httpClient;
+        }
+        List<Object> settings = Arrays.asList(
+            config.getProperty(ClientProperties.CONNECT_TIMEOUT),
+            config.getProperty(ClientProperties.PROXY_URI),
+            config.getProperty(ClientProperties.PROXY_USERNAME),
+            config.getProperty(ClientProperties.PROXY_PASSWORD));
+        return httpClients.computeIfAbsent(settings, s -> createHttpClient(config));
+    }
+
+    private static HttpClient createHttpClient(Configuration config) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL);
+
+        int connectTimeout = ClientProperties.getValue(config.getProperties(), ClientProperties.CONNECT_TIMEOUT, 0);
+        if (connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(connectTimeout));
+        }
+        Object proxyUri = config.getProperty(ClientProperties.PROXY_URI);
+        if (proxyUri != null) {
+            URI proxy = URI.create(proxyUri.toString());
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxy.getHost(), proxy.getPort())));
+            Object username = config.getProperty(ClientProperties.PROXY_USERNAME);
+            Object password = config.getProperty(ClientProperties.PROXY_PASSWORD);
+            if (username != null && password != null) {
+                builder.authenticator(new Authenticator() {
+                    @Override
+                    protected PasswordAuthentication getPasswordAuthentication() {
+                        if (getRequestorType() != RequestorType.PROXY) {
+                            return null;
+                        }
+                        return new PasswordAuthentication(username.toString(), password.toString().toCharArray());
+                    }
+                });
+            }
+        }
+        return builder.build();
+    }
+}
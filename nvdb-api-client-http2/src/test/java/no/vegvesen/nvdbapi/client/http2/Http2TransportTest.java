@@ -0,0 +1,91 @@
+package no.vegvesen.nvdbapi.client.http2;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import no.vegvesen.nvdbapi.client.ClientConfiguration;
+import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
+import no.vegvesen.nvdbapi.client.ProxyConfig;
+import no.vegvesen.nvdbapi.client.clients.ClientFactory;
+import no.vegvesen.nvdbapi.client.model.Status;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class Http2TransportTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    private static void stubStatus() {
+        stubFor(get(urlEqualTo("/status")).willReturn(
+            aResponse()
+                .withStatus(200)
+                .withBody("{\"datagrunnlag\":{"
+                    + "\"sist_oppdatert\":\"2018-12-19T13:11:46.192\","
+                    + "\"sist_prosesserte_transaksjon\":{\"transaksjonsid\":4042432,\"transaksjonstidspunkt\":\"2018-12-19T13:11:25\"},"
+                    + "\"datakatalog\":{\"id\":796,\"dato\":\"2018-01-23\",\"versjon\":\"2.12\"}}}")));
+    }
+
+    @Test
+    void sendsRequestsThroughHttpClient() throws Exception {
+        stubStatus();
+
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test",
+            ClientConfigurationBuilder.builder()
+                .withConnectTimeout(1000)
+                .withTransport(Http2Transport.create())
+                .build())) {
+            Status status = clientFactory.getStatusClient().getStatus();
+            assertThat(status.getDatakatalogVersion().getVersion(), is("2.12"));
+            Status asyncStatus = clientFactory.getStatusClient().getStatusAsync().block();
+            assertThat(asyncStatus.getDatakatalogVersion().getVersion(), is("2.12"));
+        }
+        // the response is gzipped when asked for, and must be decompressed by the connector
+        verify(getRequestedFor(urlEqualTo("/status"))
+            .withHeader("Accept-Encoding", containing("gzip"))
+            .withHeader("X-Client", containing("nvdbapi-client-test")));
+    }
+
+    @Test
+    void factoriesSharingTransportUseTheirOwnProxy() throws Exception {
+        stubStatus();
+        Http2Transport transport = Http2Transport.create();
+        ClientConfiguration config = ClientConfigurationBuilder.builder()
+            .withConnectTimeout(1000)
+            .withTransport(transport)
+            .build();
+
+        try (ClientFactory direct = new ClientFactory("http://nvdb.invalid", "nvdbapi-client-test", config)) {
+            assertThrows(RuntimeException.class, () -> direct.getStatusClient().getStatus());
+        }
+        try (ClientFactory proxied = new ClientFactory("http://nvdb.invalid", "nvdbapi-client-test",
+            new ProxyConfig(wireMockServer.baseUrl()), config)) {
+            assertThat(proxied.getStatusClient().getStatus().getDatakatalogVersion().getVersion(), is("2.12"));
+        }
+    }
+}
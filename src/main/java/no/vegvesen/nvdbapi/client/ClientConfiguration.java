@@ -1,14 +1,54 @@
 package no.vegvesen.nvdbapi.client;
 
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Optional;
 
 public class ClientConfiguration {
+    public static final int DEFAULT_ASYNC_THREADS = 16;
+    public static final int DEFAULT_MAX_CONNECTIONS = 32;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 16;
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY = 2000;
+    public static final int DEFAULT_IDLE_CONNECTION_TIMEOUT = 60000;
+
     private final int readTimeout;
     private final int connectTimeout;
+    private final int asyncThreads;
+    private final boolean asyncVirtualThreads;
+    private final Scheduler asyncScheduler;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int connectionTimeToLive;
+    private final int validateAfterInactivity;
+    private final int idleConnectionTimeout;
+    private final HttpTransport transport;
+    private final JsonEngine jsonEngine;
+    private final RetryPolicy retryPolicy;
+    private final RateLimit rateLimit;
+    private final HedgingPolicy hedgingPolicy;
+    private final boolean requestCoalescing;
+    private final Duration tokenRefreshMargin;
 
-    private ClientConfiguration(int readTimeout, int connectTimeout) {
-        this.readTimeout = readTimeout;
-        this.connectTimeout = connectTimeout;
+    private ClientConfiguration(ClientConfigurationBuilder builder) {
+        this.readTimeout = builder.readTimeout;
+        this.connectTimeout = builder.connectTimeout;
+        this.asyncThreads = builder.asyncThreads;
+        this.asyncVirtualThreads = builder.asyncVirtualThreads;
+        this.asyncScheduler = builder.asyncScheduler;
+        this.maxConnections = builder.maxConnections;
+        this.maxConnectionsPerRoute = builder.maxConnectionsPerRoute;
+        this.connectionTimeToLive = builder.connectionTimeToLive;
+        this.validateAfterInactivity = builder.validateAfterInactivity;
+        this.idleConnectionTimeout = builder.idleConnectionTimeout;
+        this.transport = builder.transport;
+        this.jsonEngine = builder.jsonEngine;
+        this.retryPolicy = builder.retryPolicy;
+        this.rateLimit = builder.rateLimit;
+        this.hedgingPolicy = builder.hedgingPolicy;
+        this.requestCoalescing = builder.requestCoalescing;
+        this.tokenRefreshMargin = builder.tokenRefreshMargin;
     }
 
     public int getReadTimeout() {
@@ -19,9 +59,84 @@ public class ClientConfiguration {
         return connectTimeout;
     }
 
+    public int getAsyncThreads() {
+        return asyncThreads;
+    }
+
+    public boolean isAsyncVirtualThreads() {
+        return asyncVirtualThreads;
+    }
+
+    public Optional<Scheduler> getAsyncScheduler() {
+        return Optional.ofNullable(asyncScheduler);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    public int getValidateAfterInactivity() {
+        return validateAfterInactivity;
+    }
+
+    public int getIdleConnectionTimeout() {
+        return idleConnectionTimeout;
+    }
+
+    public Optional<HttpTransport> getTransport() {
+        return Optional.ofNullable(transport);
+    }
+
+    public Optional<JsonEngine> getJsonEngine() {
+        return Optional.ofNullable(jsonEngine);
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    public boolean isRequestCoalescing() {
+        return requestCoalescing;
+    }
+
+    public Optional<Duration> getTokenRefreshMargin() {
+        return Optional.ofNullable(tokenRefreshMargin);
+    }
+
     public static final class ClientConfigurationBuilder {
         private int readTimeout = 0;
         private int connectTimeout = 0;
+        private int asyncThreads = DEFAULT_ASYNC_THREADS;
+        private boolean asyncVirtualThreads = false;
+        private Scheduler asyncScheduler;
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private int maxConnectionsPerRoute = DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        private int connectionTimeToLive = 0;
+        private int validateAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY;
+        private int idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+        private HttpTransport transport;
+        private JsonEngine jsonEngine;
+        private RetryPolicy retryPolicy = RetryPolicy.none();
+        private RateLimit rateLimit = RateLimit.none();
+        private HedgingPolicy hedgingPolicy = HedgingPolicy.none();
+        private boolean requestCoalescing = false;
+        private Duration tokenRefreshMargin;
 
         private ClientConfigurationBuilder() {
         }
@@ -48,8 +163,181 @@ public class ClientConfiguration {
             return this;
         }
 
+        /**
+         * @param asyncThreads max number of threads shared by the async results of a {@code ClientFactory}.
+         *                     Results subscribed to when all threads are busy are queued.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withAsyncThreads(int asyncThreads) {
+            if (asyncThreads < 1) {
+                throw new IllegalArgumentException("Async threads must be greater than 0.");
+            }
+            this.asyncThreads = asyncThreads;
+            return this;
+        }
+
+        /**
+         * @param asyncVirtualThreads run async results on virtual threads instead of a bounded pool.
+         *                            Ignored, with a warning, if the JVM does not support virtual threads.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withAsyncVirtualThreads(boolean asyncVirtualThreads) {
+            this.asyncVirtualThreads = asyncVirtualThreads;
+            return this;
+        }
+
+        /**
+         * @param asyncScheduler run async results on this scheduler. It is not disposed when the
+         *                       {@code ClientFactory} is closed.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withAsyncScheduler(Scheduler asyncScheduler) {
+            this.asyncScheduler = asyncScheduler;
+            return this;
+        }
+
+        /**
+         * @param maxConnections max number of connections in the pool shared by the clients of a {@code ClientFactory}.
+         *                       Requests made when all are in use wait for one to be released.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withMaxConnections(int maxConnections) {
+            if (maxConnections < 1) {
+                throw new IllegalArgumentException("Max connections must be greater than 0.");
+            }
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param maxConnectionsPerRoute max number of connections to the same host.
+         *                               All requests to the API use the same route.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            if (maxConnectionsPerRoute < 1) {
+                throw new IllegalArgumentException("Max connections per route must be greater than 0.");
+            }
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * @param connectionTimeToLive in millis. Connections older than this are not reused.
+         *                             0, the default, means no limit.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withConnectionTimeToLive(int connectionTimeToLive) {
+            if (connectionTimeToLive < 0) {
+                throw new IllegalArgumentException("Connection time to live must not be negative.");
+            }
+            this.connectionTimeToLive = connectionTimeToLive;
+            return this;
+        }
+
+        /**
+         * @param validateAfterInactivity in millis. Pooled connections idle for longer than this are checked
+         *                                before they are reused. 0 disables the check.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withValidateAfterInactivity(int validateAfterInactivity) {
+            if (validateAfterInactivity < 0) {
+                throw new IllegalArgumentException("Validate after inactivity must not be negative.");
+            }
+            this.validateAfterInactivity = validateAfterInactivity;
+            return this;
+        }
+
+        /**
+         * @param idleConnectionTimeout in millis. A background thread closes connections that have been idle
+         *                              for longer than this, and connections past their time to live.
+         *                              0 disables the thread.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withIdleConnectionTimeout(int idleConnectionTimeout) {
+            if (idleConnectionTimeout < 0) {
+                throw new IllegalArgumentException("Idle connection timeout must not be negative.");
+            }
+            this.idleConnectionTimeout = idleConnectionTimeout;
+            return this;
+        }
+
+        /**
+         * @param transport send requests with this transport instead of the default Apache HttpClient.
+         *                  The connection pool settings only apply to the default transport.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withTransport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * @param jsonEngine read the json of the responses with this engine instead of Gson,
+         *                   like {@link JsonEngine#jackson()}
+         * @return builder
+         */
+        public ClientConfigurationBuilder withJsonEngine(JsonEngine jsonEngine) {
+            this.jsonEngine = jsonEngine;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy retry GET requests that fail with the statuses of the policy, or fail to connect.
+         *                    No requests are retried by default.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = Objects.requireNonNull(retryPolicy, "Missing retryPolicy argument!");
+            return this;
+        }
+
+        /**
+         * @param rateLimit limit the requests of all clients of the factory together to this rate,
+         *                  and this number of concurrent requests. There is no limit by default.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withRateLimit(RateLimit rateLimit) {
+            this.rateLimit = Objects.requireNonNull(rateLimit, "Missing rateLimit argument!");
+            return this;
+        }
+
+        /**
+         * @param hedgingPolicy send lookups of single road objects, link sequences and placements once more
+         *                      when they are slow, and use the first response. Not done by default.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withHedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = Objects.requireNonNull(hedgingPolicy, "Missing hedgingPolicy argument!");
+            return this;
+        }
+
+        /**
+         * @param requestCoalescing let concurrent identical GET requests share one request to the API,
+         *                          and its parsed response. Off by default.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withRequestCoalescing(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        /**
+         * @param tokenRefreshMargin refresh the id token from a login in the background this long before it expires,
+         *                           using the refresh token. Tokens are only refreshed when asked for by default.
+         * @return builder
+         */
+        public ClientConfigurationBuilder withTokenRefresh(Duration tokenRefreshMargin) {
+            Objects.requireNonNull(tokenRefreshMargin, "Missing tokenRefreshMargin argument!");
+            if (tokenRefreshMargin.isNegative()) {
+                throw new IllegalArgumentException("tokenRefreshMargin must not be negative, was " + tokenRefreshMargin);
+            }
+            this.tokenRefreshMargin = tokenRefreshMargin;
+            return this;
+        }
+
         public ClientConfiguration build() {
-            return new ClientConfiguration(readTimeout, connectTimeout);
+            return new ClientConfiguration(this);
         }
     }
 
@@ -59,11 +347,29 @@ public class ClientConfiguration {
         if (o == null || getClass() != o.getClass()) return false;
         ClientConfiguration that = (ClientConfiguration) o;
         return readTimeout == that.readTimeout &&
-                connectTimeout == that.connectTimeout;
+                connectTimeout == that.connectTimeout &&
+                asyncThreads == that.asyncThreads &&
+                asyncVirtualThreads == that.asyncVirtualThreads &&
+                maxConnections == that.maxConnections &&
+                maxConnectionsPerRoute == that.maxConnectionsPerRoute &&
+                connectionTimeToLive == that.connectionTimeToLive &&
+                validateAfterInactivity == that.validateAfterInactivity &&
+                idleConnectionTimeout == that.idleConnectionTimeout &&
+                requestCoalescing == that.requestCoalescing &&
+                Objects.equals(asyncScheduler, that.asyncScheduler) &&
+                Objects.equals(transport, that.transport) &&
+                Objects.equals(jsonEngine, that.jsonEngine) &&
+                Objects.equals(tokenRefreshMargin, that.tokenRefreshMargin) &&
+                retryPolicy.equals(that.retryPolicy) &&
+                rateLimit.equals(that.rateLimit) &&
+                hedgingPolicy.equals(that.hedgingPolicy);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(readTimeout, connectTimeout);
+        return Objects.hash(readTimeout, connectTimeout, asyncThreads, asyncVirtualThreads, asyncScheduler,
+            maxConnections, maxConnectionsPerRoute, connectionTimeToLive, validateAfterInactivity,
+            idleConnectionTimeout, transport, jsonEngine, retryPolicy, rateLimit, hedgingPolicy, requestCoalescing,
+            tokenRefreshMargin);
     }
 }
@@ -0,0 +1,121 @@
+package no.vegvesen.nvdbapi.client;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * When a lookup of a single object is sent again while the first request is still waiting for a response.
+ * <p>
+ * The latencies of the last {@code window} requests to an endpoint are kept. A request that has not completed
+ * within the {@code percentile} of those, but at least {@code minDelay}, is sent once more, and the response
+ * that comes first is used. The other request is aborted. Nothing is hedged for an endpoint before
+ * {@code minSamples} latencies are known, and at most {@code maxExtraLoad} hedged requests are sent per request.
+ */
+public final class HedgingPolicy {
+    private static final HedgingPolicy NONE = new HedgingPolicy(100, Duration.ZERO, 0, 0, 0);
+
+    private final double percentile;
+    private final Duration minDelay;
+    private final double maxExtraLoad;
+    private final int window;
+    private final int minSamples;
+
+    private HedgingPolicy(double percentile, Duration minDelay, double maxExtraLoad, int window, int minSamples) {
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.maxExtraLoad = maxExtraLoad;
+        this.window = window;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * @return no hedging
+     */
+    public static HedgingPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * @param percentile percentile of recent latencies, between 0 and 100, after which a request is hedged
+     * @return a policy with a minimum delay of 10 ms, 5% extra load, and a window of the last 200 latencies,
+     * of which at least 20 are needed
+     */
+    public static HedgingPolicy atPercentile(double percentile) {
+        if (!(percentile > 0 && percentile < 100)) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100, was " + percentile);
+        }
+        return new HedgingPolicy(percentile, Duration.ofMillis(10), 0.05, 200, 20);
+    }
+
+    /**
+     * @param minDelay never hedge a request before it has waited this long
+     * @return a copy with this delay
+     */
+    public HedgingPolicy withMinDelay(Duration minDelay) {
+        return new HedgingPolicy(percentile, Objects.requireNonNull(minDelay), maxExtraLoad, window, minSamples);
+    }
+
+    /**
+     * @param maxExtraLoad max number of hedged requests per request, e.g. 0.05 for 5% extra requests
+     * @return a copy with this budget
+     */
+    public HedgingPolicy withMaxExtraLoad(double maxExtraLoad) {
+        if (!(maxExtraLoad > 0 && maxExtraLoad <= 1)) {
+            throw new IllegalArgumentException("maxExtraLoad must be above 0 and at most 1, was " + maxExtraLoad);
+        }
+        return new HedgingPolicy(percentile, minDelay, maxExtraLoad, window, minSamples);
+    }
+
+    /**
+     * @param window number of recent latencies per endpoint the percentile is computed from
+     * @param minSamples number of latencies needed before requests to an endpoint are hedged
+     * @return a copy with this window
+     */
+    public HedgingPolicy withWindow(int window, int minSamples) {
+        if (window < 1 || minSamples < 1 || minSamples > window) {
+            throw new IllegalArgumentException("Expected 0 < minSamples <= window, was " + minSamples + " and " + window);
+        }
+        return new HedgingPolicy(percentile, minDelay, maxExtraLoad, window, minSamples);
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public double getMaxExtraLoad() {
+        return maxExtraLoad;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public boolean isEnabled() {
+        return maxExtraLoad > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HedgingPolicy that = (HedgingPolicy) o;
+        return Double.compare(that.percentile, percentile) == 0 &&
+            Double.compare(that.maxExtraLoad, maxExtraLoad) == 0 &&
+            window == that.window &&
+            minSamples == that.minSamples &&
+            minDelay.equals(that.minDelay);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(percentile, minDelay, maxExtraLoad, window, minSamples);
+    }
+}
@@ -0,0 +1,20 @@
+package no.vegvesen.nvdbapi.client;
+
+import org.glassfish.jersey.client.ClientConfig;
+
+/**
+ * How the clients of a {@code ClientFactory} send their requests. All requests, paged, async and single,
+ * go through the Jersey client of each client, so a transport plugs in the Jersey connector those clients use.
+ * <p>
+ * By default requests are sent over HTTP/1.1 with Apache HttpClient, using the connection pool configured
+ * in {@link ClientConfiguration}. The optional {@code nvdb-api-client-http2} module provides a transport
+ * that multiplexes concurrent requests over one HTTP/2 connection.
+ */
+public interface HttpTransport {
+
+    /**
+     * Called once for each client created by a {@code ClientFactory}, before the Jersey client is built.
+     * @param config the configuration of the Jersey client, with timeouts and proxy already set
+     */
+    void configure(ClientConfig config);
+}
@@ -0,0 +1,64 @@
+package no.vegvesen.nvdbapi.client;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import no.vegvesen.nvdbapi.client.gson.JacksonJsonEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * How the clients of a {@code ClientFactory} read the json of the responses. The parsers read the json
+ * through a Gson {@link JsonReader}, or a tree built from one, so an engine provides that reader on top of
+ * the tokenizer of its choice.
+ * <p>
+ * By default Gson itself reads the responses. {@link #jackson()} reads the UTF-8 bytes of the responses with
+ * Jackson instead, and builds the trees straight from its tokens, which is faster on large responses.
+ * It needs {@code com.fasterxml.jackson.core:jackson-core} on the classpath.
+ */
+public interface JsonEngine {
+
+    /**
+     * @param in the UTF-8 encoded json of a response
+     * @return a reader of the json. Closing it closes the stream.
+     */
+    JsonReader newReader(InputStream in) throws IOException;
+
+    /**
+     * Reads a whole response. Like {@code JsonParser.parseReader(Reader)}, anything but whitespace after
+     * the json is an error.
+     * @param in the UTF-8 encoded json of a response
+     * @return the json, or {@code JsonNull} if the response is empty
+     */
+    default JsonElement readTree(InputStream in) throws IOException {
+        JsonReader reader = newReader(in);
+        JsonElement json = JsonParser.parseReader(reader);
+        if (!json.isJsonNull() && reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+        return json;
+    }
+
+    static JsonEngine gson() {
+        return in -> new JsonReader(new InputStreamReader(in, UTF_8));
+    }
+
+    /**
+     * @throws IllegalStateException if {@code com.fasterxml.jackson.core:jackson-core} is not on the classpath
+     */
+    static JsonEngine jackson() {
+        try {
+            Class.forName("com.fasterxml.jackson.core.JsonFactory", false, JsonEngine.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalStateException(
+                "JsonEngine.jackson() needs com.fasterxml.jackson.core:jackson-core on the classpath", e);
+        }
+        return new JacksonJsonEngine();
+    }
+}
@@ -0,0 +1,98 @@
+package no.vegvesen.nvdbapi.client;
+
+import java.util.Objects;
+
+/**
+ * How fast the clients of one {@code ClientFactory} together send requests to the API.
+ * <p>
+ * Requests are let through at {@code requestsPerSecond}, with bursts of up to one second worth of requests,
+ * and at most {@code maxConcurrentRequests} wait for a response at the same time. Requests over the limits
+ * wait in the calling thread. When the API responds 429 Too Many Requests the rate is halved, down to
+ * {@code minRequestsPerSecond}, and then grows slowly back to {@code requestsPerSecond}.
+ */
+public final class RateLimit {
+    private static final RateLimit NONE = new RateLimit(Double.POSITIVE_INFINITY, 0, Double.POSITIVE_INFINITY);
+
+    private final double requestsPerSecond;
+    private final int maxConcurrentRequests;
+    private final double minRequestsPerSecond;
+
+    private RateLimit(double requestsPerSecond, int maxConcurrentRequests, double minRequestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.minRequestsPerSecond = minRequestsPerSecond;
+    }
+
+    /**
+     * @return no limits
+     */
+    public static RateLimit none() {
+        return NONE;
+    }
+
+    /**
+     * @param requestsPerSecond max number of requests per second, for all clients together
+     * @return a rate limit without a limit on concurrent requests, that adapts down to a tenth of the rate
+     */
+    public static RateLimit perSecond(double requestsPerSecond) {
+        if (!(requestsPerSecond > 0)) {
+            throw new IllegalArgumentException("requestsPerSecond must be positive, was " + requestsPerSecond);
+        }
+        return new RateLimit(requestsPerSecond, 0, requestsPerSecond / 10);
+    }
+
+    /**
+     * @param maxConcurrentRequests max number of requests waiting for a response at the same time. 0 means no limit.
+     * @return a copy with this limit
+     */
+    public RateLimit withMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 0) {
+            throw new IllegalArgumentException("maxConcurrentRequests cannot be negative, was " + maxConcurrentRequests);
+        }
+        return new RateLimit(requestsPerSecond, maxConcurrentRequests, minRequestsPerSecond);
+    }
+
+    /**
+     * @param minRequestsPerSecond the rate is never adapted below this on 429 responses.
+     *                             Equal to {@code requestsPerSecond} means the rate is not adapted.
+     * @return a copy with this lower bound
+     */
+    public RateLimit withMinRequestsPerSecond(double minRequestsPerSecond) {
+        if (!(minRequestsPerSecond > 0) || minRequestsPerSecond > requestsPerSecond) {
+            throw new IllegalArgumentException(
+                "minRequestsPerSecond must be positive and at most " + requestsPerSecond + ", was " + minRequestsPerSecond);
+        }
+        return new RateLimit(requestsPerSecond, maxConcurrentRequests, minRequestsPerSecond);
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public double getMinRequestsPerSecond() {
+        return minRequestsPerSecond;
+    }
+
+    public boolean isEnabled() {
+        return requestsPerSecond != Double.POSITIVE_INFINITY || maxConcurrentRequests > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RateLimit that = (RateLimit) o;
+        return Double.compare(that.requestsPerSecond, requestsPerSecond) == 0 &&
+            maxConcurrentRequests == that.maxConcurrentRequests &&
+            Double.compare(that.minRequestsPerSecond, minRequestsPerSecond) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(requestsPerSecond, maxConcurrentRequests, minRequestsPerSecond);
+    }
+}
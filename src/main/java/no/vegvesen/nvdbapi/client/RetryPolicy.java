@@ -0,0 +1,165 @@
+package no.vegvesen.nvdbapi.client;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how often idempotent requests (GET and HEAD) are retried.
+ * <p>
+ * A request is retried if the response has a status with a retry rule, or if it failed to connect or read,
+ * up to the number of attempts of the rule. The wait before each retry grows exponentially from
+ * {@code initialBackoff} up to {@code maxBackoff}, and a random part of it is skipped so that clients
+ * that failed at the same time do not retry at the same time. A {@code Retry-After} header in the response
+ * is used instead when present. No retry is made that would end after {@code maxRetryTime} from the
+ * first attempt, the last response or error is then returned.
+ */
+public final class RetryPolicy {
+    private static final RetryPolicy NONE =
+        new RetryPolicy(Collections.emptyMap(), 1, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+    private static final RetryPolicy DEFAULT;
+
+    static {
+        Map<Integer, Integer> statuses = new HashMap<>();
+        statuses.put(429, 4);
+        statuses.put(502, 4);
+        statuses.put(503, 4);
+        statuses.put(504, 4);
+        DEFAULT = new RetryPolicy(statuses, 4, Duration.ofMillis(500), Duration.ofSeconds(30), Duration.ofMinutes(2));
+    }
+
+    private final Map<Integer, Integer> statusAttempts;
+    private final int errorAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration maxRetryTime;
+
+    private RetryPolicy(Map<Integer, Integer> statusAttempts,
+                        int errorAttempts,
+                        Duration initialBackoff,
+                        Duration maxBackoff,
+                        Duration maxRetryTime) {
+        this.statusAttempts = Collections.unmodifiableMap(statusAttempts);
+        this.errorAttempts = errorAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxRetryTime = maxRetryTime;
+    }
+
+    /**
+     * @return no retries
+     */
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * @return up to four attempts on 429, 502, 503, 504 and connection errors, waiting from half a second
+     * up to 30 seconds between attempts, and at most two minutes in total
+     */
+    public static RetryPolicy defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param status http status of the response
+     * @param maxAttempts max number of attempts, including the first, when the response has this status.
+     *                    1 means the status is not retried.
+     * @return a copy with the rule for the given status
+     */
+    public RetryPolicy withStatus(int status, int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be greater than 0.");
+        }
+        Map<Integer, Integer> statuses = new HashMap<>(statusAttempts);
+        if (maxAttempts == 1) {
+            statuses.remove(status);
+        } else {
+            statuses.put(status, maxAttempts);
+        }
+        return new RetryPolicy(statuses, errorAttempts, initialBackoff, maxBackoff, maxRetryTime);
+    }
+
+    /**
+     * @param maxAttempts max number of attempts, including the first, when a request fails to connect or read.
+     * @return a copy with the given number of attempts
+     */
+    public RetryPolicy withErrorAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be greater than 0.");
+        }
+        return new RetryPolicy(statusAttempts, maxAttempts, initialBackoff, maxBackoff, maxRetryTime);
+    }
+
+    public RetryPolicy withBackoff(Duration initialBackoff, Duration maxBackoff) {
+        Objects.requireNonNull(initialBackoff, "Missing initialBackoff argument!");
+        Objects.requireNonNull(maxBackoff, "Missing maxBackoff argument!");
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Backoff must not be negative, and max backoff not less than initial.");
+        }
+        return new RetryPolicy(statusAttempts, errorAttempts, initialBackoff, maxBackoff, maxRetryTime);
+    }
+
+    public RetryPolicy withMaxRetryTime(Duration maxRetryTime) {
+        Objects.requireNonNull(maxRetryTime, "Missing maxRetryTime argument!");
+        return new RetryPolicy(statusAttempts, errorAttempts, initialBackoff, maxBackoff, maxRetryTime);
+    }
+
+    /**
+     * @param status http status of the response
+     * @return max number of attempts, including the first, for responses with the status
+     */
+    public int getMaxAttempts(int status) {
+        return statusAttempts.getOrDefault(status, 1);
+    }
+
+    public int getErrorAttempts() {
+        return errorAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public Duration getMaxRetryTime() {
+        return maxRetryTime;
+    }
+
+    public boolean isEnabled() {
+        return errorAttempts > 1 || !statusAttempts.isEmpty();
+    }
+
+    /**
+     * @param retry number of the retry, 1 for the first
+     * @return how long to wait before the retry, a random duration up to the exponential backoff
+     */
+    public Duration backoff(int retry) {
+        long max = maxBackoff.toMillis();
+        long backoff = Math.min(max, initialBackoff.toMillis() << Math.min(retry - 1, 30));
+        return Duration.ofMillis(backoff <= 0 ? 0 : ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RetryPolicy that = (RetryPolicy) o;
+        return errorAttempts == that.errorAttempts &&
+            statusAttempts.equals(that.statusAttempts) &&
+            initialBackoff.equals(that.initialBackoff) &&
+            maxBackoff.equals(that.maxBackoff) &&
+            maxRetryTime.equals(that.maxRetryTime);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(statusAttempts, errorAttempts, initialBackoff, maxBackoff, maxRetryTime);
+    }
+}
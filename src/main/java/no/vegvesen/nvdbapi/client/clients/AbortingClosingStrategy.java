@@ -0,0 +1,38 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectionClosingStrategy;
+import org.glassfish.jersey.client.ClientRequest;
+
+import javax.ws.rs.client.Invocation;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Closes a response that is not read to the end by aborting the request, instead of reading the
+ * rest of the response so the connection can be reused. The connection is then discarded and its lease
+ * in the pool released at once. A response that is read to the end has already released its connection
+ * back to the pool, and is not affected.
+ */
+class AbortingClosingStrategy implements ApacheConnectionClosingStrategy {
+    private static final AbortingClosingStrategy INSTANCE = new AbortingClosingStrategy();
+
+    static Invocation.Builder abortOnClose(Invocation.Builder request) {
+        return request.property(ApacheClientProperties.CONNECTION_CLOSING_STRATEGY, INSTANCE);
+    }
+
+    @Override
+    public void close(ClientRequest clientRequest,
+                      HttpUriRequest request,
+                      CloseableHttpResponse response,
+                      InputStream stream) throws IOException {
+        try {
+            request.abort();
+            stream.close();
+        } finally {
+            response.close();
+        }
+    }
+}
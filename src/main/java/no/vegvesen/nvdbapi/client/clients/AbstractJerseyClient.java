@@ -35,7 +35,7 @@ abstract class AbstractJerseyClient implements AutoCloseable, Serializable {
     private final String baseUrl;
     private final Client client;
     private final Consumer<AbstractJerseyClient> onClose;
-    private boolean isClosed;
+    private volatile boolean isClosed;
 
     AbstractJerseyClient(String baseUrl,
                          Client client,
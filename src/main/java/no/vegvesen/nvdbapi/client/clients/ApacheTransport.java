@@ -0,0 +1,138 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.HttpTransport;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.entity.DeflateInputStreamFactory;
+import org.apache.http.client.entity.InputStreamFactory;
+import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.apache.connector.ApacheHttpClientBuilderConfigurator;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The default transport, HTTP/1.1 with Apache HttpClient and the connection pool of the {@code ClientFactory}.
+ */
+class ApacheTransport implements HttpTransport {
+    private final HttpClientConnectionManager connectionManager;
+
+    ApacheTransport(HttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void configure(ClientConfig config) {
+        ApacheConnectorProvider connectorProvider = new ApacheConnectorProvider();
+        config.connectorProvider((client, runtimeConfig) ->
+                new AbortableConnector(connectorProvider.getConnector(client, runtimeConfig)))
+            .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+            .register(new ContentDecoders())
+            .register(new AbortableRequests());
+    }
+
+    /**
+     * Sends each request that has a {@link RequestAborter} with the aborter bound to the sending thread.
+     * HttpClient sends async requests on the thread that calls the connector as well.
+     */
+    private static final class AbortableConnector implements Connector {
+        private final Connector delegate;
+
+        AbortableConnector(Connector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            return RequestAborter.from(request)
+                .map(aborter -> aborter.run(() -> delegate.apply(request)))
+                .orElseGet(() -> delegate.apply(request));
+        }
+
+        @Override
+        public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+            return RequestAborter.from(request)
+                .<Future<?>>map(aborter -> aborter.run(() -> delegate.apply(request, callback)))
+                .orElseGet(() -> delegate.apply(request, callback));
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Registers each request with the {@link RequestAborter} bound to the thread that sends it, so that another
+     * thread can abort it while it waits for a connection or the response, or while the response is read.
+     */
+    private static final class AbortableRequests implements ApacheHttpClientBuilderConfigurator {
+        @Override
+        public HttpClientBuilder configure(HttpClientBuilder builder) {
+            return builder.addInterceptorFirst((HttpRequestInterceptor) (request, context) -> {
+                HttpRequest original = request instanceof HttpRequestWrapper
+                    ? ((HttpRequestWrapper) request).getOriginal()
+                    : request;
+                if (original instanceof HttpUriRequest) {
+                    RequestAborter.register(((HttpUriRequest) original)::abort);
+                }
+            });
+        }
+    }
+
+    /**
+     * HttpClient only puts a connection back in the pool when the end of the response has been read.
+     * {@code GZIPInputStream} stops after the gzip trailer, before the end of a chunked response, so gzipped
+     * responses are decoded by a stream that reads the rest of the response when the gzip data ends.
+     */
+    private static final class ContentDecoders implements ApacheHttpClientBuilderConfigurator {
+        @Override
+        public HttpClientBuilder configure(HttpClientBuilder builder) {
+            InputStreamFactory gzip = DrainingGZIPInputStream::new;
+            Map<String, InputStreamFactory> decoders = new HashMap<>();
+            decoders.put("gzip", gzip);
+            decoders.put("x-gzip", gzip);
+            decoders.put("deflate", DeflateInputStreamFactory.getInstance());
+            return builder.setContentDecoderRegistry(decoders);
+        }
+    }
+
+    private static final class DrainingGZIPInputStream extends GZIPInputStream {
+        private boolean drained;
+
+        DrainingGZIPInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int read = super.read(buf, off, len);
+            if (read == -1 && !drained) {
+                drained = true;
+                while (in.read() != -1) {
+                    // the end of the chunked response
+                }
+            }
+            return read;
+        }
+    }
+}
@@ -32,6 +32,7 @@ import no.vegvesen.nvdbapi.client.gson.AreaParser;
 import no.vegvesen.nvdbapi.client.model.Page;
 import no.vegvesen.nvdbapi.client.model.Projection;
 import no.vegvesen.nvdbapi.client.model.areas.*;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
@@ -39,6 +40,7 @@ import javax.ws.rs.core.UriBuilder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -63,6 +65,16 @@ public class AreaClient extends AbstractJerseyClient {
         return getMunicipalities(true, true, false, null);
     }
 
+    public Mono<List<Municipality>> getMunicipalitiesAsync(boolean includeBoundingBox, boolean includeCenterPoint, boolean includeObjectLink, Projection projection) {
+        WebTarget target = getClient().target(areaRoot().path("kommuner"));
+
+        return getAreasAsync(withIncludes(includeBoundingBox, includeCenterPoint, includeObjectLink, projection, target), AreaParser::parseMun);
+    }
+
+    public Mono<List<Municipality>> getMunicipalitiesAsync() {
+        return getMunicipalitiesAsync(true, true, false, null);
+    }
+
     public List<County> getCountys(boolean includeBoundingBox, boolean includeCenterPoint, boolean includeObjectLink, Projection projection) {
         WebTarget target = getClient().target(areaRoot().path("fylker"));
 
@@ -75,18 +87,30 @@ public class AreaClient extends AbstractJerseyClient {
         return getCountys(true, true, false, null);
     }
 
-    public List<Route> getNationalRoutes(boolean includeObjectLink) {
-        UriBuilder path = areaRoot().path("riksvegruter");
+    public Mono<List<County>> getCountysAsync(boolean includeBoundingBox, boolean includeCenterPoint, boolean includeObjectLink, Projection projection) {
+        WebTarget target = getClient().target(areaRoot().path("fylker"));
 
-        if (includeObjectLink) path.queryParam("inkluder", getIncludeParameter(false, false, true));
+        return getAreasAsync(withIncludes(includeBoundingBox, includeCenterPoint, includeObjectLink, projection, target), AreaParser::parseCounty);
+    }
 
-        WebTarget target = getClient().target(path);
+    public Mono<List<County>> getCountysAsync() {
+        return getCountysAsync(true, true, false, null);
+    }
 
-        return getAreas(target)
+    public List<Route> getNationalRoutes(boolean includeObjectLink) {
+        return getAreas(getObjectLinkTarget("riksvegruter", includeObjectLink))
             .map(rt(AreaParser::parseRoute))
             .collect(Collectors.toList());
     }
 
+    public Mono<List<Route>> getNationalRoutesAsync(boolean includeObjectLink) {
+        return getAreasAsync(getObjectLinkTarget("riksvegruter", includeObjectLink), AreaParser::parseRoute);
+    }
+
+    public Mono<List<Route>> getNationalRoutesAsync() {
+        return getNationalRoutesAsync(false);
+    }
+
     public StreetsResult getStreets(StreetRequest request) {
         WebTarget target = getStreetWebTarget(request.includeObjectLink());
 
@@ -116,13 +140,7 @@ public class AreaClient extends AbstractJerseyClient {
     }
 
     public List<ContractArea> getContractAreas(boolean includeObjectLink) {
-        UriBuilder path = areaRoot().path("kontraktsomrader");
-
-        if (includeObjectLink) path.queryParam("inkluder", getIncludeParameter(false, false, true));
-
-        WebTarget target = getClient().target(path);
-
-        return getAreas(target)
+        return getAreas(getObjectLinkTarget("kontraktsomrader", includeObjectLink))
             .map(rt(AreaParser::parseContractArea))
             .collect(Collectors.toList());
     }
@@ -131,7 +149,27 @@ public class AreaClient extends AbstractJerseyClient {
         return getContractAreas(false);
     }
 
+    public Mono<List<ContractArea>> getContractAreasAsync(boolean includeObjectLink) {
+        return getAreasAsync(getObjectLinkTarget("kontraktsomrader", includeObjectLink), AreaParser::parseContractArea);
+    }
+
+    public Mono<List<ContractArea>> getContractAreasAsync() {
+        return getContractAreasAsync(false);
+    }
+
+    private WebTarget getObjectLinkTarget(String area, boolean includeObjectLink) {
+        UriBuilder path = areaRoot().path(area);
+
+        if (includeObjectLink) path.queryParam("inkluder", getIncludeParameter(false, false, true));
+
+        return getClient().target(path);
+    }
+
     private Stream<JsonObject> getAreas(boolean includeBoundingBox, boolean includeCenterPoint, boolean includeObjectLink, Projection projection, WebTarget target) {
+        return getAreas(withIncludes(includeBoundingBox, includeCenterPoint, includeObjectLink, projection, target));
+    }
+
+    private static WebTarget withIncludes(boolean includeBoundingBox, boolean includeCenterPoint, boolean includeObjectLink, Projection projection, WebTarget target) {
         if (projection != null) {
             target = target.queryParam("srid", projection.getSrid());
         }
@@ -140,11 +178,21 @@ public class AreaClient extends AbstractJerseyClient {
             target = target.queryParam("inkluder", getIncludeParameter(includeBoundingBox, includeCenterPoint, includeObjectLink));
         }
 
-        return getAreas(target);
+        return target;
     }
 
     private Stream<JsonObject> getAreas(WebTarget target) {
-        JsonElement e = JerseyHelper.execute(target);
+        return toObjects(JerseyHelper.execute(target));
+    }
+
+    private static <T> Mono<List<T>> getAreasAsync(WebTarget target, Function<JsonObject, T> parser) {
+        return JerseyHelper.executeAsync(target)
+            .map(e -> toObjects(e)
+                .map(rt(parser))
+                .collect(Collectors.toList()));
+    }
+
+    private static Stream<JsonObject> toObjects(JsonElement e) {
         JsonArray a = e.getAsJsonArray();
         return StreamSupport.stream(a.spliterator(), false).map(JsonElement::getAsJsonObject);
     }
@@ -183,7 +231,7 @@ public class AreaClient extends AbstractJerseyClient {
 
         public AsyncStreetsResult(WebTarget baseTarget,
                                       Page currentPage) {
-            super(baseTarget, currentPage, rt(AreaParser::parseStreet));
+            super(baseTarget, currentPage, "gater", rt(AreaParser::parseStreet));
         }
     }
 }
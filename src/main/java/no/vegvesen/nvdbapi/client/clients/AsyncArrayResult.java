@@ -1,6 +1,5 @@
 package no.vegvesen.nvdbapi.client.clients;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.internal.Streams;
 import com.google.gson.stream.JsonReader;
@@ -8,7 +7,7 @@ import no.vegvesen.nvdbapi.client.exceptions.ClientException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
 
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
@@ -16,65 +15,81 @@ import javax.ws.rs.core.Response;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Function;
 
+/**
+ * Streams the objects of a response containing a json array.
+ * The objects are read from the response as downstream demand arrives.
+ */
 public class AsyncArrayResult<T> {
     private static final Logger logger = LoggerFactory.getLogger(GenericResultSet.class);
 
     private final WebTarget baseTarget;
     private final Function<JsonObject, T> parser;
-    private final ExecutorService executorService;
-    private final Gson gson;
+    private final Scheduler scheduler;
 
     public AsyncArrayResult(WebTarget baseTarget,
                             Function<JsonObject, T> parser) {
         this.baseTarget = baseTarget;
         this.parser = parser;
-        executorService = Executors.newSingleThreadExecutor();
-        gson = new Gson();
+        scheduler = AsyncScheduler.from(baseTarget);
     }
 
+    /**
+     * Cancelling the subscription aborts the request instead of reading the rest of the response,
+     * so its connection is released at once.
+     * @return objects in response
+     */
     public Flux<T> get() {
-        return Flux.create(sink -> executorService.execute(() -> {
-            try {
-                doPage(sink);
-            } catch (Exception e) {
-                sink.error(e);
-            } finally {
-                sink.complete();
-                executorService.shutdown();
-            }
-        }));
+        return Flux.defer(() -> {
+                ArrayCursor arrayCursor = new ArrayCursor();
+                return Flux.<T, ArrayCursor>generate(
+                        () -> arrayCursor,
+                        (cursor, sink) -> {
+                            JsonObject next = cursor.next();
+                            if (next == null) {
+                                sink.complete();
+                            } else {
+                                sink.next(parser.apply(next));
+                            }
+                            return cursor;
+                        },
+                        ArrayCursor::close)
+                    .doOnCancel(arrayCursor::abort);
+            })
+            .subscribeOn(scheduler);
     }
 
-    private void doPage(FluxSink<T> sink) throws IOException {
-        WebTarget actualTarget = baseTarget;
+    /**
+     * @param bufferSize the maximum number of objects requested from the response at a time,
+     *                   regardless of how much the subscriber requests.
+     * @return objects in response
+     */
+    public Flux<T> get(int bufferSize) {
+        return get().limitRate(bufferSize);
+    }
 
-        logger.debug("Invoking {}", actualTarget.getUri());
-        Invocation inv = actualTarget.request()
-            .accept(JerseyHelper.MEDIA_TYPE)
-            .buildGet();
-        try(Response response = JerseyHelper.execute(inv, Response.class)) {
+    private class ArrayCursor {
+        private volatile Response response;
+        private JsonReader reader;
+        private String requestId;
+        private boolean done;
+        private volatile boolean cancelled;
 
-            if (!JerseyHelper.isSuccess(response)) {
-                sink.error(JerseyHelper.parseError(response));
+        JsonObject next() {
+            if (done || cancelled) {
+                return null;
             }
-            String requestId = response.getHeaderString("X-REQUEST-ID");
-
-            try(JsonReader reader = gson.newJsonReader(
-                new InputStreamReader(
-                    new BufferedInputStream(
-                        (InputStream) response.getEntity()), StandardCharsets.UTF_8))) {
-                reader.beginArray();
-                while (reader.hasNext()) {
-                    sink.next(
-                        parser.apply(
-                            Streams.parse(reader).getAsJsonObject()));
+            if (reader == null) {
+                open();
+                if (reader == null) {
+                    return null;
+                }
+            }
+            try {
+                if (reader.hasNext()) {
+                    return Streams.parse(reader).getAsJsonObject();
                 }
                 reader.endArray();
 
@@ -86,7 +101,77 @@ public class AsyncArrayResult<T> {
                  */
                 reader.skipValue();
             } catch (Exception e) {
-                throw new ClientException(response.getStatus(), requestId, Collections.emptyList(), e);
+                if (cancelled) {
+                    logger.debug("Reading of {} was aborted", baseTarget.getUri());
+                    return null;
+                }
+                int status = response.getStatus();
+                close();
+                throw new ClientException(status, requestId, Collections.emptyList(), e);
+            }
+            close();
+            return null;
+        }
+
+        private void open() {
+            WebTarget actualTarget = baseTarget;
+
+            logger.debug("Invoking {}", actualTarget.getUri());
+            Invocation inv = AbortingClosingStrategy.abortOnClose(actualTarget.request())
+                .accept(JerseyHelper.MEDIA_TYPE)
+                .buildGet();
+            response = JerseyHelper.execute(inv, Response.class);
+            if (cancelled) {
+                // cancelled while waiting for the response, the body is not read
+                close();
+                return;
+            }
+            if (!JerseyHelper.isSuccess(response)) {
+                try {
+                    throw JerseyHelper.parseError(response);
+                } finally {
+                    close();
+                }
+            }
+            requestId = response.getHeaderString("X-REQUEST-ID");
+            try {
+                reader = JsonEngines.newReader(baseTarget,
+                    new BufferedInputStream(
+                        (InputStream) response.getEntity()));
+                reader.beginArray();
+            } catch (Exception e) {
+                int status = response.getStatus();
+                close();
+                throw new ClientException(status, requestId, Collections.emptyList(), e);
+            }
+        }
+
+        /**
+         * Called when the subscription is cancelled, possibly while another thread is reading the response.
+         */
+        void abort() {
+            cancelled = true;
+            closeResponse();
+        }
+
+        void close() {
+            done = true;
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                logger.debug("Failed to close response", e);
+            } finally {
+                reader = null;
+                closeResponse();
+            }
+        }
+
+        private synchronized void closeResponse() {
+            if (response != null) {
+                response.close();
+                response = null;
             }
         }
     }
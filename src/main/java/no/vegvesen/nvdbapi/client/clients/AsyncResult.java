@@ -1,15 +1,14 @@
 package no.vegvesen.nvdbapi.client.clients;
 
-import com.google.gson.*;
-import com.google.gson.internal.Streams;
+import com.google.gson.JsonObject;
 import com.google.gson.stream.JsonReader;
 import no.vegvesen.nvdbapi.client.exceptions.ClientException;
-import no.vegvesen.nvdbapi.client.gson.GsonUtil;
+import no.vegvesen.nvdbapi.client.gson.StreamingParser;
 import no.vegvesen.nvdbapi.client.model.Page;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
 
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
@@ -17,110 +16,203 @@ import javax.ws.rs.core.Response;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 import static no.vegvesen.nvdbapi.client.clients.GenericResultSet.applyPage;
 
+/**
+ * Streams the objects of a paged result set.
+ * The objects are read from the response as downstream demand arrives, and the next page is only
+ * requested when the objects of the current page have been requested, so a slow subscriber
+ * does not cause objects to be buffered.
+ */
 public class AsyncResult<T> {
     private static final Logger logger = LoggerFactory.getLogger(GenericResultSet.class);
 
     private final WebTarget baseTarget;
-    private final Function<JsonObject, T> parser;
+    private final StreamingParser<T> parser;
+    private final String objekterField;
     private final Page page;
-    private final ExecutorService executorService;
-    private final Gson gson;
+    private final Scheduler scheduler;
 
     public AsyncResult(WebTarget baseTarget,
                        Page page,
                        Function<JsonObject, T> parser) {
+        this(baseTarget, page, "objekter", parser);
+    }
+
+    public AsyncResult(WebTarget baseTarget,
+                       Page page,
+                       String objekterField,
+                       Function<JsonObject, T> parser) {
+        this(baseTarget, page, objekterField, StreamingParser.fromTree(parser));
+    }
+
+    /**
+     * @param parser reads each object straight from the response, without building a tree of it first
+     */
+    public AsyncResult(WebTarget baseTarget,
+                       Page page,
+                       String objekterField,
+                       StreamingParser<T> parser) {
         this.baseTarget = baseTarget;
         this.parser = parser;
+        this.objekterField = objekterField;
         this.page = page;
-        executorService = Executors.newSingleThreadExecutor();
-        gson = new Gson();
+        scheduler = AsyncScheduler.from(baseTarget);
     }
 
+    /**
+     * Cancelling the subscription stops the paging, and aborts the request of the current page
+     * instead of reading the rest of it, so its connection is released at once.
+     * @return objects in result set
+     */
     public Flux<T> get() {
-        return Flux.create(sink -> executorService.execute(() -> {
-            try {
-                PagingIndicator pagingIndicator = doPage(sink, page);
-                while (pagingIndicator.hasNext) {
-                    pagingIndicator = doPage(sink, pagingIndicator.currentPage);
-                }
-            } catch (Exception e) {
-                sink.error(e);
-            } finally {
-                sink.complete();
-                executorService.shutdown();
-            }
-        }));
+        return Flux.defer(() -> {
+                    PageCursor pageCursor = new PageCursor(page);
+                    return Flux.<T, PageCursor>generate(
+                            () -> pageCursor,
+                            (cursor, sink) -> {
+                                T next = cursor.next();
+                                if (next == null) {
+                                    sink.complete();
+                                } else {
+                                    sink.next(next);
+                                }
+                                return cursor;
+                            },
+                            PageCursor::close)
+                        .doOnCancel(pageCursor::abort);
+                })
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * @param bufferSize the maximum number of objects requested from the response at a time,
+     *                   regardless of how much the subscriber requests.
+     * @return objects in result set
+     */
+    public Flux<T> get(int bufferSize) {
+        return get().limitRate(bufferSize);
     }
 
-    private PagingIndicator doPage(FluxSink<T> sink, Page currentPage) throws IOException {
-        WebTarget actualTarget = applyPage(currentPage, baseTarget);
+    /**
+     * Reads one object at a time from the response of the current page, and requests the next page
+     * when the current is exhausted.
+     */
+    private class PageCursor {
+        private Page currentPage;
+        private volatile Response response;
+        private JsonReader reader;
+        private PageDecoder decoder;
+        private String requestId;
+        private boolean hasNext = true;
+        private volatile boolean cancelled;
 
-        logger.debug("Invoking {}", actualTarget.getUri());
-        Invocation inv = actualTarget.request()
-                .accept(JerseyHelper.MEDIA_TYPE)
-                .buildGet();
-        try(Response response = JerseyHelper.execute(inv, Response.class)) {
+        PageCursor(Page currentPage) {
+            this.currentPage = currentPage;
+        }
 
-            if (!JerseyHelper.isSuccess(response)) {
-                sink.error(JerseyHelper.parseError(response));
-                return new PagingIndicator(false, currentPage);
+        T next() {
+            while (true) {
+                if (cancelled) {
+                    return null;
+                }
+                if (decoder == null) {
+                    if (!hasNext) {
+                        return null;
+                    }
+                    open();
+                    if (decoder == null) {
+                        return null;
+                    }
+                }
+                try {
+                    T next = decoder.next(parser);
+                    if (next != null) {
+                        return next;
+                    }
+                    String nextToken = decoder.nextToken();
+                    String token = currentPage.getStart().orElse(null);
+                    logger.debug("last token: {} next token: {}", token, nextToken);
+                    // no next page if last token and next token are equal
+                    hasNext = nextToken != null && (!nextToken.equals(token));
+                    currentPage = currentPage.withStart(nextToken);
+                } catch (Exception e) {
+                    if (cancelled) {
+                        logger.debug("Reading of {} was aborted", currentPage);
+                        return null;
+                    }
+                    int status = response.getStatus();
+                    close();
+                    throw new ClientException(status, requestId, Collections.emptyList(), e);
+                }
+                close();
+            }
+        }
+
+        private void open() {
+            WebTarget actualTarget = applyPage(currentPage, baseTarget);
+
+            logger.debug("Invoking {}", actualTarget.getUri());
+            Invocation inv = AbortingClosingStrategy.abortOnClose(actualTarget.request())
+                    .accept(JerseyHelper.MEDIA_TYPE)
+                    .buildGet();
+            response = JerseyHelper.execute(inv, Response.class);
+            if (cancelled) {
+                // cancelled while waiting for the response, the body is not read
+                close();
+                return;
             }
-            String requestId = response.getHeaderString("X-REQUEST-ID");
-
-            try(JsonReader reader = gson.newJsonReader(
-                    new InputStreamReader(
-                            new BufferedInputStream(
-                            (InputStream) response.getEntity()), StandardCharsets.UTF_8))) {
-                reader.beginObject();
-                reader.nextName();
-                reader.beginArray();
-                while (reader.hasNext()) {
-                    sink.next(
-                            parser.apply(
-                                    Streams.parse(reader).getAsJsonObject()));
+            if (!JerseyHelper.isSuccess(response)) {
+                try {
+                    throw JerseyHelper.parseError(response);
+                } finally {
+                    close();
                 }
-                reader.endArray();
-                reader.nextName();
-                JsonObject metadata = Streams.parse(reader).getAsJsonObject();
-                String nextToken = GsonUtil.getNode(metadata, "neste.start")
-                        .map(JsonElement::getAsString)
-                        .orElse(null);
-                String token = currentPage.getStart().orElse(null);
-                logger.debug("last token: {} next token: {}", token, nextToken);
-                // no next page if last token and next token are equal
-                boolean hasNext = nextToken != null && (!nextToken.equals(token));
-                reader.endObject();
-
-                /*
-                 Not use why reader.skipValue() is needed.
-                 If it's left out MalformedChunkCodingException: CRLF expected at end of chunk
-                 some times occurs.
-                 https://stackoverflow.com/questions/8635112/java-malformedchunkcodingexception
-                 */
-                reader.skipValue();
-                return new PagingIndicator(hasNext, currentPage.withStart(nextToken));
+            }
+            requestId = response.getHeaderString("X-REQUEST-ID");
+            try {
+                reader = JsonEngines.newReader(baseTarget,
+                        new BufferedInputStream(
+                                (InputStream) response.getEntity()));
+                decoder = new PageDecoder(reader, objekterField);
             } catch (Exception e) {
-                throw new ClientException(response.getStatus(), requestId, Collections.emptyList(), e);
+                int status = response.getStatus();
+                close();
+                throw new ClientException(status, requestId, Collections.emptyList(), e);
             }
         }
-    }
 
-    private static class PagingIndicator {
-        final boolean hasNext;
-        final Page currentPage;
+        /**
+         * Called when the subscription is cancelled, possibly while another thread is reading the response.
+         * Closing the response aborts the request, so a blocked read fails at once.
+         */
+        void abort() {
+            cancelled = true;
+            closeResponse();
+        }
 
-        PagingIndicator(boolean hasNext, Page currentPage) {
-            this.hasNext = hasNext;
-            this.currentPage = currentPage;
+        void close() {
+            try {
+                if (reader != null) {
+                    reader.close();
+                }
+            } catch (IOException e) {
+                logger.debug("Failed to close response", e);
+            } finally {
+                reader = null;
+                decoder = null;
+                closeResponse();
+            }
+        }
+
+        private synchronized void closeResponse() {
+            if (response != null) {
+                response.close();
+                response = null;
+            }
         }
     }
 }
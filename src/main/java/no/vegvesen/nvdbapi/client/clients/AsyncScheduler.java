@@ -0,0 +1,240 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.ClientConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.ws.rs.client.WebTarget;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The scheduler shared by the async results of a {@code ClientFactory}.
+ * Wraps the configured scheduler to keep track of how many tasks are queued and running.
+ * The results find it as a property on the configuration of their {@code WebTarget}.
+ * It is also the executor of the async requests of the Jersey clients, so those are bounded by the same threads.
+ */
+class AsyncScheduler implements Scheduler {
+    static final String PROPERTY = "no.vegvesen.nvdbapi.client.asyncScheduler";
+    private static final Logger logger = LoggerFactory.getLogger(AsyncScheduler.class);
+
+    private final Scheduler delegate;
+    private final boolean owned;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final ExecutorService executorService = new SchedulerExecutorService();
+
+    private AsyncScheduler(Scheduler delegate, boolean owned) {
+        this.delegate = delegate;
+        this.owned = owned;
+    }
+
+    static AsyncScheduler create(ClientConfiguration clientConfig) {
+        if (clientConfig != null && clientConfig.getAsyncScheduler().isPresent()) {
+            return new AsyncScheduler(clientConfig.getAsyncScheduler().get(), false);
+        }
+        if (clientConfig != null && clientConfig.isAsyncVirtualThreads()) {
+            try {
+                ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+                return new AsyncScheduler(Schedulers.fromExecutorService(executor), true);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Virtual threads are not supported by this JVM, using a bounded thread pool");
+            }
+        }
+        int threads = clientConfig != null ? clientConfig.getAsyncThreads() : ClientConfiguration.DEFAULT_ASYNC_THREADS;
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads, threads,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread thread = new Thread(r, "nvdb-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return new AsyncScheduler(Schedulers.fromExecutorService(executor), true);
+    }
+
+    /**
+     * @param target the target of an async result
+     * @return the scheduler of the {@code ClientFactory} that created the target,
+     * or a default scheduler if it was not created by a {@code ClientFactory}.
+     */
+    static Scheduler from(WebTarget target) {
+        Object scheduler = target.getConfiguration().getProperty(PROPERTY);
+        if (scheduler instanceof Scheduler) {
+            return (Scheduler) scheduler;
+        }
+        return Schedulers.elastic();
+    }
+
+    /**
+     * @return an executor that runs its tasks on this scheduler. Shutting it down does nothing,
+     * the scheduler is disposed when the {@code ClientFactory} is closed.
+     */
+    ExecutorService asExecutorService() {
+        return executorService;
+    }
+
+    int getQueuedTasks() {
+        return queued.get();
+    }
+
+    int getActiveTasks() {
+        return active.get();
+    }
+
+    @Override
+    public Disposable schedule(Runnable task) {
+        return counted(task, delegate::schedule);
+    }
+
+    @Override
+    public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        return counted(task, t -> delegate.schedule(t, delay, unit));
+    }
+
+    @Override
+    public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return delegate.schedulePeriodically(task, initialDelay, period, unit);
+    }
+
+    @Override
+    public long now(TimeUnit unit) {
+        return delegate.now(unit);
+    }
+
+    @Override
+    public Worker createWorker() {
+        Worker worker = delegate.createWorker();
+        return new Worker() {
+            @Override
+            public Disposable schedule(Runnable task) {
+                return counted(task, worker::schedule);
+            }
+
+            @Override
+            public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+                return counted(task, t -> worker.schedule(t, delay, unit));
+            }
+
+            @Override
+            public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+                return worker.schedulePeriodically(task, initialDelay, period, unit);
+            }
+
+            @Override
+            public void dispose() {
+                worker.dispose();
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return worker.isDisposed();
+            }
+        };
+    }
+
+    @Override
+    public void start() {
+        delegate.start();
+    }
+
+    /**
+     * Disposes the underlying scheduler, unless it was provided by the user.
+     */
+    @Override
+    public void dispose() {
+        if (owned) {
+            delegate.dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate.isDisposed();
+    }
+
+    private Disposable counted(Runnable task, Function<Runnable, Disposable> schedule) {
+        AtomicBoolean dequeued = new AtomicBoolean();
+        Runnable dequeue = () -> {
+            if (dequeued.compareAndSet(false, true)) {
+                queued.decrementAndGet();
+            }
+        };
+        queued.incrementAndGet();
+        Disposable disposable;
+        try {
+            disposable = schedule.apply(() -> {
+                dequeue.run();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            dequeue.run();
+            throw e;
+        }
+        return new Disposable() {
+            @Override
+            public void dispose() {
+                dequeue.run();
+                disposable.dispose();
+            }
+
+            @Override
+            public boolean isDisposed() {
+                return disposable.isDisposed();
+            }
+        };
+    }
+
+    private final class SchedulerExecutorService extends AbstractExecutorService {
+        @Override
+        public void execute(Runnable command) {
+            schedule(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return isDisposed();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return isDisposed();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return isDisposed();
+        }
+    }
+}
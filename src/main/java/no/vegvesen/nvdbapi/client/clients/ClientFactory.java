@@ -31,6 +31,11 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.jar.Attributes;
@@ -42,20 +47,27 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
 import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.impl.client.IdleConnectionEvictor;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.pool.ConnPoolControl;
-import org.glassfish.jersey.apache.connector.ApacheClientProperties;
-import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
 import org.glassfish.jersey.message.DeflateEncoder;
 import org.glassfish.jersey.message.GZipEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import no.vegvesen.nvdbapi.client.ClientConfiguration;
+import no.vegvesen.nvdbapi.client.HttpTransport;
+import no.vegvesen.nvdbapi.client.JsonEngine;
+import no.vegvesen.nvdbapi.client.RetryPolicy;
 import no.vegvesen.nvdbapi.client.ProxyConfig;
 import no.vegvesen.nvdbapi.client.gson.GsonMessageBodyHandler;
+import no.vegvesen.nvdbapi.client.model.ConnectionPoolStats;
 import no.vegvesen.nvdbapi.client.model.datakatalog.Datakatalog;
 import no.vegvesen.nvdbapi.client.model.datakatalog.Version;
 import no.vegvesen.nvdbapi.client.util.LoggingFilter;
@@ -73,20 +85,36 @@ public final class ClientFactory implements AutoCloseable {
     private final ProxyConfig proxyConfig;
     private final ClientConfiguration clientConfig;
 
-    private Datakatalog datakatalog;
-    private Version datakatalogVersion;
-    private final Map<Class<? extends AbstractJerseyClient>, AbstractJerseyClient> clients;
-    private boolean isClosed;
+    /*
+     * The factory may be shared by many threads. Clients are kept in a concurrent map, the datakatalog and its
+     * version are downloaded once, by the first thread that asks, and read without locking after that.
+     */
+    private volatile Datakatalog datakatalog;
+    private volatile Version datakatalogVersion;
+    private final Object datakatalogLock = new Object();
+    private final Object datakatalogVersionLock = new Object();
+    private final ConcurrentMap<Class<? extends AbstractJerseyClient>, AbstractJerseyClient> clients;
+    private final AtomicBoolean isClosed = new AtomicBoolean();
     private final Logger debugLogger;
-    private final PoolingHttpClientConnectionManager connectionManager;
     /*
      * Each of or Clients have their own {@code javax.ws.rs.client.Client}, that share a
      * {@code org.apache.http.impl.conn.PoolingHttpClientConnectionManager}.
      * If {@code close()} is called on our client, the connection manager is shutdown.
+     * Null when the configuration has a transport of its own.
      */
-    private final HttpClientConnectionManager notCloseableConnectionManager;
-
-    private Login.AuthTokens authTokens;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final IdleConnectionEvictor connectionEvictor;
+    private final HttpTransport transport;
+    private final JsonEngine jsonEngine;
+    private final RetryPolicy retryPolicy;
+    private final EndpointCounters retryCounters = new EndpointCounters();
+    private final RateLimiter rateLimiter;
+    private final Hedger hedger;
+    private final RequestCoalescer requestCoalescer;
+    private final AsyncScheduler asyncScheduler;
+
+    private final AtomicReference<Login.AuthTokens> authTokens = new AtomicReference<>();
+    private final TokenRefresher tokenRefresher;
 
     /**
      * @param baseUrl - what base url to use. For production: https://nvdbapiles-v3.atlas.vegvesen.no
@@ -153,11 +181,31 @@ public final class ClientFactory implements AutoCloseable {
         this.xSession = Optional.ofNullable(xSession).orElseGet(this::getOrCreateSessionId);
         this.userAgent = getUserAgent();
         this.debugLogger = LoggerFactory.getLogger("no.vegvesen.nvdbapi.Client");
-        this.clients = new HashMap<>();
-        this.connectionManager = new PoolingHttpClientConnectionManager();
-        this.notCloseableConnectionManager = getConnectionManager(connectionManager);
+        this.clients = new ConcurrentHashMap<>();
         this.proxyConfig = proxyConfig;
         this.clientConfig = clientConfig;
+        ClientConfiguration poolConfig = Optional.ofNullable(clientConfig)
+            .orElseGet(() -> ClientConfiguration.ClientConfigurationBuilder.builder().build());
+        if (poolConfig.getTransport().isPresent()) {
+            this.connectionManager = null;
+            this.connectionEvictor = null;
+            this.transport = poolConfig.getTransport().get();
+        } else {
+            this.connectionManager = createConnectionManager(poolConfig);
+            this.connectionEvictor = createConnectionEvictor(connectionManager, poolConfig);
+            this.transport = new ApacheTransport(getConnectionManager(connectionManager));
+        }
+        this.jsonEngine = poolConfig.getJsonEngine().orElseGet(JsonEngine::gson);
+        this.retryPolicy = poolConfig.getRetryPolicy();
+        this.rateLimiter = poolConfig.getRateLimit().isEnabled() ? new RateLimiter(poolConfig.getRateLimit()) : null;
+        this.requestCoalescer = poolConfig.isRequestCoalescing() ? new RequestCoalescer() : null;
+        this.asyncScheduler = AsyncScheduler.create(clientConfig);
+        this.hedger = poolConfig.getHedgingPolicy().isEnabled()
+            ? new Hedger(poolConfig.getHedgingPolicy(), asyncScheduler.asExecutorService())
+            : null;
+        this.tokenRefresher = poolConfig.getTokenRefreshMargin()
+            .map(margin -> new TokenRefresher(authTokens, token -> getAuthClient().refresh(token), margin))
+            .orElse(null);
     }
 
     private String getUserAgent() {
@@ -165,7 +213,7 @@ public final class ClientFactory implements AutoCloseable {
     }
 
     public boolean isClosed() {
-        return isClosed;
+        return isClosed.get();
     }
 
     /**
@@ -181,7 +229,7 @@ public final class ClientFactory implements AutoCloseable {
             AuthClient client = getAuthClient();
             Login login = client.login(username, password);
             if(login.isSuccessful()) {
-                this.authTokens = login.authTokens;
+                setAuthTokens(login.authTokens);
             }
             return login;
         } catch (Exception e) {
@@ -202,7 +250,7 @@ public final class ClientFactory implements AutoCloseable {
             AuthClient client = getAuthClient();
             Login login = client.login(username, password,"serviceaccount");
             if(login.isSuccessful()) {
-                this.authTokens = login.authTokens;
+                setAuthTokens(login.authTokens);
             }
             return login;
         } catch (Exception e) {
@@ -215,7 +263,14 @@ public final class ClientFactory implements AutoCloseable {
      * clear the ClientFactory's auth tokens.
      */
     public void logout() {
-        this.authTokens = null;
+        setAuthTokens(null);
+    }
+
+    private void setAuthTokens(Login.AuthTokens tokens) {
+        this.authTokens.set(tokens);
+        if (tokenRefresher != null) {
+            tokenRefresher.tokensChanged(tokens);
+        }
     }
 
     private AuthClient getAuthClient() {
@@ -232,7 +287,7 @@ public final class ClientFactory implements AutoCloseable {
             AuthClient client = getAuthClient();
             Login refresh = client.refresh(refreshToken);
             if(refresh.isSuccessful()) {
-                this.authTokens = refresh.authTokens;
+                setAuthTokens(refresh.authTokens);
             }
             return refresh;
         } catch (Exception e) {
@@ -246,11 +301,12 @@ public final class ClientFactory implements AutoCloseable {
      * @return {@code Login} containing either {@code AuthTokens} if successful or {@code Failure} if not
      */
     public Login refresh() {
-        if(isNull(this.authTokens) || isNull(authTokens.refreshToken)) {
+        Login.AuthTokens tokens = this.authTokens.get();
+        if(isNull(tokens) || isNull(tokens.refreshToken)) {
             throw new IllegalStateException("Tried to refresh without existing refresh token");
         }
 
-        return refresh(this.authTokens.refreshToken);
+        return refresh(tokens.refreshToken);
     }
 
     /**
@@ -259,7 +315,7 @@ public final class ClientFactory implements AutoCloseable {
      * NOTE: The client will not be able to reauthenticate without a refresh-token
      */
     public void setIdToken(String idToken) {
-        this.authTokens = new Login.AuthTokens(idToken, null);
+        setAuthTokens(new Login.AuthTokens(idToken, null));
     }
 
     /**
@@ -284,7 +340,7 @@ public final class ClientFactory implements AutoCloseable {
     }
 
     private void assertIsOpen() {
-        if (isClosed) {
+        if (isClosed.get()) {
             throw new IllegalStateException("Client factory is closed! Create new instance to continue.");
         }
     }
@@ -296,18 +352,38 @@ public final class ClientFactory implements AutoCloseable {
         return getOrCreateClient(DatakatalogClient.class, DatakatalogClient::new);
     }
 
+    /**
+     * @return the datakatalog, downloaded once. Threads asking while it is downloaded wait for that download.
+     */
     public Datakatalog getDatakatalog() {
-        if (datakatalog == null) {
-            datakatalog = getDatakatalogClient().getDatakalog();
+        Datakatalog known = datakatalog;
+        if (known == null) {
+            synchronized (datakatalogLock) {
+                known = datakatalog;
+                if (known == null) {
+                    known = getDatakatalogClient().getDatakalog();
+                    datakatalog = known;
+                }
+            }
         }
-        return datakatalog;
+        return known;
     }
 
+    /**
+     * @return the version of the datakatalog, downloaded once. Threads asking while it is downloaded wait for that download.
+     */
     public Version getDatakatalogVersion() {
-        if (datakatalogVersion == null) {
-            datakatalogVersion = getDatakatalogClient().getVersion();
+        Version known = datakatalogVersion;
+        if (known == null) {
+            synchronized (datakatalogVersionLock) {
+                known = datakatalogVersion;
+                if (known == null) {
+                    known = getDatakatalogClient().getVersion();
+                    datakatalogVersion = known;
+                }
+            }
         }
-        return datakatalogVersion;
+        return known;
     }
 
     /**
@@ -376,6 +452,135 @@ public final class ClientFactory implements AutoCloseable {
         return getOrCreateClient(TransactionStatusClient.class, TransactionStatusClient::new);
     }
 
+    /**
+     * Prepares the factory for its first requests, in the background. The commonly used clients are created,
+     * the datakatalog version is downloaded, and status requests are sent through each of the clients, {@code connections}
+     * at a time. This initializes the Jersey runtime of the clients and leaves up to {@code connections} connections
+     * to the API open in the pool.
+     * @param connections number of connections to open
+     * @return completes when the warm-up is done, or fails with the error that stopped it.
+     * The warm-up runs whether or not this is subscribed to.
+     */
+    public Mono<Void> warmUp(int connections) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be at least 1, was " + connections);
+        }
+        assertIsOpen();
+        long start = System.nanoTime();
+        Mono<Void> warmUp = Mono.fromCallable(this::getCommonClients)
+            .subscribeOn(asyncScheduler)
+            .flatMapMany(common -> Flux.range(0, Math.max(connections, common.size()))
+                .flatMap(i -> JerseyHelper.executeAsync(
+                    common.get(i % common.size()).getClient().target(baseUrl).path("status")), connections))
+            .then()
+            .doOnSuccess(v -> debugLogger.info("Warm-up done in {} ms",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)))
+            .doOnError(e -> debugLogger.warn("Warm-up failed", e))
+            .cache();
+        warmUp.subscribe(v -> { }, e -> { });
+        return warmUp;
+    }
+
+    private List<AbstractJerseyClient> getCommonClients() {
+        return Arrays.asList(
+            getStatusClient(),
+            getDatakatalogClient(),
+            getRoadObjectClient(),
+            getRoadNetService(),
+            getSegmentedRoadNetService(),
+            getPlacementClient(),
+            getRoadPlacementClient(),
+            getRoadReferenceClient());
+    }
+
+    /**
+     * @return number of tasks of async results waiting for a thread in the shared scheduler
+     */
+    public int getAsyncQueueDepth() {
+        return asyncScheduler.getQueuedTasks();
+    }
+
+    /**
+     * @return number of tasks of async results currently running in the shared scheduler
+     */
+    public int getAsyncActiveTasks() {
+        return asyncScheduler.getActiveTasks();
+    }
+
+    /**
+     * @return number of connections in the pool shared by the clients, that are leased,
+     * available for reuse, and requests waiting for a connection. All zero when the configuration has
+     * a transport of its own, which keeps its connections itself.
+     */
+    public ConnectionPoolStats getConnectionPoolStats() {
+        if (connectionManager == null) {
+            return ConnectionPoolStats.EMPTY;
+        }
+        PoolStats stats = connectionManager.getTotalStats();
+        return new ConnectionPoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+
+    /**
+     * @return number of retries made by the {@code RetryPolicy} of the clients, per endpoint.
+     * Ids in the paths of the endpoints are replaced by {id}.
+     */
+    public Map<String, Long> getRetryCounts() {
+        return retryCounters.snapshot();
+    }
+
+    /**
+     * @return requests per second currently let through by the {@code RateLimit} of the clients.
+     * Lower than the configured rate for a while after 429 responses, infinite when there is no limit.
+     */
+    public double getRequestRate() {
+        return rateLimiter == null ? Double.POSITIVE_INFINITY : rateLimiter.getRate();
+    }
+
+    /**
+     * @return number of requests sent once more by the {@code HedgingPolicy} of the clients
+     */
+    public long getHedgedRequestCount() {
+        return hedger == null ? 0 : hedger.getHedgedRequests();
+    }
+
+    /**
+     * @return number of hedged requests that got a response before the request they hedged
+     */
+    public long getHedgedRequestWins() {
+        return hedger == null ? 0 : hedger.getHedgesWon();
+    }
+
+    /**
+     * @return number of GET requests that were not sent because an identical request was in flight, per endpoint.
+     * Ids in the paths of the endpoints are replaced by {id}.
+     */
+    public Map<String, Long> getCoalescedRequestCounts() {
+        return requestCoalescer == null ? Collections.emptyMap() : requestCoalescer.getSavedRequests();
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager(ClientConfiguration config) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+            config.getConnectionTimeToLive() > 0 ? config.getConnectionTimeToLive() : -1, TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(config.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(config.getValidateAfterInactivity());
+        return connectionManager;
+    }
+
+    private static IdleConnectionEvictor createConnectionEvictor(PoolingHttpClientConnectionManager connectionManager,
+                                                                 ClientConfiguration config) {
+        if (config.getIdleConnectionTimeout() == 0) {
+            return null;
+        }
+        long idleTimeout = config.getIdleConnectionTimeout();
+        IdleConnectionEvictor evictor = new IdleConnectionEvictor(
+            connectionManager,
+            Math.max(idleTimeout / 2, 1000), TimeUnit.MILLISECONDS,
+            idleTimeout, TimeUnit.MILLISECONDS);
+        evictor.start();
+        return evictor;
+    }
+
     private Client createClient() {
         return createClient(Function.identity());
     }
@@ -384,19 +589,25 @@ public final class ClientFactory implements AutoCloseable {
         ClientConfig config = new ClientConfig()
             .register(GZipEncoder.class)
             .register(DeflateEncoder.class)
-            .connectorProvider(new ApacheConnectorProvider())
-            .property(ApacheClientProperties.CONNECTION_MANAGER, notCloseableConnectionManager)
-            .register(GsonMessageBodyHandler.class)
+            .property(AsyncScheduler.PROPERTY, asyncScheduler)
+            .property(JsonEngines.PROPERTY, jsonEngine)
+            .register(new GsonMessageBodyHandler(jsonEngine))
             .register(
                 new RequestHeaderFilter(
                     userAgent,
                     xClientName,
                     xSession,
                     apiRevision,
-                    () -> authTokens));
+                    authTokens::get));
         if (debugLogger != null) {
             config.register(new LoggingFilter(debugLogger, true));
         }
+        if (hedger != null) {
+            config.property(Hedger.PROPERTY, hedger);
+        }
+        if (requestCoalescer != null) {
+            config.property(RequestCoalescer.PROPERTY, requestCoalescer);
+        }
 
         if (proxyConfig != null) {
             config.property(ClientProperties.PROXY_URI, proxyConfig.getUrl());
@@ -409,23 +620,52 @@ public final class ClientFactory implements AutoCloseable {
             config.property(ClientProperties.READ_TIMEOUT, clientConfig.getReadTimeout());
             config.property(ClientProperties.CONNECT_TIMEOUT, clientConfig.getConnectTimeout());
         }
+        transport.configure(config);
+        if (rateLimiter != null) {
+            ConnectorProvider connectorProvider = config.getConnectorProvider();
+            config.connectorProvider((client, runtimeConfig) -> new RateLimitingConnector(
+                connectorProvider.getConnector(client, runtimeConfig), rateLimiter, asyncScheduler.asExecutorService()));
+        }
+        if (retryPolicy.isEnabled()) {
+            ConnectorProvider connectorProvider = config.getConnectorProvider();
+            config.connectorProvider((client, runtimeConfig) -> new RetryingConnector(
+                connectorProvider.getConnector(client, runtimeConfig), retryPolicy, retryCounters));
+        }
 
         return ClientBuilder.newBuilder()
             .withConfig(
                 clientConfigCustomizer.apply(config)
             )
+            .executorService(asyncScheduler.asExecutorService())
             .build();
     }
 
     @Override
     public void close() throws Exception {
+        if (!isClosed.compareAndSet(false, true)) {
+            return;
+        }
         for (AbstractJerseyClient client : new ArrayList<>(clients.values())) {
             if (!client.isClosed()) {
                 client.close();
             }
         }
-        connectionManager.close();
-        isClosed = true;
+        if (connectionEvictor != null) {
+            connectionEvictor.shutdown();
+        }
+        if (hedger != null) {
+            hedger.close();
+        }
+        if (rateLimiter != null) {
+            rateLimiter.close();
+        }
+        if (tokenRefresher != null) {
+            tokenRefresher.close();
+        }
+        if (connectionManager != null) {
+            connectionManager.close();
+        }
+        asyncScheduler.dispose();
     }
 
     private <T extends AbstractJerseyClient> T getOrCreateClient(
@@ -440,12 +680,16 @@ public final class ClientFactory implements AutoCloseable {
         ClientConstructor<T> clientConstructor,
         Function<ClientConfig, ClientConfig> clientConfigCustomizer) {
         assertIsOpen();
+        AbstractJerseyClient existing = clients.get(type);
+        if (existing != null) {
+            return (T) existing;
+        }
         return (T) clients.computeIfAbsent(
             type,
             aClass -> clientConstructor.apply(
                 baseUrl,
                 createClient(clientConfigCustomizer),
-                c -> clients.remove(type))
+                c -> clients.remove(type, c))
         );
     }
 
@@ -34,6 +34,7 @@ import no.vegvesen.nvdbapi.client.model.datakatalog.*;
 import no.vegvesen.nvdbapi.client.util.Stopwatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
@@ -51,7 +52,7 @@ import static no.vegvesen.nvdbapi.client.gson.GsonUtil.rt;
 public class DatakatalogClient extends AbstractJerseyClient {
     private static final Logger LOG = LoggerFactory.getLogger(DatakatalogClient.class);
 
-    private Map<String, DataType> dataTypes;
+    private volatile Map<String, DataType> dataTypes;
 
     DatakatalogClient(String baseUrl, Client client, Consumer<AbstractJerseyClient> onClose) {
         super(baseUrl, client, onClose);
@@ -65,15 +66,31 @@ public class DatakatalogClient extends AbstractJerseyClient {
                            .get();
     }
 
+    public Mono<Version> getVersionAsync() {
+        WebTarget target = getClient().target(endpoint()).path("versjon");
+        return JerseyHelper.executeOptionalAsync(target)
+                           .map(JsonElement::getAsJsonObject)
+                           .map(DatakatalogVersionParser::parseVersion);
+    }
+
     public List<DataType> getDataTypes() {
         return getDataTypeStream()
                 .collect(Collectors.toList());
     }
 
+    public Mono<List<DataType>> getDataTypesAsync() {
+        return JerseyHelper.executeAsync(getClient().target(endpoint()).path("datatyper"))
+            .map(types -> parseDataTypes(types).collect(Collectors.toList()));
+    }
+
     private Stream<DataType> getDataTypeStream() {
         WebTarget target = getClient().target(endpoint()).path("datatyper");
         JsonElement types = JerseyHelper.executeOptional(target)
             .orElseThrow(() -> new IllegalStateException("Could not get response for datatyper"));
+        return parseDataTypes(types);
+    }
+
+    private static Stream<DataType> parseDataTypes(JsonElement types) {
         return StreamSupport.stream(types.getAsJsonArray().spliterator(), false)
             .map(JsonElement::getAsJsonObject)
             .map(rt(AttributeTypeParser::parseDataType));
@@ -88,6 +105,15 @@ public class DatakatalogClient extends AbstractJerseyClient {
         WebTarget target = getClient().target(endpoint()).path("enheter");
         JsonElement units = JerseyHelper.executeOptional(target)
             .orElseThrow(() -> new IllegalStateException("Could not get response for enheter"));
+        return parseUnits(units);
+    }
+
+    public Mono<List<Unit>> getUnitsAsync() {
+        return JerseyHelper.executeAsync(getClient().target(endpoint()).path("enheter"))
+            .map(DatakatalogClient::parseUnits);
+    }
+
+    private static List<Unit> parseUnits(JsonElement units) {
         return StreamSupport.stream(units.getAsJsonArray().spliterator(), false)
                 .map(JsonElement::getAsJsonObject)
                 .map(rt(AttributeTypeParser::parseUnit))
@@ -96,8 +122,16 @@ public class DatakatalogClient extends AbstractJerseyClient {
 
     public List<FeatureTypeCategory> getCategories() {
         WebTarget target = getClient().target(endpoint()).path("kategorier");
-        JsonElement units = JerseyHelper.execute(target);
-        return StreamSupport.stream(units.getAsJsonArray().spliterator(), false)
+        return parseCategories(JerseyHelper.execute(target));
+    }
+
+    public Mono<List<FeatureTypeCategory>> getCategoriesAsync() {
+        return JerseyHelper.executeAsync(getClient().target(endpoint()).path("kategorier"))
+            .map(DatakatalogClient::parseCategories);
+    }
+
+    private static List<FeatureTypeCategory> parseCategories(JsonElement categories) {
+        return StreamSupport.stream(categories.getAsJsonArray().spliterator(), false)
                 .map(JsonElement::getAsJsonObject)
                 .map(rt(FeatureTypeParser::parseCategory))
                 .collect(Collectors.toList());
@@ -125,6 +159,12 @@ public class DatakatalogClient extends AbstractJerseyClient {
                            .map(o -> AttributeTypeParser.parse(dataTypes, o));
     }
 
+    public Mono<AttributeType> getAttributeTypeAsync(int typeId) {
+        WebTarget target = getClient().target(endpoint()).path("egenskapstyper").path(Integer.toString(typeId));
+        return Mono.zip(dataTypesAsync(), JerseyHelper.executeOptionalAsync(target))
+                   .map(t -> AttributeTypeParser.parse(t.getT1(), t.getT2().getAsJsonObject()));
+    }
+
     public Optional<AttributeTypeWithOwner> getAttributeTypeWithOwner(int typeId) {
         initDataTypes();
         WebTarget target = getClient().target(endpoint()).path("egenskapstyper").path(Integer.toString(typeId));
@@ -139,6 +179,16 @@ public class DatakatalogClient extends AbstractJerseyClient {
         }
     }
 
+    private Mono<Map<String, DataType>> dataTypesAsync() {
+        Map<String, DataType> known = this.dataTypes;
+        if (known != null) {
+            return Mono.just(known);
+        }
+        return getDataTypesAsync()
+            .map(types -> types.stream().collect(Collectors.toMap(DataType::getName, Function.identity())))
+            .doOnNext(types -> this.dataTypes = types);
+    }
+
     public Datakatalog getDatakalog() {
         Version v = getVersion();
         List<Unit> units = getUnits();
@@ -152,13 +202,30 @@ public class DatakatalogClient extends AbstractJerseyClient {
         return getFeatureTypes(-1, informationToInclude);
     }
 
-    public List<FeatureType> getFeatureTypes(int category, Include... informationToInclude) {
+    public Mono<List<FeatureType>> getFeatureTypesAsync(Include... informationToInclude) {
+        return getFeatureTypesAsync(-1, informationToInclude);
+    }
+
+    public Mono<List<FeatureType>> getFeatureTypesAsync(int category, Include... informationToInclude) {
+        WebTarget target = getFeatureTypesTarget(category, informationToInclude);
+        return Mono.zip(dataTypesAsync(), JerseyHelper.executeAsync(target))
+            .map(t -> StreamSupport.stream(t.getT2().getAsJsonArray().spliterator(), false)
+                .map(JsonElement::getAsJsonObject)
+                .map(rt(o -> FeatureTypeParser.parse(t.getT1(), o)))
+                .collect(Collectors.toList()));
+    }
+
+    private WebTarget getFeatureTypesTarget(int category, Include... informationToInclude) {
         UriBuilder url = endpoint();
         String includeArgument = getIncludeArgument(false, informationToInclude);
         if (includeArgument != null) url.queryParam("inkluder", includeArgument);
         if (category > 0) url.queryParam("kategori", category);
 
-        WebTarget target = getClient().target(url);
+        return getClient().target(url);
+    }
+
+    public List<FeatureType> getFeatureTypes(int category, Include... informationToInclude) {
+        WebTarget target = getFeatureTypesTarget(category, informationToInclude);
 
         Stopwatch sw = Stopwatch.createStarted();
         JsonArray array = JerseyHelper.executeOptional(target)
@@ -179,16 +246,27 @@ public class DatakatalogClient extends AbstractJerseyClient {
     }
 
     public Optional<FeatureType> getFeatureType(int typeId, Include... informationToInclude) {
-        WebTarget target = getClient().target(endpoint().path(Integer.toString(typeId)));
-
-        String includeArgument = getIncludeArgument(true, informationToInclude);
-        if (includeArgument != null) target = target.queryParam("inkluder", includeArgument);
+        WebTarget target = getFeatureTypeTarget(typeId, informationToInclude);
         initDataTypes();
         return JerseyHelper.executeOptional(target)
                            .map(JsonElement::getAsJsonObject)
                            .map(rt(o -> FeatureTypeParser.parse(this.dataTypes, o)));
     }
 
+    public Mono<FeatureType> getFeatureTypeAsync(int typeId, Include... informationToInclude) {
+        WebTarget target = getFeatureTypeTarget(typeId, informationToInclude);
+        return Mono.zip(dataTypesAsync(), JerseyHelper.executeOptionalAsync(target))
+                   .map(t -> rt(o -> FeatureTypeParser.parse(t.getT1(), o)).apply(t.getT2().getAsJsonObject()));
+    }
+
+    private WebTarget getFeatureTypeTarget(int typeId, Include... informationToInclude) {
+        WebTarget target = getClient().target(endpoint().path(Integer.toString(typeId)));
+
+        String includeArgument = getIncludeArgument(true, informationToInclude);
+        if (includeArgument != null) target = target.queryParam("inkluder", includeArgument);
+        return target;
+    }
+
     private static String getIncludeArgument(boolean singleRequest, Include... informationToInclude) {
         Set<Include> values = informationToInclude.length > 0 ? new HashSet<>(Arrays.asList(informationToInclude)) : Collections.emptySet();
 
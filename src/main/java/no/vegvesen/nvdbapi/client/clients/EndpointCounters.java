@@ -0,0 +1,23 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts per endpoint, see {@link JerseyHelper#endpoint(String)}.
+ */
+class EndpointCounters {
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    void increment(String path) {
+        counters.computeIfAbsent(JerseyHelper.endpoint(path), p -> new LongAdder()).increment();
+    }
+
+    Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((endpoint, count) -> snapshot.put(endpoint, count.sum()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,29 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.model.Page;
+
+import java.util.List;
+
+/**
+ * One page of a result set, together with what is needed to request the following page.
+ */
+final class FetchedPage<T> {
+    final List<T> objects;
+    final Page nextPage;
+    final boolean hasNext;
+    final long bytes;
+
+    FetchedPage(List<T> objects, Page nextPage, boolean hasNext, long bytes) {
+        this.objects = objects;
+        this.nextPage = nextPage;
+        this.hasNext = hasNext;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the token of the next page, or null if the result set is not paged or the page has no next page
+     */
+    String nextToken() {
+        return nextPage == null ? null : nextPage.getStart().orElse(null);
+    }
+}
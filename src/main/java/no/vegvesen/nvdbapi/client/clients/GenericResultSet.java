@@ -25,12 +25,21 @@
 
 package no.vegvesen.nvdbapi.client.clients;
 
-import com.google.gson.*;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import no.vegvesen.nvdbapi.client.exceptions.ClientException;
 import no.vegvesen.nvdbapi.client.gson.GsonUtil;
+import no.vegvesen.nvdbapi.client.gson.StreamingParser;
+import no.vegvesen.nvdbapi.client.model.AdaptivePaging;
+import no.vegvesen.nvdbapi.client.model.Checkpoint;
 import no.vegvesen.nvdbapi.client.model.Page;
+import no.vegvesen.nvdbapi.client.model.Prefetch;
 import no.vegvesen.nvdbapi.client.model.ResultSet;
+import no.vegvesen.nvdbapi.client.util.CheckpointStore;
+import no.vegvesen.nvdbapi.client.util.JsonSpillCodec;
 import no.vegvesen.nvdbapi.client.util.ResultSetCollector;
+import no.vegvesen.nvdbapi.client.util.SpillCodec;
+import no.vegvesen.nvdbapi.client.util.SpillingResultSetCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,56 +47,197 @@ import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
-public class GenericResultSet<T> implements ResultSet<T> {
+public class GenericResultSet<T> implements ResultSet<T>, AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(GenericResultSet.class);
 
     private final WebTarget baseTarget;
-    private final Function<JsonObject, T> parser;
+    private StreamingParser<T> parser;
     private final String objekterField;
     private Page currentPage;
     private String token;
     private boolean hasNext = true;
+    private Prefetch prefetch;
+    private PagePrefetcher<T> prefetcher;
+    private AdaptivePaging adaptivePaging;
+    private final List<Integer> pageSizes = new CopyOnWriteArrayList<>();
+    private CheckpointStore checkpointStore;
+    private boolean checkpointCompleted;
+    private volatile boolean closed;
+    private volatile Response inFlight;
 
     protected GenericResultSet(WebTarget baseTarget,
                                Page currentPage,
                                Function<JsonObject, T> parser) {
-        this.baseTarget = baseTarget;
-        this.parser = parser;
-        this.currentPage = currentPage;
-        this.objekterField = "objekter";
+        this(baseTarget, currentPage, "objekter", StreamingParser.fromTree(parser));
     }
 
     protected GenericResultSet(WebTarget baseTarget,
                                Page currentPage,
                                String objekterField,
                                Function<JsonObject, T> parser) {
+        this(baseTarget, currentPage, objekterField, StreamingParser.fromTree(parser));
+    }
+
+    /**
+     * @param parser reads each object straight from the response, without building a tree of it first
+     */
+    protected GenericResultSet(WebTarget baseTarget,
+                               Page currentPage,
+                               String objekterField,
+                               StreamingParser<T> parser) {
         this.baseTarget = baseTarget;
         this.parser = parser;
         this.currentPage = currentPage;
         this.objekterField = objekterField;
     }
 
+    /**
+     * Fetch the following pages in the background while the current page is consumed.
+     * Must be called before the first page is fetched.
+     * @param prefetch how many pages, and bytes, to hold ahead of the consumer
+     * @return this result set
+     */
+    public GenericResultSet<T> withPrefetch(Prefetch prefetch) {
+        if (prefetcher != null || token != null) {
+            throw new IllegalStateException("Prefetch must be set before the first page is fetched.");
+        }
+        this.prefetch = prefetch;
+        return this;
+    }
+
+    /**
+     * Tune the number of objects per page from the size and duration of the pages fetched so far,
+     * instead of using the same count for every page. The count of the first page is kept within the bounds.
+     * Must be called before the first page is fetched.
+     * @param adaptivePaging target size and duration of a page, and bounds for the count
+     * @return this result set
+     */
+    public GenericResultSet<T> withAdaptivePaging(AdaptivePaging adaptivePaging) {
+        if (prefetcher != null || token != null) {
+            throw new IllegalStateException("Adaptive paging must be set before the first page is fetched.");
+        }
+        this.adaptivePaging = adaptivePaging;
+        Page page = currentPage != null ? currentPage : Page.defaults();
+        int count = Math.max(adaptivePaging.getMinCount(), Math.min(adaptivePaging.getMaxCount(), page.getCount()));
+        this.currentPage = page.withCount(count);
+        return this;
+    }
+
+    /**
+     * @return the number of objects requested for each page fetched so far, including pages fetched ahead
+     */
+    public List<Integer> getPageSizes() {
+        return Collections.unmodifiableList(pageSizes);
+    }
+
+    /**
+     * Make the download resumable. The request and the {@code start} token of the page about to be returned
+     * are saved to the store each time {@link #next()} is called, which means the previous page has been
+     * consumed. If the store holds a checkpoint for the same request, the download continues from it,
+     * so the page that was being consumed when the checkpoint was saved is returned again.
+     * When all pages are consumed the checkpoint is marked as complete, and the result set is empty
+     * when resumed. Must be called before the first page is fetched.
+     * @param checkpointStore where the checkpoint is saved and loaded
+     * @return this result set
+     * @throws IllegalStateException if the store holds a checkpoint for a different request
+     */
+    public GenericResultSet<T> withCheckpoints(CheckpointStore checkpointStore) {
+        if (prefetcher != null || token != null) {
+            throw new IllegalStateException("Checkpoints must be set before the first page is fetched.");
+        }
+        if (currentPage == null) {
+            throw new IllegalStateException("Checkpoints require a paged request.");
+        }
+        this.checkpointStore = checkpointStore;
+        Optional<Checkpoint> checkpoint = checkpointStore.load();
+        if (checkpoint.isPresent()) {
+            if (!checkpoint.get().getRequest().equals(checkpointRequest())) {
+                throw new IllegalStateException("Checkpoint is for a different request: "
+                    + checkpoint.get().getRequest());
+            }
+            logger.debug("Resuming from {}", checkpoint.get());
+            currentPage = checkpoint.get().getPage();
+            hasNext = !checkpoint.get().isComplete();
+            checkpointCompleted = checkpoint.get().isComplete();
+        }
+        return this;
+    }
+
     public List<T> getAll() {
         return ResultSetCollector.getAll(this);
     }
 
+    /**
+     * Collect all objects with at most {@code maxInMemory} of them and one page held in memory, the rest in
+     * a temporary file. Close the returned collector to delete the file.
+     * @param codec how objects are written to the temporary file. {@link SpillCodec#json()} must be
+     *              passed before the first page is fetched.
+     * @param maxInMemory number of objects held in memory before they are written to the file
+     * @return the collected objects
+     */
+    public SpillingResultSetCollector<T> getAll(SpillCodec<T> codec, int maxInMemory) {
+        if (codec instanceof JsonSpillCodec) {
+            if (prefetcher != null || token != null) {
+                throw new IllegalStateException("The json codec must be used before the first page is fetched.");
+            }
+            parser = ((JsonSpillCodec<T>) codec).wrap(parser);
+        }
+        return SpillingResultSetCollector.getAll(this, codec, maxInMemory);
+    }
+
+    /**
+     * Pages are fetched as the stream is consumed, so only about one page is held in memory at a time,
+     * and short-circuiting operations like {@code limit()} and {@code findFirst()} stop the paging.
+     * Closing the stream stops any background fetching of pages.
+     * @return a lazy stream of the remaining objects in this result set
+     */
     public Stream<T> stream() {
-        return getAll().stream();
+        Iterator<T> objects = new Iterator<T>() {
+            private Iterator<T> page = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!page.hasNext() && GenericResultSet.this.hasNext()) {
+                    page = GenericResultSet.this.next().iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return page.next();
+            }
+        };
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(objects, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
     }
 
     @Override
     public boolean hasNext() {
-        return hasNext;
+        boolean result = prefetcher != null ? prefetcher.hasNext() : hasNext;
+        if (!result && checkpointStore != null && !checkpointCompleted) {
+            checkpointStore.save(Checkpoint.of(checkpointRequest(), currentPage).completed());
+            checkpointCompleted = true;
+        }
+        return result;
     }
 
     @Override
@@ -95,63 +245,119 @@ public class GenericResultSet<T> implements ResultSet<T> {
         if (!hasNext()) {
             throw new IllegalStateException("No more results!");
         }
+        if (checkpointStore != null) {
+            checkpointStore.save(Checkpoint.of(checkpointRequest(), currentPage));
+        }
+
+        FetchedPage<T> fetched;
+        if (prefetch != null) {
+            if (prefetcher == null) {
+                prefetcher = new PagePrefetcher<>(currentPage, prefetch, this::fetch, AsyncScheduler.from(baseTarget));
+            }
+            fetched = prefetcher.take();
+        } else {
+            fetched = fetch(currentPage);
+        }
 
+        hasNext = fetched.hasNext;
+        token = fetched.nextToken();
+        currentPage = fetched.nextPage;
+        if (!hasNext) {
+            logger.debug("Result set exhausted.");
+        }
+        return fetched.objects;
+    }
+
+    private FetchedPage<T> fetch(Page page) {
         // Setup and execute request
         WebTarget actualTarget = baseTarget;
-        if (currentPage != null) actualTarget = applyPage(currentPage, baseTarget);
+        if (page != null) actualTarget = applyPage(page, baseTarget);
         logger.debug("Invoking {}", actualTarget.getUri());
-        Invocation inv = actualTarget.request().accept(JerseyHelper.MEDIA_TYPE).buildGet();
+        Invocation inv = AbortingClosingStrategy.abortOnClose(actualTarget.request().accept(JerseyHelper.MEDIA_TYPE))
+            .buildGet();
+        if (page != null) pageSizes.add(page.getCount());
+        long started = System.nanoTime();
 
         try (Response response = JerseyHelper.execute(inv, Response.class)) {
+            inFlight = response;
+            if (closed) {
+                throw new IllegalStateException("Result set is closed.");
+            }
             if (!JerseyHelper.isSuccess(response)) {
                 throw JerseyHelper.parseError(response);
             }
             String requestId = response.getHeaderString("X-REQUEST-ID");
 
             try {
-                JsonObject currentResponse =
-                        JsonParser.parseReader(new InputStreamReader((InputStream) response.getEntity(), StandardCharsets.UTF_8))
-                                .getAsJsonObject();
+                CountingInputStream entity = new CountingInputStream((InputStream) response.getEntity());
+                List<T> objects = new ArrayList<>();
+                PageDecoder decoder;
+                try (JsonReader reader = JsonEngines.newReader(baseTarget, entity)) {
+                    decoder = new PageDecoder(reader, objekterField);
+                    for (T object = decoder.next(parser); object != null; object = decoder.next(parser)) {
+                        objects.add(object);
+                    }
+                }
+                JsonObject metadata = decoder.getMetadata();
 
-                int numTotal = GsonUtil.parseIntMember(currentResponse, "metadata.antall");
-                int numReturned = GsonUtil.parseIntMember(currentResponse, "metadata.returnert");
-//              int numPerPage = GsonUtil.parseIntMember(currentResponse, "metadata.sidestørrelse");
+                int numTotal = GsonUtil.parseIntMember(metadata, "antall");
+                int numReturned = GsonUtil.parseIntMember(metadata, "returnert");
+//              int numPerPage = GsonUtil.parseIntMember(metadata, "sidestørrelse");
                 logger.debug("Result size returned was {}.", numTotal);
                 logger.debug("Results in page returned was {}.", numReturned);
 //              logger.debug("Page size returned was {}.", numPerPage);
 
                 if (logger.isTraceEnabled()){
-                    logger.trace("Response: {}", currentResponse.toString());
+                    logger.trace("Metadata: {}", metadata.toString());
                 }
 
                 // Prepare next request
-                String nextToken = GsonUtil.getNode(currentResponse, "metadata.neste.start")
-                        .map(JsonElement::getAsString)
-                        .orElse(null);
-                logger.debug("last token: {} next token: {}", token, nextToken);
+                String lastToken = page == null ? null : page.getStart().orElse(null);
+                String nextToken = decoder.nextToken();
+                logger.debug("last token: {} next token: {}", lastToken, nextToken);
                 // no next page if last token and next token are equal
-                hasNext = nextToken != null && (!nextToken.equals(token));
-                token = nextToken;
-                currentPage = currentPage.withStart(token);
+                boolean pageHasNext = nextToken != null && (!nextToken.equals(lastToken));
 
-                if (!hasNext) {
-                    logger.debug("Result set exhausted.");
+                Page nextPage = page == null ? null : page.withStart(nextToken);
+                if (nextPage != null && adaptivePaging != null) {
+                    int nextCount = adaptivePaging.nextCount(
+                        page.getCount(), objects.size(), entity.getCount(), System.nanoTime() - started);
+                    logger.debug("Page of {} objects was {} bytes, next page size is {}",
+                        objects.size(), entity.getCount(), nextCount);
+                    nextPage = nextPage.withCount(nextCount);
                 }
-                return StreamSupport
-                        .stream(currentResponse.getAsJsonArray(objekterField).spliterator(), false)
-                        .map(JsonElement::getAsJsonObject)
-                        .map(parser)
-                        .collect(Collectors.toList());
+                return new FetchedPage<>(objects, nextPage, pageHasNext, entity.getCount());
             } catch (Exception e) {
                 throw new ClientException(response.getStatus(), requestId, Collections.emptyList(), e);
             }
+        } finally {
+            inFlight = null;
         }
     }
 
+    private String checkpointRequest() {
+        return baseTarget.getUri().toString();
+    }
+
     public String nextToken() {
         return token;
     }
 
+    /**
+     * Stops any background fetching of pages, and aborts the request of a page being read.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (prefetcher != null) {
+            prefetcher.close();
+        }
+        Response response = inFlight;
+        if (response != null) {
+            response.close();
+        }
+    }
+
     static WebTarget applyPage(Page page, WebTarget target) {
         if (Objects.nonNull(page.getCount())) {
             target = target.queryParam("antall", page.getCount());
@@ -0,0 +1,285 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.google.gson.JsonElement;
+import no.vegvesen.nvdbapi.client.HedgingPolicy;
+import no.vegvesen.nvdbapi.client.exceptions.ClientException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends hedged GET requests for single objects according to a {@link HedgingPolicy}.
+ * One hedger is shared by the clients of a {@code ClientFactory}, which find it as a property
+ * on the configuration of their {@code WebTarget}. The hedged requests run on the scheduler shared by the
+ * async results of the factory.
+ */
+class Hedger implements AutoCloseable {
+    static final String PROPERTY = "no.vegvesen.nvdbapi.client.hedger";
+    private static final Logger logger = LoggerFactory.getLogger(Hedger.class);
+
+    private final HedgingPolicy policy;
+    private final Map<String, Latencies> latencies = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private ScheduledExecutorService timer;
+    private long requests;
+    private long hedges;
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    /**
+     * @param executor runs the hedged requests, the primary request is sent on the calling thread
+     */
+    Hedger(HedgingPolicy policy, Executor executor) {
+        this.policy = policy;
+        this.executor = executor;
+    }
+
+    /**
+     * @param target the target of a request for a single object
+     * @return the hedger of the {@code ClientFactory} that created the target, if it has a hedging policy
+     */
+    static Optional<Hedger> from(WebTarget target) {
+        Object hedger = target.getConfiguration().getProperty(PROPERTY);
+        return hedger instanceof Hedger ? Optional.of((Hedger) hedger) : Optional.empty();
+    }
+
+    /**
+     * Sends the request on the calling thread, and a hedged request on the executor if there is no response
+     * within the delay of the policy. The attempt that loses is aborted.
+     */
+    JsonElement execute(WebTarget target) {
+        Latencies endpointLatencies = latencies.computeIfAbsent(
+            JerseyHelper.endpoint(target.getUri().getPath()), e -> new Latencies(policy.getWindow()));
+        long delay = endpointLatencies.percentile(policy.getPercentile(), policy.getMinSamples());
+        synchronized (this) {
+            requests++;
+        }
+        CompletableFuture<Attempt> result = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1);
+        Attempt primary = new Attempt(target, result, pending, endpointLatencies, false);
+        Future<?> scheduledHedge = null;
+        if (delay >= 0) {
+            long wait = Math.max(delay, policy.getMinDelay().toNanos());
+            try {
+                scheduledHedge = timer().schedule(() -> hedge(primary, wait), wait, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // the factory is closed, send the request without a hedge
+            }
+        }
+        try {
+            primary.run();
+            Attempt winner = result.get();
+            if (winner.hedge) {
+                hedgesWon.incrementAndGet();
+            }
+            return winner.json;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ProcessingException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException("Interrupted while waiting for " + target.getUri(), e);
+        } finally {
+            if (scheduledHedge != null) {
+                scheduledHedge.cancel(false);
+            }
+            // aborts a hedge still running if this thread was interrupted
+            result.cancel(false);
+        }
+    }
+
+    /**
+     * Sends a hedged request if the primary attempt has not completed and the extra load allows it.
+     * Whichever attempt completes the result first aborts the other one.
+     */
+    private void hedge(Attempt primary, long wait) {
+        if (primary.result.isDone() || !reserveHedge()) {
+            return;
+        }
+        logger.debug("Hedging {} after {} ms", primary.target.getUri(), TimeUnit.NANOSECONDS.toMillis(wait));
+        primary.pending.incrementAndGet();
+        Attempt hedge = new Attempt(primary.target, primary.result, primary.pending, primary.latencies, true);
+        primary.result.whenComplete((winner, e) -> {
+            if (winner != primary) {
+                primary.cancel();
+            }
+            if (winner != hedge) {
+                hedge.cancel();
+            }
+        });
+        try {
+            executor.execute(hedge);
+        } catch (RejectedExecutionException e) {
+            // the factory is closed, let the hedge fail on this thread
+            hedge.run();
+        }
+    }
+
+    private synchronized boolean reserveHedge() {
+        if (hedges + 1 > policy.getMaxExtraLoad() * requests) {
+            return false;
+        }
+        hedges++;
+        return true;
+    }
+
+    synchronized long getHedgedRequests() {
+        return hedges;
+    }
+
+    long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    private synchronized ScheduledExecutorService timer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "nvdb-hedge");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return timer;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * One of the requests for an object. The first attempt to get a response completes the result,
+     * unless it failed to connect or read while the other attempt may still succeed.
+     */
+    private final class Attempt implements Runnable {
+        private final WebTarget target;
+        private final CompletableFuture<Attempt> result;
+        private final AtomicInteger pending;
+        private final Latencies latencies;
+        private final boolean hedge;
+        private final RequestAborter aborter = new RequestAborter();
+        private boolean cancelled;
+        private Response response;
+        private JsonElement json;
+
+        Attempt(WebTarget target,
+                CompletableFuture<Attempt> result,
+                AtomicInteger pending,
+                Latencies latencies,
+                boolean hedge) {
+            this.target = target;
+            this.result = result;
+            this.pending = pending;
+            this.latencies = latencies;
+            this.hedge = hedge;
+        }
+
+        @Override
+        public void run() {
+            if (isCancelled()) {
+                return;
+            }
+            long start = System.nanoTime();
+            Invocation inv = aborter.bind(AbortingClosingStrategy.abortOnClose(
+                target.request().accept(JerseyHelper.MEDIA_TYPE))).buildGet();
+            try (Response r = JerseyHelper.execute(inv, Response.class)) {
+                if (!open(r)) {
+                    return;
+                }
+                json = JerseyHelper.readJson(target, r);
+                JerseyHelper.drain(r);
+                latencies.add(System.nanoTime() - start);
+                done();
+                result.complete(this);
+            } catch (ClientException e) {
+                done();
+                result.completeExceptionally(e);
+            } catch (RuntimeException e) {
+                if (!isCancelled() && pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private synchronized boolean open(Response response) {
+            this.response = response;
+            return !cancelled;
+        }
+
+        private synchronized void done() {
+            response = null;
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Aborts the request of an attempt that lost, so its connection is not kept busy reading the rest
+         * of the response, and a primary attempt still waiting for the response does not keep the calling thread.
+         * With a transport that cannot abort a request, an attempt still waiting for the response closes it
+         * when it comes.
+         */
+        synchronized void cancel() {
+            cancelled = true;
+            aborter.abort();
+            if (response != null) {
+                response.close();
+                response = null;
+            }
+        }
+    }
+
+    /**
+     * The latest latencies of an endpoint, in nanoseconds.
+     */
+    private static final class Latencies {
+        private final long[] samples;
+        private int count;
+        private int next;
+
+        Latencies(int window) {
+            this.samples = new long[window];
+        }
+
+        synchronized void add(long latency) {
+            samples[next] = latency;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * @return the latency at the percentile, or -1 if there are fewer than {@code minSamples} latencies
+         */
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(index, count - 1))];
+        }
+    }
+}
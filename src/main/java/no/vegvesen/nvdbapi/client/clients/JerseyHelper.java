@@ -32,21 +32,29 @@ import no.vegvesen.nvdbapi.client.exceptions.ClientException;
 import no.vegvesen.nvdbapi.client.exceptions.JsonExceptionParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.URI;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
 
 import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static no.vegvesen.nvdbapi.client.clients.ClientFactory.*;
@@ -54,6 +62,7 @@ import static no.vegvesen.nvdbapi.client.clients.ClientFactory.*;
 class JerseyHelper {
     private static final Logger logger = LoggerFactory.getLogger(JerseyHelper.class);
     static final String MEDIA_TYPE = apiRevision;
+    private static final Pattern ID = Pattern.compile("/\\d+(?=/|$)");
 
     private JerseyHelper() {}
 
@@ -77,7 +86,7 @@ class JerseyHelper {
     }
 
     static JsonElement execute(WebTarget target) {
-        return execute(target, null, MEDIA_TYPE);
+        return coalesced(target, "json", () -> execute(target, null, MEDIA_TYPE), JsonElement::deepCopy);
     }
 
     static JsonElement execute(WebTarget target, Entity<?> entity) {
@@ -95,20 +104,79 @@ class JerseyHelper {
         }
 
         try(Response response = execute(invocation, Response.class)) {
+            return readJson(target, response);
+        }
+    }
 
-            if (!isSuccess(response)) {
-                throw parseError(response);
-            }
-            String requestId = response.getHeaderString("X-REQUEST-ID");
-            try {
-                return JsonParser.parseReader(
-                        new InputStreamReader((InputStream) response.getEntity(), StandardCharsets.UTF_8));
-            } catch (Exception e) {
-                throw new ClientException(response.getStatus(), requestId, Collections.emptyList(), e);
+    /**
+     * Sends a GET request for a single object, hedged if the {@code ClientFactory} has a {@code HedgingPolicy}.
+     */
+    static JsonElement executeHedged(WebTarget target) {
+        return coalesced(target, "json", () -> Hedger.from(target)
+            .map(hedger -> hedger.execute(target))
+            .orElseGet(() -> execute(target, null, MEDIA_TYPE)), JsonElement::deepCopy);
+    }
+
+    /**
+     * Sends a GET request, or waits for an identical one in flight if the {@code ClientFactory} coalesces requests.
+     * @param copy makes a deep copy of the result, for each caller that shares it
+     */
+    private static <T> T coalesced(WebTarget target, String kind, Supplier<T> request, UnaryOperator<T> copy) {
+        return RequestCoalescer.from(target)
+            .map(coalescer -> coalescer.execute(kind, target.getUri(), request, copy))
+            .orElseGet(request);
+    }
+
+    /**
+     * @param target the target of the request, which tells the {@code JsonEngine} to use
+     */
+    static JsonElement readJson(WebTarget target, Response response) {
+        if (!isSuccess(response)) {
+            throw parseError(response);
+        }
+        String requestId = response.getHeaderString("X-REQUEST-ID");
+        try {
+            return parseJson(target, (InputStream) response.getEntity());
+        } catch (Exception e) {
+            throw new ClientException(response.getStatus(), requestId, Collections.emptyList(), e);
+        }
+    }
+
+    /**
+     * Reads the json with the {@code JsonEngine} of the target. Like {@code JsonParser.parseReader(Reader)},
+     * anything but whitespace after the json is an error.
+     */
+    private static JsonElement parseJson(WebTarget target, InputStream in) throws IOException {
+        return JsonEngines.from(target).readTree(in);
+    }
+
+    /**
+     * Reads past the end of the json, so that the response is read to the end and its connection reused.
+     */
+    static void drain(Response response) {
+        Object entity = response.getEntity();
+        if (!(entity instanceof InputStream)) {
+            return;
+        }
+        byte[] buffer = new byte[256];
+        try {
+            InputStream stream = (InputStream) entity;
+            while (stream.read(buffer) != -1) {
+                // nothing after the json
             }
+        } catch (IOException e) {
+            logger.debug("Could not read to the end of the response", e);
         }
     }
 
+    /**
+     * @return the path, with ids replaced by {@code {id}} so that all requests for single objects
+     * of a type count as one endpoint
+     */
+    static String endpoint(String path) {
+        return ID.matcher(path).replaceAll("/{id}");
+    }
+
     static <T> T execute(Invocation inv, GenericType<T> responseType) {
         try {
             return inv.invoke(responseType);
@@ -119,6 +187,71 @@ class JerseyHelper {
     }
 
     static Optional<JsonElement> executeOptional(WebTarget target) {
+        return coalesced(target, "optional", () -> fetchOptional(target), json -> json.map(JsonElement::deepCopy));
+    }
+
+    /**
+     * Sends a GET request without blocking the calling thread. With a transport that sends requests asynchronously,
+     * like the HTTP/2 transport, no thread waits for the response. The default Apache transport sends the request
+     * on a thread of the scheduler shared by the async results of the {@code ClientFactory}, so the number of
+     * threads is bounded. The request is sent when the {@code Mono} is subscribed to.
+     */
+    static Mono<JsonElement> executeAsync(WebTarget target) {
+        return executeAsync(target, null);
+    }
+
+    static Mono<JsonElement> executeAsync(WebTarget target, Entity<?> entity) {
+        return sendAsync(target.request().accept(MEDIA_TYPE), entity, response -> readJson(target, response));
+    }
+
+    /**
+     * Like {@link #executeAsync(WebTarget)}, but empty if there is no such object. Unlike
+     * {@link #executeOptional(WebTarget)} responses are not cached by their ETag, which would mean writing to disk.
+     */
+    static Mono<JsonElement> executeOptionalAsync(WebTarget target) {
+        return sendAsync(target.request().header("X-Client", "Les API Client"), null, response ->
+            response.getStatus() == 404 || response.getStatus() == 204 ? null : readJson(target, response));
+    }
+
+    /**
+     * With the default Apache transport, cancelling the {@code Mono} aborts the request, so that it gives up
+     * its connection and its slot of the {@code RateLimit}, also while it waits for them. With other transports
+     * the request runs to its end, and only its response is dropped.
+     * @param reader reads the response, which is closed afterwards. May return null for an empty result.
+     */
+    private static <T> Mono<T> sendAsync(Invocation.Builder request, Entity<?> entity, Function<Response, T> reader) {
+        return Mono.defer(() -> {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            InvocationCallback<Response> callback = new InvocationCallback<Response>() {
+                @Override
+                public void completed(Response response) {
+                    T value;
+                    try (Response r = response) {
+                        value = reader.apply(r);
+                        drain(r);
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    result.complete(value);
+                }
+
+                @Override
+                public void failed(Throwable throwable) {
+                    result.completeExceptionally(throwable);
+                }
+            };
+            RequestAborter aborter = new RequestAborter();
+            AsyncInvoker invoker = aborter.bind(request).async();
+            Future<Response> response = entity == null ? invoker.get(callback) : invoker.post(entity, callback);
+            return Mono.fromFuture(result).doOnCancel(() -> {
+                aborter.abort();
+                response.cancel(true);
+            });
+        });
+    }
+
+    private static Optional<JsonElement> fetchOptional(WebTarget target) {
         Invocation.Builder request = target.request();
         request.header("X-Client", "Les API Client");
         URI uri = target.getUri();
@@ -152,7 +285,7 @@ class JerseyHelper {
             }
 
             try (InputStream is = response.readEntity(InputStream.class)) {
-                return Optional.of(JsonParser.parseReader(new InputStreamReader(is, StandardCharsets.UTF_8)));
+                return Optional.of(parseJson(target, is));
             } catch (Exception e) {
                 throw new ClientException(response.getStatus(), requestId, Collections.emptyList(), e);
             }
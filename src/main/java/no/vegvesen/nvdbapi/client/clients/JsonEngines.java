@@ -0,0 +1,36 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.google.gson.stream.JsonReader;
+import no.vegvesen.nvdbapi.client.JsonEngine;
+
+import javax.ws.rs.client.WebTarget;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The results and requests find the {@link JsonEngine} of their {@code ClientFactory} as a property
+ * on the configuration of their {@code WebTarget}.
+ */
+final class JsonEngines {
+    static final String PROPERTY = "no.vegvesen.nvdbapi.client.jsonEngine";
+    private static final JsonEngine GSON = JsonEngine.gson();
+
+    private JsonEngines() {
+    }
+
+    /**
+     * @return the engine of the {@code ClientFactory} that created the target,
+     * or Gson if it was not created by a {@code ClientFactory}.
+     */
+    static JsonEngine from(WebTarget target) {
+        Object engine = target.getConfiguration().getProperty(PROPERTY);
+        if (engine instanceof JsonEngine) {
+            return (JsonEngine) engine;
+        }
+        return GSON;
+    }
+
+    static JsonReader newReader(WebTarget target, InputStream in) throws IOException {
+        return from(target).newReader(in);
+    }
+}
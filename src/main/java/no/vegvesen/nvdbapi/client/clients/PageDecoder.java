@@ -0,0 +1,92 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import no.vegvesen.nvdbapi.client.gson.GsonUtil;
+import no.vegvesen.nvdbapi.client.gson.StreamingParser;
+
+import java.io.IOException;
+
+/**
+ * Reads the objects of one page of a paged response, one at a time, without building a tree of the whole page.
+ * The members of the page may come in any order. The objects are read from the member named
+ * {@code objectsField}, the {@code metadata} member is kept wherever it appears, and other members are skipped.
+ */
+class PageDecoder {
+    private static final String METADATA = "metadata";
+
+    private final JsonReader reader;
+    private final String objectsField;
+    private JsonObject metadata = new JsonObject();
+    private boolean inObjects;
+    private boolean done;
+
+    PageDecoder(JsonReader reader, String objectsField) throws IOException {
+        this.reader = reader;
+        this.objectsField = objectsField;
+        reader.beginObject();
+    }
+
+    /**
+     * @return the next object of the page, or null when all members of the page are read
+     */
+    JsonObject next() throws IOException {
+        return next(StreamingParser.fromTree(o -> o));
+    }
+
+    /**
+     * @param parser reads one object from the page
+     * @return the next object of the page, or null when all members of the page are read
+     */
+    <T> T next(StreamingParser<T> parser) throws IOException {
+        while (!done) {
+            if (inObjects) {
+                if (reader.hasNext()) {
+                    return parser.parse(reader);
+                }
+                reader.endArray();
+                inObjects = false;
+            } else if (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(objectsField) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    inObjects = true;
+                } else if (name.equals(METADATA) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    metadata = Streams.parse(reader).getAsJsonObject();
+                } else {
+                    reader.skipValue();
+                }
+            } else {
+                reader.endObject();
+                /*
+                 Skipping the end of the document reads the response to its end, including the last chunk of
+                 a chunked response. Left unread, it made HttpClient fail now and then with
+                 MalformedChunkCodingException: CRLF expected at end of chunk.
+                 https://stackoverflow.com/questions/8635112/java-malformedchunkcodingexception
+                 */
+                reader.skipValue();
+                done = true;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the metadata of the page. Complete when {@link #next()} has returned null.
+     */
+    JsonObject getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return the {@code start} token of the following page, if any
+     */
+    String nextToken() {
+        return GsonUtil.getNode(metadata, "neste.start")
+            .map(JsonElement::getAsString)
+            .orElse(null);
+    }
+}
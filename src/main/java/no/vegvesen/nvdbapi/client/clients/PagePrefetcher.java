@@ -0,0 +1,149 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.model.Page;
+import no.vegvesen.nvdbapi.client.model.Prefetch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Fetches pages in the background while the previous ones are consumed.
+ * The start token of a page is only known when the previous page is parsed,
+ * so pages are fetched one at a time, but up to {@link Prefetch#getDepth()} pages ahead of the consumer.
+ * Each page is fetched as a task on the scheduler shared by the results of the {@code ClientFactory},
+ * so no thread is held while the buffer is full.
+ */
+class PagePrefetcher<T> implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PagePrefetcher.class);
+
+    private final Prefetch prefetch;
+    private final Function<Page, FetchedPage<T>> fetcher;
+    private final Scheduler scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Deque<FetchedPage<T>> buffer = new ArrayDeque<>();
+    private Page nextPage;
+    private long bufferedBytes;
+    private boolean fetching;
+    private boolean exhausted;
+    private boolean closed;
+    private RuntimeException failure;
+
+    PagePrefetcher(Page firstPage, Prefetch prefetch, Function<Page, FetchedPage<T>> fetcher, Scheduler scheduler) {
+        this.prefetch = prefetch;
+        this.fetcher = fetcher;
+        this.scheduler = scheduler;
+        this.nextPage = firstPage;
+        lock.lock();
+        try {
+            fetchIfRoom();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules the fetch of the next page if none is running and the buffer has room. Called with the lock held.
+     */
+    private void fetchIfRoom() {
+        if (fetching || exhausted || closed || failure != null
+            || buffer.size() >= prefetch.getDepth() || bufferedBytes >= prefetch.getMaxBufferedBytes()) {
+            return;
+        }
+        fetching = true;
+        Page page = nextPage;
+        try {
+            scheduler.schedule(() -> fetch(page));
+        } catch (RuntimeException e) {
+            fetching = false;
+            failure = e;
+            changed.signalAll();
+        }
+    }
+
+    private void fetch(Page page) {
+        FetchedPage<T> fetched = null;
+        RuntimeException error = null;
+        try {
+            fetched = fetcher.apply(page);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        lock.lock();
+        try {
+            fetching = false;
+            if (closed) {
+                return;
+            }
+            if (error != null) {
+                failure = error;
+            } else {
+                buffer.addLast(fetched);
+                bufferedBytes += fetched.bytes;
+                exhausted = !fetched.hasNext;
+                nextPage = fetched.nextPage;
+                logger.debug("Prefetched page of {} bytes, {} pages buffered", fetched.bytes, buffer.size());
+                fetchIfRoom();
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean hasNext() {
+        lock.lock();
+        try {
+            return !buffer.isEmpty() || failure != null || !(exhausted || closed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    FetchedPage<T> take() {
+        lock.lock();
+        try {
+            while (buffer.isEmpty() && failure == null && !exhausted && !closed) {
+                changed.await();
+            }
+            FetchedPage<T> fetched = buffer.pollFirst();
+            if (fetched != null) {
+                bufferedBytes -= fetched.bytes;
+                fetchIfRoom();
+                return fetched;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            throw new IllegalStateException("No more results!");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for next page", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops fetching pages. A page being fetched is aborted by the result set, which owns its response.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            buffer.clear();
+            bufferedBytes = 0;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.model.roadobjects.Location;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * How {@link RoadObjectClient#getRoadObjectsPartitioned(int, RoadObjectRequest, Partitioning)} splits
+ * a request into partitions of counties or municipalities that are downloaded concurrently.
+ */
+public final class Partitioning {
+    private static final int DEFAULT_CONCURRENCY = 4;
+    private static final int MAX_SEEN = 100_000;
+
+    public enum Area {
+        COUNTY("fylker"),
+        MUNICIPALITY("kommuner");
+
+        private final String path;
+
+        Area(String path) {
+            this.path = path;
+        }
+
+        String getPath() {
+            return path;
+        }
+    }
+
+    private final Area area;
+    private final int concurrency;
+    private final int partitions;
+    private final List<Integer> areas;
+
+    private Partitioning(Area area, int concurrency, int partitions, List<Integer> areas) {
+        this.area = area;
+        this.concurrency = concurrency;
+        this.partitions = partitions;
+        this.areas = areas;
+    }
+
+    public static Partitioning byCounty() {
+        return new Partitioning(Area.COUNTY, DEFAULT_CONCURRENCY, 0, Collections.emptyList());
+    }
+
+    public static Partitioning byMunicipality() {
+        return new Partitioning(Area.MUNICIPALITY, DEFAULT_CONCURRENCY, 0, Collections.emptyList());
+    }
+
+    /**
+     * @param concurrency max number of partitions downloaded at the same time.
+     * @return a copy with the given concurrency
+     */
+    public Partitioning withConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be greater than 0.");
+        }
+        return new Partitioning(area, concurrency, partitions, areas);
+    }
+
+    /**
+     * @param partitions number of partitions the areas are grouped into. Defaults to four times the concurrency.
+     * @return a copy with the given number of partitions
+     */
+    public Partitioning withPartitions(int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be greater than 0.");
+        }
+        return new Partitioning(area, concurrency, partitions, areas);
+    }
+
+    /**
+     * @param areas county or municipality numbers to partition. Defaults to the counties or municipalities
+     *              of the request, or all of them if the request does not filter on them.
+     * @return a copy with the given areas
+     */
+    public Partitioning withAreas(List<Integer> areas) {
+        return new Partitioning(area, concurrency, partitions, areas);
+    }
+
+    public Area getArea() {
+        return area;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getPartitions() {
+        return partitions > 0 ? partitions : concurrency * 4;
+    }
+
+    public List<Integer> getAreas() {
+        return areas;
+    }
+
+    List<Integer> areasOf(RoadObjectRequest request) {
+        return area == Area.COUNTY ? request.getCounties() : request.getMunicipalities();
+    }
+
+    RoadObjectRequest restrict(RoadObjectRequest request, List<Integer> partition) {
+        RoadObjectRequest.Builder builder = request.toMutable();
+        return (area == Area.COUNTY ? builder.withCounties(partition) : builder.withMunicipalities(partition))
+            .build();
+    }
+
+    /**
+     * Like {@link #restrict(RoadObjectRequest, List)}, but also includes the location of the objects,
+     * which tells which partition an object belongs to, and does not skip the areas of the location.
+     * A request without includes gets the metadata and the location.
+     */
+    RoadObjectRequest download(RoadObjectRequest request, List<Integer> partition) {
+        RoadObjectRequest.Builder builder = restrict(request, partition).toMutable();
+        Set<RoadObjectClient.Include> includes = request.getIncludes();
+        if (includes.isEmpty()) {
+            builder.withIncludes(EnumSet.of(RoadObjectClient.Include.METADATA, RoadObjectClient.Include.LOCATION));
+        } else if (!includes.contains(RoadObjectClient.Include.ALL)
+            && !includes.contains(RoadObjectClient.Include.LOCATION)) {
+            Set<RoadObjectClient.Include> withLocation = EnumSet.copyOf(includes);
+            withLocation.add(RoadObjectClient.Include.LOCATION);
+            builder.withIncludes(withLocation);
+        }
+        Set<String> skippedFields = new HashSet<>(request.getSkippedFields());
+        skippedFields.removeAll(Arrays.asList("lokasjon", "lokasjon.fylker", "lokasjon.kommuner"));
+        return builder.withoutFields(skippedFields).build();
+    }
+
+    /**
+     * @return the set {@link #isOwner} keeps the objects without a location in. It holds the
+     * {@value #MAX_SEEN} most recently seen of them, so a long download does not fill the memory.
+     */
+    static Set<String> newSeenSet() {
+        return Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_SEEN;
+            }
+        }));
+    }
+
+    /**
+     * Groups the areas into partitions of about the same number of objects. The largest areas are
+     * placed first, each in the partition with the fewest objects so far. Areas without objects are left out.
+     * @param sizes number of objects in each area
+     * @param partitions max number of partitions
+     * @return partitions, the largest first
+     */
+    static List<List<Integer>> balance(Collection<AreaSize> sizes, int partitions) {
+        List<AreaSize> nonEmpty = sizes.stream()
+            .filter(s -> s.count > 0)
+            .sorted(Comparator.comparingLong((AreaSize s) -> s.count).reversed())
+            .collect(toList());
+
+        PriorityQueue<Partition> queue = new PriorityQueue<>(Comparator.comparingLong(p -> p.count));
+        for (int i = 0; i < Math.min(partitions, nonEmpty.size()); i++) {
+            queue.add(new Partition());
+        }
+        for (AreaSize size : nonEmpty) {
+            Partition lightest = queue.poll();
+            lightest.areas.add(size.area);
+            lightest.count += size.count;
+            queue.add(lightest);
+        }
+        return queue.stream()
+            .sorted(Comparator.comparingLong((Partition p) -> p.count).reversed())
+            .map(p -> p.areas)
+            .collect(toList());
+    }
+
+    /**
+     * An object located in several areas is returned for each of them. It is kept in the partition of
+     * its lowest numbered area. The location is included in the requests of the partitions, but if the API
+     * leaves it out, the ids and versions of the objects seen recently are used instead.
+     */
+    boolean isOwner(List<Integer> partition, Set<Integer> allAreas, Set<String> seen, RoadObject roadObject) {
+        Location location = roadObject.getLocation();
+        if (location != null) {
+            List<Integer> objectAreas = area == Area.COUNTY ? location.getCounties() : location.getMunicipalities();
+            Integer owner = objectAreas.stream()
+                .filter(allAreas::contains)
+                .min(Integer::compare)
+                .orElse(null);
+            if (owner != null) {
+                return partition.contains(owner);
+            }
+        }
+        return seen.add(roadObject.getId() + ":" + roadObject.getVersion());
+    }
+
+    static final class AreaSize {
+        final int area;
+        final long count;
+
+        AreaSize(int area, long count) {
+            this.area = area;
+            this.count = count;
+        }
+    }
+
+    private static final class Partition {
+        final List<Integer> areas = new ArrayList<>();
+        long count;
+    }
+}
@@ -29,6 +29,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import no.vegvesen.nvdbapi.client.gson.PlacementParser;
 import no.vegvesen.nvdbapi.client.model.Position;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
@@ -48,6 +49,15 @@ public class PositionClient extends AbstractJerseyClient {
     }
 
     public Position getPlacement(PositionRequest req) {
+        return parsePosition(JerseyHelper.executeHedged(getPlacementTarget(req)));
+    }
+
+    public Mono<Position> getPlacementAsync(PositionRequest req) {
+        return JerseyHelper.executeAsync(getPlacementTarget(req))
+            .map(PositionClient::parsePosition);
+    }
+
+    private WebTarget getPlacementTarget(PositionRequest req) {
         UriBuilder url = getPositionEndpoint();
 
         req.getNorth().ifPresent(v -> url.queryParam("nord", v));
@@ -63,9 +73,11 @@ public class PositionClient extends AbstractJerseyClient {
         req.getDateFilter().ifPresent(v -> url.queryParam("tidspunkt", v));
         req.getRoadUserGroup().ifPresent(v -> url.queryParam("trafikantgruppe", v.getTextValue()));
 
-        WebTarget target = getClient().target(url);
+        return getClient().target(url);
+    }
 
-        JsonArray results = JerseyHelper.execute(target).getAsJsonArray();
+    private static Position parsePosition(JsonElement result) {
+        JsonArray results = result.getAsJsonArray();
 
         List<Position.Result> collect =
                 StreamSupport.stream(results.spliterator(), false)
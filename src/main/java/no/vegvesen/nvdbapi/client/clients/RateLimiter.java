@@ -0,0 +1,177 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.RateLimit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by all clients of a {@link ClientFactory}. The bucket holds one second worth of requests.
+ * A request that finds it empty reserves the next token and waits until it is due, so waiting requests
+ * are let through in order and at the rate. Async requests do not hold a thread while they wait,
+ * they are queued, and sent when a slot is released or their token is due.
+ */
+class RateLimiter implements AutoCloseable {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    /** Part of the configured rate the current rate grows by per second after it is adapted down. */
+    private static final double RECOVERY_PER_SECOND = 0.1;
+
+    private final double maxRate;
+    private final double minRate;
+    private final Semaphore concurrentRequests;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService timer;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long lastDecrease;
+
+    RateLimiter(RateLimit limit) {
+        this.maxRate = limit.getRequestsPerSecond();
+        this.minRate = limit.getMinRequestsPerSecond();
+        this.concurrentRequests = limit.getMaxConcurrentRequests() > 0
+            ? new Semaphore(limit.getMaxConcurrentRequests(), true)
+            : null;
+        this.rate = maxRate;
+        this.tokens = Math.max(1, maxRate);
+        this.lastRefill = System.nanoTime();
+        this.lastDecrease = lastRefill - SECOND;
+    }
+
+    /**
+     * Waits for a free request slot and a token. Every call must be followed by {@link #release()}.
+     */
+    void acquire() throws InterruptedException {
+        if (concurrentRequests != null) {
+            concurrentRequests.acquire();
+        }
+        try {
+            long wait = reserve();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        } catch (InterruptedException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * Like {@link #acquire()}, but without blocking. The task is run right away if a request slot and a token
+     * are free, otherwise it is run on the executor when they are. Every task run must be followed by {@link #release()}.
+     */
+    void acquireAsync(Runnable task, Executor executor) {
+        if (concurrentRequests == null || concurrentRequests.tryAcquire()) {
+            send(task, executor, true);
+            return;
+        }
+        waiting.add(() -> send(task, executor, false));
+        sendWaiting();
+    }
+
+    void release() {
+        if (concurrentRequests != null) {
+            concurrentRequests.release();
+            sendWaiting();
+        }
+    }
+
+    /**
+     * Hands free request slots to the queued async requests.
+     */
+    private void sendWaiting() {
+        while (!waiting.isEmpty() && concurrentRequests.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                concurrentRequests.release();
+                return;
+            }
+            next.run();
+        }
+    }
+
+    private void send(Runnable task, Executor executor, boolean now) {
+        long wait = reserve();
+        if (wait > 0) {
+            timer().schedule(() -> execute(task, executor), wait, TimeUnit.NANOSECONDS);
+        } else if (now) {
+            task.run();
+        } else {
+            execute(task, executor);
+        }
+    }
+
+    private static void execute(Runnable task, Executor executor) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // the factory is closed, let the request fail on this thread
+            task.run();
+        }
+    }
+
+    private synchronized ScheduledExecutorService timer() {
+        if (timer == null) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "nvdb-rate-limit");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return timer;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdown();
+        }
+    }
+
+    /**
+     * Halves the rate after a 429 response, at most once a second so that a burst of throttled
+     * requests counts as one, and empties the bucket.
+     */
+    synchronized void throttled() {
+        if (Double.isInfinite(maxRate)) {
+            return;
+        }
+        long now = System.nanoTime();
+        refill(now);
+        if (now - lastDecrease < SECOND) {
+            return;
+        }
+        lastDecrease = now;
+        rate = Math.max(minRate, rate / 2);
+        tokens = Math.min(tokens, 0);
+    }
+
+    synchronized double getRate() {
+        refill(System.nanoTime());
+        return rate;
+    }
+
+    private synchronized long reserve() {
+        if (Double.isInfinite(maxRate)) {
+            return 0;
+        }
+        refill(System.nanoTime());
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens / rate * SECOND);
+    }
+
+    private void refill(long now) {
+        double seconds = (double) (now - lastRefill) / SECOND;
+        lastRefill = now;
+        if (rate < maxRate) {
+            rate = Math.min(maxRate, rate + maxRate * RECOVERY_PER_SECOND * seconds);
+        }
+        tokens = Math.min(Math.max(1, rate), tokens + seconds * rate);
+    }
+}
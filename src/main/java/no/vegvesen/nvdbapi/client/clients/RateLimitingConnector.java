@@ -0,0 +1,170 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+
+import javax.ws.rs.ProcessingException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets requests through a {@link RateLimiter} before they are sent, and tells it about 429 responses.
+ * A request holds its slot among the concurrent requests until its response is read to the end or closed,
+ * so the slots also bound the responses that are still being downloaded.
+ * Async requests that must wait are sent on the executor when they are let through, so no thread waits for them.
+ */
+class RateLimitingConnector implements Connector {
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final Connector delegate;
+    private final RateLimiter limiter;
+    private final Executor executor;
+
+    RateLimitingConnector(Connector delegate, RateLimiter limiter, Executor executor) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+        this.executor = executor;
+    }
+
+    @Override
+    public ClientResponse apply(ClientRequest request) {
+        acquire();
+        Runnable release = releaseOnce();
+        try {
+            ClientResponse response = delegate.apply(request);
+            if (response.getStatus() == TOO_MANY_REQUESTS) {
+                limiter.throttled();
+            }
+            return releaseWhenRead(response, release);
+        } catch (RuntimeException | Error e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    @Override
+    public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+        CompletableFuture<Object> sent = new CompletableFuture<>();
+        limiter.acquireAsync(() -> {
+            if (sent.isCancelled()) {
+                limiter.release();
+                return;
+            }
+            try {
+                send(request, callback);
+                sent.complete(null);
+            } catch (RuntimeException e) {
+                sent.completeExceptionally(e);
+                callback.failure(e);
+            }
+        }, executor);
+        return sent;
+    }
+
+    private void send(ClientRequest request, AsyncConnectorCallback callback) {
+        Runnable release = releaseOnce();
+        try {
+            delegate.apply(request, new AsyncConnectorCallback() {
+                @Override
+                public void response(ClientResponse response) {
+                    if (response.getStatus() == TOO_MANY_REQUESTS) {
+                        limiter.throttled();
+                    }
+                    callback.response(releaseWhenRead(response, release));
+                }
+
+                @Override
+                public void failure(Throwable failure) {
+                    release.run();
+                    callback.failure(failure);
+                }
+            });
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        };
+    }
+
+    private static ClientResponse releaseWhenRead(ClientResponse response, Runnable release) {
+        InputStream entity = response.getEntityStream();
+        if (entity == null) {
+            release.run();
+        } else {
+            response.setEntityStream(new ReleasingInputStream(entity, release));
+        }
+        return response;
+    }
+
+    /**
+     * Releases the slot of the request when the response is read to the end or closed.
+     */
+    private static final class ReleasingInputStream extends FilterInputStream {
+        private final Runnable release;
+
+        ReleasingInputStream(InputStream in, Runnable release) {
+            super(in);
+            this.release = release;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return released(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return released(super.read(b, off, len));
+        }
+
+        private int released(int read) {
+            if (read < 0) {
+                release.run();
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                release.run();
+            }
+        }
+    }
+
+    private void acquire() {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException("Interrupted while waiting for the rate limit", e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,88 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import org.glassfish.jersey.client.ClientRequest;
+
+import javax.ws.rs.client.Invocation;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Lets another thread abort a request while it waits for a connection or its response, or while its response
+ * is read. The aborter is a property of the request. Transports that can abort a request bind it to the thread
+ * that sends the request and register the request with it, which the Apache transport does. With other
+ * transports an aborted request is only given up once its response comes.
+ */
+final class RequestAborter {
+    static final String PROPERTY = "no.vegvesen.nvdbapi.client.requestAborter";
+    private static final ThreadLocal<RequestAborter> CURRENT = new ThreadLocal<>();
+
+    private Runnable abort;
+    private boolean aborted;
+
+    /**
+     * @return the request, which {@link #abort()} aborts
+     */
+    Invocation.Builder bind(Invocation.Builder request) {
+        return request.property(PROPERTY, this);
+    }
+
+    static Optional<RequestAborter> from(ClientRequest request) {
+        Object aborter = request.getProperty(PROPERTY);
+        return aborter instanceof RequestAborter ? Optional.of((RequestAborter) aborter) : Optional.empty();
+    }
+
+    /**
+     * @return whether the request has been aborted, so it should not be retried
+     */
+    static boolean isAborted(ClientRequest request) {
+        return from(request).map(RequestAborter::aborted).orElse(false);
+    }
+
+    /**
+     * Called by a transport around sending a request, so that it can {@link #register} the request.
+     */
+    <T> T run(Supplier<T> send) {
+        RequestAborter previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return send.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Called by a transport for each request it sends on this thread.
+     * @param abort aborts the request, also when it has not been sent yet
+     */
+    static void register(Runnable abort) {
+        RequestAborter aborter = CURRENT.get();
+        if (aborter != null) {
+            aborter.set(abort);
+        }
+    }
+
+    private synchronized void set(Runnable abort) {
+        if (aborted) {
+            abort.run();
+        } else {
+            this.abort = abort;
+        }
+    }
+
+    private synchronized boolean aborted() {
+        return aborted;
+    }
+
+    synchronized void abort() {
+        aborted = true;
+        if (abort != null) {
+            abort.run();
+            abort = null;
+        }
+    }
+}
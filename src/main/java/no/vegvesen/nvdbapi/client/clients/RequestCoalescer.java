@@ -0,0 +1,100 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.WebTarget;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lets concurrent identical GET requests share one request to the API. The first caller sends the request,
+ * callers that ask for the same URI while it is in flight wait for it and get a copy of the parsed json,
+ * so that a caller may change the json it gets without changing that of the others.
+ * Nothing is cached, a request that comes after the response is sent again.
+ * One coalescer is shared by the clients of a {@code ClientFactory}, which find it as a property
+ * on the configuration of their {@code WebTarget}.
+ */
+class RequestCoalescer {
+    static final String PROPERTY = "no.vegvesen.nvdbapi.client.requestCoalescer";
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final EndpointCounters saved = new EndpointCounters();
+
+    /**
+     * @param target the target of a GET request
+     * @return the coalescer of the {@code ClientFactory} that created the target, if it coalesces requests
+     */
+    static Optional<RequestCoalescer> from(WebTarget target) {
+        Object coalescer = target.getConfiguration().getProperty(PROPERTY);
+        return coalescer instanceof RequestCoalescer ? Optional.of((RequestCoalescer) coalescer) : Optional.empty();
+    }
+
+    /**
+     * @param kind what the request returns, requests of different kinds to the same URI are not coalesced
+     * @param uri the URI of the request
+     * @param request sends the request and parses the response
+     * @param copy makes a deep copy of the result
+     * @return the result of the request, sent by this caller or one that asked for the same URI before
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(String kind, URI uri, Supplier<T> request, UnaryOperator<T> copy) {
+        String key = kind + ' ' + canonical(uri);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            saved.increment(uri.getPath());
+            return copy.apply((T) await(existing, uri));
+        }
+        try {
+            T result = request.get();
+            own.complete(copy.apply(result));
+            return result;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result, URI uri) {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ProcessingException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessingException("Interrupted while waiting for " + uri, e);
+        }
+    }
+
+    /**
+     * @return the URI with its query parameters sorted, so that the order they were added in does not matter
+     */
+    static String canonical(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return uri.toString();
+        }
+        String[] parameters = query.split("&");
+        Arrays.sort(parameters);
+        String base = uri.toString();
+        return base.substring(0, base.indexOf('?') + 1) + String.join("&", parameters);
+    }
+
+    /**
+     * @return number of requests that were not sent because an identical request was in flight, per endpoint
+     */
+    Map<String, Long> getSavedRequests() {
+        return saved.snapshot();
+    }
+}
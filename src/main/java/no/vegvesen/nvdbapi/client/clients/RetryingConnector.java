@@ -0,0 +1,126 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.RetryPolicy;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.HttpHeaders;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.Future;
+
+/**
+ * Retries idempotent requests according to a {@link RetryPolicy}. Wraps the connector of the transport, so
+ * every request of the clients is covered, whether it is made for a page, an async result or a single object.
+ * Asynchronous invocations are passed on without retries.
+ */
+class RetryingConnector implements Connector {
+    private static final Logger logger = LoggerFactory.getLogger(RetryingConnector.class);
+
+    private final Connector delegate;
+    private final RetryPolicy policy;
+    private final EndpointCounters counters;
+
+    RetryingConnector(Connector delegate, RetryPolicy policy, EndpointCounters counters) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.counters = counters;
+    }
+
+    @Override
+    public ClientResponse apply(ClientRequest request) {
+        if (!isIdempotent(request.getMethod())) {
+            return delegate.apply(request);
+        }
+        long deadline = System.nanoTime() + policy.getMaxRetryTime().toNanos();
+        int attempt = 1;
+        while (true) {
+            ClientResponse response;
+            try {
+                response = delegate.apply(request);
+            } catch (ProcessingException e) {
+                if (attempt >= policy.getErrorAttempts()
+                    || !await(request, attempt, policy.backoff(attempt), deadline, e.getMessage())) {
+                    throw e;
+                }
+                attempt++;
+                continue;
+            }
+            int status = response.getStatus();
+            if (attempt >= policy.getMaxAttempts(status)) {
+                return response;
+            }
+            Duration wait = retryAfter(response).orElse(policy.backoff(attempt));
+            if (!await(request, attempt, wait, deadline, "status " + status)) {
+                return response;
+            }
+            response.close();
+            attempt++;
+        }
+    }
+
+    private boolean await(ClientRequest request, int attempt, Duration wait, long deadline, String reason) {
+        if (RequestAborter.isAborted(request)) {
+            return false;
+        }
+        if (System.nanoTime() + wait.toNanos() > deadline) {
+            logger.debug("Not retrying {}, max retry time would be exceeded", request.getUri());
+            return false;
+        }
+        logger.info("Retry {} of {} in {} ms, after {}", attempt, request.getUri(), wait.toMillis(), reason);
+        counters.increment(request.getUri().getPath());
+        try {
+            Thread.sleep(wait.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Optional<Duration> retryAfter(ClientResponse response) {
+        String retryAfter = response.getHeaderString(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.trim()))));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration wait = Duration.between(ZonedDateTime.now(date.getZone()), date);
+                return Optional.of(wait.isNegative() ? Duration.ZERO : wait);
+            } catch (DateTimeParseException ignored) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static boolean isIdempotent(String method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+    }
+
+    @Override
+    public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+        return delegate.apply(request, callback);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
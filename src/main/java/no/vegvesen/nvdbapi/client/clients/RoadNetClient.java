@@ -40,6 +40,7 @@ import no.vegvesen.nvdbapi.client.model.Page;
 import no.vegvesen.nvdbapi.client.model.roadnet.LinkSequence;
 import no.vegvesen.nvdbapi.client.model.roadnet.Node;
 import no.vegvesen.nvdbapi.client.model.roadnet.TopologyLevel;
+import reactor.core.publisher.Mono;
 
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.rt;
 
@@ -49,21 +50,32 @@ public class RoadNetClient extends AbstractJerseyClient {
     }
 
     public LinkSequence getLinkSequence(long linksequenceId) {
-        UriBuilder path = endpoint().path("/veglenkesekvenser").path(Long.toString(linksequenceId));
-        WebTarget target = getClient().target(path);
-        JsonElement result = JerseyHelper.execute(target);
+        JsonElement result = JerseyHelper.executeHedged(getSingleTarget("/veglenkesekvenser", linksequenceId));
 
         return rt(RoadNetParser::parseLinkSequence).apply(result.getAsJsonObject());
     }
 
+    public Mono<LinkSequence> getLinkSequenceAsync(long linksequenceId) {
+        return JerseyHelper.executeAsync(getSingleTarget("/veglenkesekvenser", linksequenceId))
+            .map(result -> rt(RoadNetParser::parseLinkSequence).apply(result.getAsJsonObject()));
+    }
+
     public Node getNode(long nodeId) {
-        UriBuilder path = endpoint().path("/noder").path(Long.toString(nodeId));
-        WebTarget target = getClient().target(path);
-        JsonElement result = JerseyHelper.execute(target);
+        JsonElement result = JerseyHelper.execute(getSingleTarget("/noder", nodeId));
 
         return rt(RoadNetParser::parseNode).apply(result.getAsJsonObject());
     }
 
+    public Mono<Node> getNodeAsync(long nodeId) {
+        return JerseyHelper.executeAsync(getSingleTarget("/noder", nodeId))
+            .map(result -> rt(RoadNetParser::parseNode).apply(result.getAsJsonObject()));
+    }
+
+    private WebTarget getSingleTarget(String p, long id) {
+        UriBuilder path = endpoint().path(p).path(Long.toString(id));
+        return getClient().target(path);
+    }
+
     public LinkResult getLinkSequences() {
         return getLinkSequences(RoadNetRequest.DEFAULT);
     }
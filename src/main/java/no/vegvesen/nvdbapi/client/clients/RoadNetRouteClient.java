@@ -43,6 +43,7 @@ import no.vegvesen.nvdbapi.client.model.Geometry;
 import no.vegvesen.nvdbapi.client.model.Projection;
 import no.vegvesen.nvdbapi.client.model.roadnet.TypeOfRoad;
 import no.vegvesen.nvdbapi.client.model.roadnet.route.RouteOnRoadNet;
+import reactor.core.publisher.Mono;
 
 public class RoadNetRouteClient extends AbstractJerseyClient {
     static class RouteRequestField {
@@ -71,17 +72,30 @@ public class RoadNetRouteClient extends AbstractJerseyClient {
     public RouteOnRoadNet getRouteOnRoadnet(RoadNetRouteRequest request) {
         WebTarget target = getWebTarget(request);
         JsonObject result = JerseyHelper.execute(target).getAsJsonObject();
-        if (request.isBriefResponse()) {
-            return RouteParser.parseBrief(result);
-        } else {
-            return RouteParser.parseDetailed(result);
-        }
+        return parseRoute(request, result);
+    }
+
+    public Mono<RouteOnRoadNet> getRouteOnRoadnetAsync(RoadNetRouteRequest request) {
+        WebTarget target = getWebTarget(request);
+        return JerseyHelper.executeAsync(target)
+            .map(result -> parseRoute(request, result.getAsJsonObject()));
     }
 
     public RouteOnRoadNet postRouteOnRoadnet(RoadNetRouteRequest request) {
         WebTarget target = getWebTarget();
         Entity<Map<String, String>> entity = Entity.entity(getJsonObject(request), MediaType.APPLICATION_JSON);
         JsonObject result = JerseyHelper.execute(target, entity).getAsJsonObject();
+        return parseRoute(request, result);
+    }
+
+    public Mono<RouteOnRoadNet> postRouteOnRoadnetAsync(RoadNetRouteRequest request) {
+        WebTarget target = getWebTarget();
+        Entity<Map<String, String>> entity = Entity.entity(getJsonObject(request), MediaType.APPLICATION_JSON);
+        return JerseyHelper.executeAsync(target, entity)
+            .map(result -> parseRoute(request, result.getAsJsonObject()));
+    }
+
+    private static RouteOnRoadNet parseRoute(RoadNetRouteRequest request, JsonObject result) {
         if (request.isBriefResponse()) {
             return RouteParser.parseBrief(result);
         } else {
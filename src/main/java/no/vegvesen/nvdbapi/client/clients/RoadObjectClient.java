@@ -28,6 +28,7 @@ package no.vegvesen.nvdbapi.client.clients;
 import java.io.InputStream;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.StreamSupport;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.Invocation;
@@ -41,8 +42,15 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import no.vegvesen.nvdbapi.client.gson.DecodingPlan;
+import no.vegvesen.nvdbapi.client.gson.GsonUtil;
 import no.vegvesen.nvdbapi.client.gson.RoadObjectParser;
+import no.vegvesen.nvdbapi.client.gson.RoadObjectVisitor;
+import no.vegvesen.nvdbapi.client.gson.StreamingRoadObjectParser;
 import no.vegvesen.nvdbapi.client.model.Page;
 import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
 import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObjectAttribute;
@@ -52,12 +60,15 @@ import no.vegvesen.nvdbapi.client.model.roadobjects.Statistics;
 
 import static java.lang.String.valueOf;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 
 import static no.vegvesen.nvdbapi.client.clients.RoadObjectRequest.DEFAULT;
 import static no.vegvesen.nvdbapi.client.clients.RoadObjectRequestBuilder.convert;
 import static no.vegvesen.nvdbapi.client.clients.JerseyHelper.MEDIA_TYPE;
 import static no.vegvesen.nvdbapi.client.clients.JerseyHelper.execute;
+import static no.vegvesen.nvdbapi.client.clients.JerseyHelper.executeAsync;
+import static no.vegvesen.nvdbapi.client.clients.JerseyHelper.executeHedged;
 import static no.vegvesen.nvdbapi.client.clients.JerseyHelper.isSuccess;
 import static no.vegvesen.nvdbapi.client.clients.JerseyHelper.parseError;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.rt;
@@ -70,24 +81,33 @@ public class RoadObjectClient extends AbstractJerseyClient {
     }
 
     public Statistics getStats(int featureTypeId, RoadObjectRequest request) {
-        UriBuilder path = start(featureTypeId).path("statistikk");
-
-        applyRequestParameters(path, convert(request));
-        logger.debug("Invoking {}", path);
-        WebTarget target = getClient().target(path);
-
-        JsonElement e = execute(target);
+        JsonElement e = execute(statsTarget(start(featureTypeId), request));
         return rt(RoadObjectParser::parseStatistics).apply(e.getAsJsonObject());
     }
 
+    public Mono<Statistics> getStatsAsync(int featureTypeId, RoadObjectRequest request) {
+        return executeAsync(statsTarget(start(featureTypeId), request))
+            .map(e -> rt(RoadObjectParser::parseStatistics).apply(e.getAsJsonObject()));
+    }
+
     public List<Statistics> getRootStats(RoadObjectRequest request) {
-        UriBuilder path = start().path("statistikk");
+        return parseRootStats(execute(statsTarget(start(), request)));
+    }
+
+    public Mono<List<Statistics>> getRootStatsAsync(RoadObjectRequest request) {
+        return executeAsync(statsTarget(start(), request))
+            .map(RoadObjectClient::parseRootStats);
+    }
+
+    private WebTarget statsTarget(UriBuilder start, RoadObjectRequest request) {
+        UriBuilder path = start.path("statistikk");
 
         applyRequestParameters(path, convert(request));
         logger.debug("Invoking {}", path);
-        WebTarget target = getClient().target(path);
+        return getClient().target(path);
+    }
 
-        JsonElement e = execute(target);
+    private static List<Statistics> parseRootStats(JsonElement e) {
         return StreamSupport.stream(e.getAsJsonArray().spliterator(),true)
                 .map(obj -> rt(RoadObjectParser::parseStatistics).apply(obj.getAsJsonObject().get("statistikk").getAsJsonObject()))
                 .collect(toList());
@@ -102,11 +122,15 @@ public class RoadObjectClient extends AbstractJerseyClient {
     }
 
     public List<RoadObjectType> getRoadObjectTypes(){
-        UriBuilder path = start();
-        WebTarget target = getClient().target(path);
+        return parseRoadObjectTypes(execute(getClient().target(start())));
+    }
 
-        JsonArray e = execute(target).getAsJsonArray();
+    public Mono<List<RoadObjectType>> getRoadObjectTypesAsync(){
+        return executeAsync(getClient().target(start()))
+            .map(RoadObjectClient::parseRoadObjectTypes);
+    }
 
+    private static List<RoadObjectType> parseRoadObjectTypes(JsonElement e) {
         return StreamSupport.stream(e.getAsJsonArray().spliterator(), false)
             .map(JsonElement::getAsJsonObject)
             .map(rt(RoadObjectParser::parseRoadObjectType))
@@ -132,7 +156,8 @@ public class RoadObjectClient extends AbstractJerseyClient {
         WebTarget target = getWebTarget(featureTypeId, request);
 
         return new RoadObjectsResult(target,
-            request.getPage()
+            request.getPage(),
+            decodingPlan(request)
         );
     }
 
@@ -140,10 +165,108 @@ public class RoadObjectClient extends AbstractJerseyClient {
         WebTarget target = getWebTarget(featureTypeId, request);
 
         return new AsyncRoadObjectsResult(target,
-            request.getPage()
+            request.getPage(),
+            decodingPlan(request)
         );
     }
 
+    /**
+     * The sections left out of the includes of the request are not in the response, and the parser need not
+     * look for them. Metadata is always decoded since much code relies on the type and version of the objects,
+     * unless the request skips it with {@code withoutFields}.
+     */
+    static DecodingPlan decodingPlan(RoadObjectRequest request) {
+        DecodingPlan plan = request.getFieldsPlan();
+        Set<Include> includes = request.getIncludes();
+        if (!includes.isEmpty() && !includes.contains(Include.ALL)) {
+            Set<String> sections = new HashSet<>();
+            sections.add(Include.METADATA.stringValue());
+            includes.stream()
+                .filter(i -> i != Include.MINIMUM)
+                .forEach(i -> sections.add(i.stringValue()));
+            plan = plan.onlySections(sections);
+        }
+        return plan;
+    }
+
+    /**
+     * Read the road objects with a visitor instead of building a {@code RoadObject} of each, when only some of
+     * their fields are needed. The parts the visitor does not ask for are skipped without being parsed.
+     * @param featureTypeId Get objects with feature type id
+     * @param request the query
+     * @param visitors makes a visitor for each road object
+     * @return what the visitors made of the road objects
+     */
+    public <T> VisitedRoadObjectsResult<T> getRoadObjects(int featureTypeId,
+                                                          RoadObjectRequest request,
+                                                          Supplier<? extends RoadObjectVisitor<T>> visitors) {
+        WebTarget target = getWebTarget(featureTypeId, request);
+
+        return new VisitedRoadObjectsResult<>(target, request.getPage(), visitors);
+    }
+
+    public <T> AsyncResult<T> getRoadObjectsAsync(int featureTypeId,
+                                                  RoadObjectRequest request,
+                                                  Supplier<? extends RoadObjectVisitor<T>> visitors) {
+        WebTarget target = getWebTarget(featureTypeId, request);
+
+        return new AsyncResult<>(target, request.getPage(), "objekter", StreamingRoadObjectParser.visiting(visitors));
+    }
+
+    /**
+     * Download the road objects of a feature type as several concurrent requests, each restricted to a
+     * partition of the counties or municipalities. The number of objects in each county or municipality
+     * is found with {@link #getStats(int, RoadObjectRequest)}, and used to balance the partitions.
+     * Use {@code toStream()} on the result to consume it as a {@code Stream}.
+     * The objects of the partitions are interleaved, so they are not ordered. The location of the objects
+     * is included, and an object in areas of several partitions is returned once.
+     * @param featureTypeId Get objects with feature type id
+     * @param request the query, without paging information
+     * @param partitioning how to partition the request
+     * @return the objects of all the partitions
+     */
+    public Flux<RoadObject> getRoadObjectsPartitioned(int featureTypeId,
+                                                      RoadObjectRequest request,
+                                                      Partitioning partitioning) {
+        Scheduler scheduler = AsyncScheduler.from(getClient().target(start()));
+        int concurrency = partitioning.getConcurrency();
+
+        return Mono.fromCallable(() -> getPartitionAreas(partitioning, request))
+            .subscribeOn(scheduler)
+            .flatMapMany(areas -> {
+                Set<Integer> allAreas = new HashSet<>(areas);
+                Set<String> seen = Partitioning.newSeenSet();
+                return Flux.fromIterable(areas)
+                    .flatMap(area -> Mono.fromCallable(() -> new Partitioning.AreaSize(area,
+                            getStats(featureTypeId, partitioning.restrict(request, singletonList(area))).getNumFound()))
+                            .subscribeOn(scheduler),
+                        concurrency)
+                    .collectList()
+                    .flatMapIterable(sizes -> Partitioning.balance(sizes, partitioning.getPartitions()))
+                    .flatMap(partition -> {
+                            logger.debug("Downloading partition {} of {}", partition, featureTypeId);
+                            return getRoadObjectsAsync(featureTypeId, partitioning.download(request, partition))
+                                .get()
+                                .filter(o -> partitioning.isOwner(partition, allAreas, seen, o));
+                        },
+                        concurrency);
+            });
+    }
+
+    private List<Integer> getPartitionAreas(Partitioning partitioning, RoadObjectRequest request) {
+        if (!partitioning.getAreas().isEmpty()) {
+            return partitioning.getAreas();
+        }
+        List<Integer> requested = partitioning.areasOf(request);
+        if (!requested.isEmpty()) {
+            return requested;
+        }
+        WebTarget target = getClient().target(super.start().path("omrader").path(partitioning.getArea().getPath()));
+        return StreamSupport.stream(execute(target).getAsJsonArray().spliterator(), false)
+            .map(e -> GsonUtil.parseIntMember(e.getAsJsonObject(), "nummer"))
+            .collect(toList());
+    }
+
     private WebTarget getWebTarget(int featureTypeId, RoadObjectRequest request) {
         UriBuilder path = start(featureTypeId);
 
@@ -175,6 +298,33 @@ public class RoadObjectClient extends AbstractJerseyClient {
     }
 
     private RoadObject getRoadObject(Integer featureTypeId, long featureId, RoadObjectRequest request) {
+        JsonObject obj = executeHedged(roadObjectTarget(featureTypeId, featureId, request)).getAsJsonObject();
+
+        return rt(RoadObjectParser::parse).apply(obj);
+    }
+
+    public Mono<RoadObject> getRoadObjectAsync(long featureId) {
+        return getRoadObjectAsync(null, featureId, DEFAULT);
+    }
+
+    public Mono<RoadObject> getRoadObjectAsync(long featureId, RoadObjectRequest request) {
+        return getRoadObjectAsync(null, featureId, request);
+    }
+
+    public Mono<RoadObject> getRoadObjectAsync(int featureTypeId, long featureId) {
+        return getRoadObjectAsync(featureTypeId, featureId, DEFAULT);
+    }
+
+    public Mono<RoadObject> getRoadObjectAsync(int featureTypeId, long featureId, RoadObjectRequest request) {
+        return getRoadObjectAsync(Integer.valueOf(featureTypeId), featureId, request);
+    }
+
+    private Mono<RoadObject> getRoadObjectAsync(Integer featureTypeId, long featureId, RoadObjectRequest request) {
+        return executeAsync(roadObjectTarget(featureTypeId, featureId, request))
+            .map(obj -> rt(RoadObjectParser::parse).apply(obj.getAsJsonObject()));
+    }
+
+    private WebTarget roadObjectTarget(Integer featureTypeId, long featureId, RoadObjectRequest request) {
         UriBuilder path = featureTypeId != null
                 ? start(featureTypeId).path(valueOf(featureId))
                 : startShortcut().queryParam("id", valueOf(featureId));
@@ -182,11 +332,7 @@ public class RoadObjectClient extends AbstractJerseyClient {
         logger.debug("Invoking {}", path);
         applyRequestParameters(path, convert(request));
 
-        WebTarget target = getClient().target(path);
-
-        JsonObject obj = execute(target).getAsJsonObject();
-
-        return rt(RoadObjectParser::parse).apply(obj);
+        return getClient().target(path);
     }
 
     public List<RoadObject> getRoadObjectVersions(int featureTypeId, long featureId) {
@@ -194,15 +340,29 @@ public class RoadObjectClient extends AbstractJerseyClient {
     }
 
     public List<RoadObject> getRoadObjectVersions(int featureTypeId, long featureId, RoadObjectRequest roadObjectRequest) {
+        return parseRoadObjects(execute(versionsTarget(featureTypeId, featureId, roadObjectRequest)));
+    }
+
+    public Mono<List<RoadObject>> getRoadObjectVersionsAsync(int featureTypeId, long featureId) {
+        return getRoadObjectVersionsAsync(featureTypeId, featureId, DEFAULT);
+    }
+
+    public Mono<List<RoadObject>> getRoadObjectVersionsAsync(int featureTypeId, long featureId, RoadObjectRequest roadObjectRequest) {
+        return executeAsync(versionsTarget(featureTypeId, featureId, roadObjectRequest))
+            .map(RoadObjectClient::parseRoadObjects);
+    }
+
+    private WebTarget versionsTarget(int featureTypeId, long featureId, RoadObjectRequest roadObjectRequest) {
         UriBuilder path = start(featureTypeId).path(valueOf(featureId)).path("versjoner");
 
         logger.debug("Invoking {}", path);
         applyRequestParameters(path, convert(roadObjectRequest));
 
-        WebTarget target = getClient().target(path);
+        return getClient().target(path);
+    }
 
-        JsonArray e = execute(target).getAsJsonArray();
-        return StreamSupport.stream(e.spliterator(), false)
+    private static List<RoadObject> parseRoadObjects(JsonElement e) {
+        return StreamSupport.stream(e.getAsJsonArray().spliterator(), false)
             .map(JsonElement::getAsJsonObject)
             .map(rt(RoadObjectParser::parse))
             .collect(toList());
@@ -213,15 +373,26 @@ public class RoadObjectClient extends AbstractJerseyClient {
     }
 
     public RoadObject getRoadObjectVersion(int featureTypeId, long featureId, int version, RoadObjectRequest roadObjectRequest){
+        JsonObject obj = execute(versionTarget(featureTypeId, featureId, version, roadObjectRequest)).getAsJsonObject();
+        return rt(RoadObjectParser::parse).apply(obj);
+    }
+
+    public Mono<RoadObject> getRoadObjectVersionAsync(int featureTypeId, long featureId, int version){
+        return getRoadObjectVersionAsync(featureTypeId, featureId, version, DEFAULT);
+    }
+
+    public Mono<RoadObject> getRoadObjectVersionAsync(int featureTypeId, long featureId, int version, RoadObjectRequest roadObjectRequest){
+        return executeAsync(versionTarget(featureTypeId, featureId, version, roadObjectRequest))
+            .map(obj -> rt(RoadObjectParser::parse).apply(obj.getAsJsonObject()));
+    }
+
+    private WebTarget versionTarget(int featureTypeId, long featureId, int version, RoadObjectRequest roadObjectRequest) {
         UriBuilder path = start(featureTypeId).path(valueOf(featureId)).path(valueOf(version));
 
         logger.debug("Invoking {}", path);
         applyRequestParameters(path, convert(roadObjectRequest));
 
-        WebTarget target = getClient().target(path);
-
-        JsonObject obj = execute(target).getAsJsonObject();
-        return rt(RoadObjectParser::parse).apply(obj);
+        return getClient().target(path);
     }
 
     public RoadObjectAttribute getBinaryAttributeRoadObject(int featureTypeId, long featureId, int version, int attributeId, int blobId){
@@ -256,12 +427,20 @@ public class RoadObjectClient extends AbstractJerseyClient {
     }
 
     public List<RoadObjectTypeWithStats> getSummary(RoadObjectRequest request) {
-        UriBuilder path = start().path("statistikk");
-        applyRequestParameters(path, convert(request));
-        WebTarget target = getClient().target(path);
-        logger.debug("Invoking {}", path);
-        JsonArray array = execute(target).getAsJsonArray();
-        return StreamSupport.stream(array.spliterator(), false)
+        return parseSummary(execute(statsTarget(start(), request)));
+    }
+
+    public Mono<List<RoadObjectTypeWithStats>> getSummaryAsync() {
+        return getSummaryAsync(DEFAULT);
+    }
+
+    public Mono<List<RoadObjectTypeWithStats>> getSummaryAsync(RoadObjectRequest request) {
+        return executeAsync(statsTarget(start(), request))
+            .map(RoadObjectClient::parseSummary);
+    }
+
+    private static List<RoadObjectTypeWithStats> parseSummary(JsonElement array) {
+        return StreamSupport.stream(array.getAsJsonArray().spliterator(), false)
             .map(JsonElement::getAsJsonObject)
             .map(rt(RoadObjectParser::parseRoadObjectTypeWithStats))
             .collect(toList());
@@ -354,7 +533,13 @@ public class RoadObjectClient extends AbstractJerseyClient {
 
         public RoadObjectsResult(WebTarget baseTarget,
                                  Page currentPage) {
-            super(baseTarget, currentPage, rt(RoadObjectParser::parse));
+            this(baseTarget, currentPage, DecodingPlan.all());
+        }
+
+        public RoadObjectsResult(WebTarget baseTarget,
+                                 Page currentPage,
+                                 DecodingPlan plan) {
+            super(baseTarget, currentPage, "objekter", StreamingRoadObjectParser.parser(plan));
         }
     }
 
@@ -362,7 +547,22 @@ public class RoadObjectClient extends AbstractJerseyClient {
 
         public AsyncRoadObjectsResult(WebTarget baseTarget,
                                       Page currentPage) {
-            super(baseTarget, currentPage, rt(RoadObjectParser::parse));
+            this(baseTarget, currentPage, DecodingPlan.all());
+        }
+
+        public AsyncRoadObjectsResult(WebTarget baseTarget,
+                                      Page currentPage,
+                                      DecodingPlan plan) {
+            super(baseTarget, currentPage, "objekter", StreamingRoadObjectParser.parser(plan));
+        }
+    }
+
+    public static class VisitedRoadObjectsResult<T> extends GenericResultSet<T> {
+
+        public VisitedRoadObjectsResult(WebTarget baseTarget,
+                                        Page currentPage,
+                                        Supplier<? extends RoadObjectVisitor<T>> visitors) {
+            super(baseTarget, currentPage, "objekter", StreamingRoadObjectParser.visiting(visitors));
         }
     }
 }
@@ -25,6 +25,7 @@
 
 package no.vegvesen.nvdbapi.client.clients;
 
+import no.vegvesen.nvdbapi.client.gson.DecodingPlan;
 import no.vegvesen.nvdbapi.client.model.Page;
 import no.vegvesen.nvdbapi.client.model.Projection;
 import no.vegvesen.nvdbapi.client.model.roadnet.*;
@@ -69,8 +70,10 @@ public class RoadObjectRequest {
     private final Set<DetailLevel> detailLevelFilter;
     private final Set<TypeOfRoad> typeOfRoadFilter;
     private final RefLinkPartType refLinkPartType;
+    private final Set<String> skippedFields;
+    private final DecodingPlan fieldsPlan;
 
-    private RoadObjectRequest(Builder b) {
+    private RoadObjectRequest(Builder b, DecodingPlan fieldsPlan) {
         page = b.page;
         segmented = b.segmented;
         depth = b.depth;
@@ -102,6 +105,8 @@ public class RoadObjectRequest {
         refLinkPartType = b.refLinkPartType;
         roadUserGroupFilter = b.roadUserGroupFilter;
         separatePassagesFilter = b.separatePassagesFilter;
+        skippedFields = b.skippedFields;
+        this.fieldsPlan = fieldsPlan;
     }
 
     public static Builder newBuilder() {
@@ -232,6 +237,17 @@ public class RoadObjectRequest {
         return Optional.ofNullable(refLinkPartType);
     }
 
+    public Set<String> getSkippedFields() {
+        return skippedFields;
+    }
+
+    /**
+     * @return the plan that skips the {@link #getSkippedFields() skipped fields}, parsed when the request was built
+     */
+    DecodingPlan getFieldsPlan() {
+        return fieldsPlan;
+    }
+
     /**
      * This method strips any parameters that are not supported by the API
      * for statistics requests
@@ -240,6 +256,8 @@ public class RoadObjectRequest {
     public RoadObjectRequest forStatistics() {
         return toMutable()
                 .withIncludes(Collections.emptySet())
+                .withIncludeGeometries(Collections.emptySet())
+                .withIncludeAttributes(Collections.emptySet())
                 .withPage(null)
                 .withDistanceTolerance(null)
                 .withProjection(null)
@@ -255,6 +273,8 @@ public class RoadObjectRequest {
                 .withProjection(projection)
                 .withDistanceTolerance(distanceTolerance)
                 .withIncludes(includes)
+                .withIncludeGeometries(includeGeometries)
+                .withIncludeAttributes(includeAttributes)
                 .withAttributeFilter(attributeFilter)
                 .withBbox(bbox)
                 .withBpolygon(bpolygon)
@@ -263,6 +283,8 @@ public class RoadObjectRequest {
                 .withMunicipalities(municipalities)
                 .withCounties(counties)
                 .withContractAreas(contractAreas)
+                .withNationalRoutes(nationalRoutes.toArray(new String[0]))
+                .withStreets(streets.toArray(new String[0]))
                 .withAllVersions(allVersions)
                 .withPointInTime(pointInTime)
                 .withModifiedAfter(modifiedAfter)
@@ -274,7 +296,8 @@ public class RoadObjectRequest {
                 .withRoadUserGroupFilter(roadUserGroupFilter)
                 .withRefLinkPartType(refLinkPartType)
                 .withTypeOfRoadFilter(typeOfRoadFilter)
-                .withDetailLevelFilter(detailLevelFilter);
+                .withDetailLevelFilter(detailLevelFilter)
+                .withoutFields(skippedFields);
 
         overlapFilters.forEach(of -> b.addOverlapFilter(of.filter, of.typeId));
         return b;
@@ -285,6 +308,7 @@ public class RoadObjectRequest {
         private RefLinkPartType refLinkPartType;
         private Set<DetailLevel> detailLevelFilter = Collections.emptySet();
         private Set<TypeOfRoad> typeOfRoadFilter = Collections.emptySet();
+        private Set<String> skippedFields = Collections.emptySet();
 
         private Page page = Page.count(1000);
         private Boolean segmented;
@@ -317,8 +341,12 @@ public class RoadObjectRequest {
 
         private Builder() { }
 
+        /**
+         * @throws IllegalArgumentException if a path given to {@link #withoutFields} is not a member
+         *                                  of the road objects or one of their members
+         */
         public RoadObjectRequest build() {
-            return new RoadObjectRequest(this);
+            return new RoadObjectRequest(this, DecodingPlan.all().without(skippedFields));
         }
 
         public Builder withPage(Page page) {
@@ -409,6 +437,21 @@ public class RoadObjectRequest {
             return this;
         }
 
+        /**
+         * Parts of the road objects that are skipped when the response is read, and left empty.
+         * Unlike {@link #withIncludes}, this does not change what the API sends.
+         * @param skippedFields members of the road objects and their members, like {@code relasjoner}
+         *                      or {@code vegsegmenter.geometri}
+         */
+        public Builder withoutFields(Set<String> skippedFields) {
+            this.skippedFields = Collections.unmodifiableSet(new HashSet<>(skippedFields));
+            return this;
+        }
+
+        public Builder withoutFields(String... skippedFields) {
+            return withoutFields(new HashSet<>(Arrays.asList(skippedFields)));
+        }
+
         public Builder includeAll() {
             return withIncludes(EnumSet.of(RoadObjectClient.Include.ALL));
         }
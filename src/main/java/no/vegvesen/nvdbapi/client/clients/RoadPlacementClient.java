@@ -31,6 +31,7 @@ import no.vegvesen.nvdbapi.client.gson.RoadPlacementParser;
 import no.vegvesen.nvdbapi.client.model.Projection;
 import no.vegvesen.nvdbapi.client.model.RoadPlacement;
 import no.vegvesen.nvdbapi.client.model.RoadPlacementBulkResult;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
@@ -59,6 +60,16 @@ public class RoadPlacementClient extends AbstractJerseyClient {
                 request.getProjection().orElse(null), request.getDateFilter().orElse(null));
     }
 
+    /**
+     * Search for a placement by road sys ref, without blocking.
+     * @param request search parameters
+     * @return {@code Mono<RoadPlacement>} that is empty if the query had no result
+     */
+    public Mono<RoadPlacement> findPlacementAsync(RoadSysRefRequest request) {
+        return getResultsAsync("vegsystemreferanse", request.getQueryParam(), request.getMunicipality().orElse(null),
+                request.getProjection().orElse(null), request.getDateFilter().orElse(null));
+    }
+
     /**
      * Search for a placement by road sys ref with municipality in the roadsysref.
      * @param request search parameters
@@ -82,6 +93,16 @@ public class RoadPlacementClient extends AbstractJerseyClient {
                 request.getProjection().orElse(null), request.getDateFilter().orElse(null));
     }
 
+    /**
+     * Search for a placement by ref link, without blocking.
+     * @param request search parameters
+     * @return {@code Mono<RoadPlacement>} that is empty if the query had no result
+     */
+    public Mono<RoadPlacement> findPlacementAsync(RefLinkRequest request) {
+        return getResultsAsync("veglenkesekvens", request.getQueryParam(), null,
+                request.getProjection().orElse(null), request.getDateFilter().orElse(null));
+    }
+
     public List<RoadPlacementBulkResult> getRoadPlacementsInBulk(List<RoadSysRefRequest> requests, Integer municipality, Projection projection, LocalDate dateFilter) {
         String queryParam = requests.stream().map(RoadSysRefRequest::getQueryParam).collect(Collectors.joining(","));
         return getRoadPlacementsInBatch("vegsystemreferanser", queryParam, municipality, projection, dateFilter);
@@ -97,17 +118,26 @@ public class RoadPlacementClient extends AbstractJerseyClient {
         return getRoadPlacementsInBatch("veglenkesekvenser", queryParam, null, projection, null);
     }
 
-    private List<RoadPlacementBulkResult> getRoadPlacementsInBatch(String paramName, String queryParam, Integer municipality, Projection projection, LocalDate dateFilter) {
-        UriBuilder url = bulkEndpoint();
+    public Mono<List<RoadPlacementBulkResult>> getRoadPlacementsInBulkAsync(List<RoadSysRefRequest> requests, Integer municipality, Projection projection, LocalDate dateFilter) {
+        String queryParam = requests.stream().map(RoadSysRefRequest::getQueryParam).collect(Collectors.joining(","));
+        return JerseyHelper.executeAsync(getTarget(bulkEndpoint(), "vegsystemreferanser", queryParam, municipality, projection, dateFilter))
+            .map(RoadPlacementClient::parseBulkResults);
+    }
 
-        url.queryParam(paramName, queryParam);
-        Optional.ofNullable(municipality).ifPresent(p -> url.queryParam("kommune", municipality));
-        Optional.ofNullable(projection).ifPresent(p -> url.queryParam("srid", projection.getSrid()));
-        Optional.ofNullable(dateFilter).ifPresent(p -> url.queryParam("tidspunkt", dateFilter));
+    public Mono<List<RoadPlacementBulkResult>> getRoadPlacementsInBulkFromReflinksAsync(List<RefLinkRequest> requests, Projection projection) {
+        String queryParam = requests.stream().map(RefLinkRequest::getQueryParam).collect(Collectors.joining(","));
+        return JerseyHelper.executeAsync(getTarget(bulkEndpoint(), "veglenkesekvenser", queryParam, null, projection, null))
+            .map(RoadPlacementClient::parseBulkResults);
+    }
 
-        WebTarget target = getClient().target(url);
+    private List<RoadPlacementBulkResult> getRoadPlacementsInBatch(String paramName, String queryParam, Integer municipality, Projection projection, LocalDate dateFilter) {
+        WebTarget target = getTarget(bulkEndpoint(), paramName, queryParam, municipality, projection, dateFilter);
+
+        return parseBulkResults(JerseyHelper.execute(target));
+    }
 
-        JsonObject resultMap = JerseyHelper.execute(target).getAsJsonObject();
+    private static List<RoadPlacementBulkResult> parseBulkResults(JsonElement result) {
+        JsonObject resultMap = result.getAsJsonObject();
 
         return resultMap.entrySet().stream()
             .map(r -> RoadPlacementParser.parseRoadPlacementBulkResult(r.getKey(), r.getValue()))
@@ -115,18 +145,28 @@ public class RoadPlacementClient extends AbstractJerseyClient {
     }
 
     private Optional<RoadPlacement> getResults(String paramName, String queryParam, Integer municipality, Projection projection, LocalDate dateFilter) {
-        UriBuilder url = endpoint();
+        WebTarget target = getTarget(endpoint(), paramName, queryParam, municipality, projection, dateFilter);
+
+        return JerseyHelper.executeOptional(target)
+                .map(JsonElement::getAsJsonObject)
+                .map(rt(RoadPlacementParser::parseRoadPlacement));
+    }
 
+    private Mono<RoadPlacement> getResultsAsync(String paramName, String queryParam, Integer municipality, Projection projection, LocalDate dateFilter) {
+        WebTarget target = getTarget(endpoint(), paramName, queryParam, municipality, projection, dateFilter);
+
+        return JerseyHelper.executeOptionalAsync(target)
+                .map(JsonElement::getAsJsonObject)
+                .map(rt(RoadPlacementParser::parseRoadPlacement));
+    }
+
+    private WebTarget getTarget(UriBuilder url, String paramName, String queryParam, Integer municipality, Projection projection, LocalDate dateFilter) {
         url.queryParam(paramName, queryParam);
         Optional.ofNullable(municipality).ifPresent(p -> url.queryParam("kommune", municipality));
         Optional.ofNullable(projection).ifPresent(p -> url.queryParam("srid", projection.getSrid()));
         Optional.ofNullable(dateFilter).ifPresent(p -> url.queryParam("tidspunkt", dateFilter));
 
-        WebTarget target = getClient().target(url);
-
-        return JerseyHelper.executeOptional(target)
-                .map(JsonElement::getAsJsonObject)
-                .map(rt(RoadPlacementParser::parseRoadPlacement));
+        return getClient().target(url);
     }
 
     private UriBuilder endpoint() {
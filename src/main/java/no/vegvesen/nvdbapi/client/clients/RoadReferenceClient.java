@@ -4,6 +4,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import no.vegvesen.nvdbapi.client.gson.PlacementParser;
 import no.vegvesen.nvdbapi.client.model.Position;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
@@ -37,6 +38,26 @@ public class RoadReferenceClient extends AbstractJerseyClient {
                                   Optional <String> tidspunkt,
                                   Optional <String> historisk) {
 
+        return getPosition(roadSysRefTarget(roadRef, startDato, sluttDato, tidspunkt, historisk));
+    }
+
+    /**
+     * Get road system reference for an old reference in hp/meter, without blocking.
+     * See {@link #getRoadSysRef(Optional, Optional, Optional, Optional, Optional)}.
+     */
+    public Mono<Position> getRoadSysRefAsync(Optional<String> roadRef,
+                                             Optional<String> startDato,
+                                             Optional<String> sluttDato,
+                                             Optional <String> tidspunkt,
+                                             Optional <String> historisk) {
+        return getPositionAsync(roadSysRefTarget(roadRef, startDato, sluttDato, tidspunkt, historisk));
+    }
+
+    private WebTarget roadSysRefTarget(Optional<String> roadRef,
+                                       Optional<String> startDato,
+                                       Optional<String> sluttDato,
+                                       Optional <String> tidspunkt,
+                                       Optional <String> historisk) {
         UriBuilder url = getRoadRefEndpoint();
 
         roadRef.ifPresent(v -> url.queryParam("vegreferanse", v));
@@ -45,10 +66,7 @@ public class RoadReferenceClient extends AbstractJerseyClient {
         tidspunkt.ifPresent(v -> url.queryParam("tidspunkt", v));
         historisk.ifPresent(v -> url.queryParam("historisk", v));
 
-        WebTarget target = getClient().target(url);
-        JsonArray response = JerseyHelper.execute(target).getAsJsonArray();
-
-        return new Position(collectResults(response));
+        return getClient().target(url);
     }
 
 
@@ -61,13 +79,11 @@ public class RoadReferenceClient extends AbstractJerseyClient {
      */
 
     public Position getRoadRef(int reflink, double reflinkPosition) {
+        return getPosition(refLinkTarget(reflink, reflinkPosition));
+    }
 
-        UriBuilder url = getRefLinkEndpoint();
-        url.queryParam("veglenkesekvens", "" + reflinkPosition + "@" + reflink);
-        WebTarget target = getClient().target(url);
-        JsonArray response = JerseyHelper.execute(target).getAsJsonArray();
-
-        return new Position(collectResults(response));
+    public Mono<Position> getRoadRefAsync(int reflink, double reflinkPosition) {
+        return getPositionAsync(refLinkTarget(reflink, reflinkPosition));
     }
 
     /**
@@ -79,14 +95,11 @@ public class RoadReferenceClient extends AbstractJerseyClient {
      * @return   A postion with geometry, reflink, municipality and a road system reference (section/part/meter)
      */
     public Position getRoadRef(int reflink, double reflinkPosition, LocalDate date) {
+        return getPosition(refLinkTarget(reflink, reflinkPosition).queryParam("tidspunkt", date.toString()));
+    }
 
-        UriBuilder url = getRefLinkEndpoint();
-        url.queryParam("veglenkesekvens", "" + reflinkPosition + "@" + reflink);
-        url.queryParam("tidspunkt", date.toString());
-        WebTarget target = getClient().target(url);
-        JsonArray response = JerseyHelper.execute(target).getAsJsonArray();
-
-        return new Position(collectResults(response));
+    public Mono<Position> getRoadRefAsync(int reflink, double reflinkPosition, LocalDate date) {
+        return getPositionAsync(refLinkTarget(reflink, reflinkPosition).queryParam("tidspunkt", date.toString()));
     }
 
     /**
@@ -97,16 +110,30 @@ public class RoadReferenceClient extends AbstractJerseyClient {
      * @return    A postion with geometry, reflink, municipality and a road system reference (section/part/meter)
      */
     public Position getRoadRef(int reflink, double reflinkPosition, boolean history) {
+        return getPosition(refLinkTarget(reflink, reflinkPosition).queryParam("historisk", history));
+    }
+
+    public Mono<Position> getRoadRefAsync(int reflink, double reflinkPosition, boolean history) {
+        return getPositionAsync(refLinkTarget(reflink, reflinkPosition).queryParam("historisk", history));
+    }
 
+    private WebTarget refLinkTarget(int reflink, double reflinkPosition) {
         UriBuilder url = getRefLinkEndpoint();
         url.queryParam("veglenkesekvens", "" + reflinkPosition + "@" + reflink);
-        url.queryParam("historisk", history);
-        WebTarget target = getClient().target(url);
+        return getClient().target(url);
+    }
+
+    private Position getPosition(WebTarget target) {
         JsonArray response = JerseyHelper.execute(target).getAsJsonArray();
 
         return new Position(collectResults(response));
     }
 
+    private Mono<Position> getPositionAsync(WebTarget target) {
+        return JerseyHelper.executeAsync(target)
+            .map(response -> new Position(collectResults(response.getAsJsonArray())));
+    }
+
     private List<Position.Result> collectResults(JsonArray results) {
         return StreamSupport.stream(results.spliterator(), false)
                 .map(JsonElement::getAsJsonObject)
@@ -43,6 +43,7 @@ import no.vegvesen.nvdbapi.client.model.roadnet.DetailLevel;
 import no.vegvesen.nvdbapi.client.model.roadnet.SegmentedLink;
 import no.vegvesen.nvdbapi.client.model.roadnet.TopologyLevel;
 import no.vegvesen.nvdbapi.client.model.roadnet.TypeOfRoad;
+import reactor.core.publisher.Mono;
 
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.rt;
 
@@ -53,10 +54,7 @@ public class SegmentedRoadNetClient extends AbstractJerseyClient {
     }
 
     public List<SegmentedLink> getLinks(long linksequenceId) {
-        UriBuilder path = endpoint().path("/veglenkesekvenser/segmentert").path(Long.toString(linksequenceId));
-
-        WebTarget target = getClient().target(path);
-        return getLinks(target);
+        return getLinks(getWebTarget(linksequenceId));
     }
 
     public List<SegmentedLink> getLinks(long linksequenceId, RoadNetRequest request) {
@@ -65,6 +63,16 @@ public class SegmentedRoadNetClient extends AbstractJerseyClient {
         return getLinks(target);
     }
 
+    public Mono<List<SegmentedLink>> getLinksAsync(long linksequenceId) {
+        return JerseyHelper.executeAsync(getWebTarget(linksequenceId))
+            .map(SegmentedRoadNetClient::parseLinks);
+    }
+
+    public Mono<List<SegmentedLink>> getLinksAsync(long linksequenceId, RoadNetRequest request) {
+        return JerseyHelper.executeAsync(getWebTarget(linksequenceId, request))
+            .map(SegmentedRoadNetClient::parseLinks);
+    }
+
     public SegmentedLinkResult getLinks() {
         return getLinks(RoadNetRequest.DEFAULT);
     }
@@ -84,7 +92,10 @@ public class SegmentedRoadNetClient extends AbstractJerseyClient {
     }
 
     private List<SegmentedLink> getLinks(WebTarget target) {
-        JsonElement result = JerseyHelper.execute(target);
+        return parseLinks(JerseyHelper.execute(target));
+    }
+
+    private static List<SegmentedLink> parseLinks(JsonElement result) {
         if (result.isJsonArray()) {
             return StreamSupport.stream(result.getAsJsonArray().spliterator(), false)
                 .map(JsonElement::getAsJsonObject)
@@ -95,6 +106,10 @@ public class SegmentedRoadNetClient extends AbstractJerseyClient {
         }
     }
 
+    private WebTarget getWebTarget(long linksequenceId) {
+        return getClient().target(endpoint().path("/veglenkesekvenser/segmentert").path(Long.toString(linksequenceId)));
+    }
+
     private WebTarget getWebTarget(long linksequenceId, RoadNetRequest request) {
         return getWebTarget(request, endpoint().path("/veglenkesekvenser/segmentert").path(Long.toString(linksequenceId)));
     }
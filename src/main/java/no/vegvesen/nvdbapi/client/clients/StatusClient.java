@@ -28,6 +28,7 @@ package no.vegvesen.nvdbapi.client.clients;
 import com.google.gson.JsonObject;
 import no.vegvesen.nvdbapi.client.gson.StatusParser;
 import no.vegvesen.nvdbapi.client.model.Status;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
@@ -41,13 +42,20 @@ public class StatusClient extends AbstractJerseyClient {
     }
 
     public Status getStatus() {
-        UriBuilder url = start().path("/status");
+        JsonObject result = JerseyHelper.execute(statusTarget()).getAsJsonObject();
 
-        WebTarget target = getClient().target(url);
+        return StatusParser.parseStatus(result);
+    }
 
-        JsonObject result = JerseyHelper.execute(target).getAsJsonObject();
+    public Mono<Status> getStatusAsync() {
+        return JerseyHelper.executeAsync(statusTarget())
+            .map(result -> StatusParser.parseStatus(result.getAsJsonObject()));
+    }
 
-        return StatusParser.parseStatus(result);
+    private WebTarget statusTarget() {
+        UriBuilder url = start().path("/status");
+
+        return getClient().target(url);
     }
 
 }
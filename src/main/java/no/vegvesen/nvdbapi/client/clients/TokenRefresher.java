@@ -0,0 +1,131 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Refreshes the id token of a {@code ClientFactory} in the background, a margin before it expires.
+ * The new tokens replace the old ones atomically, so requests sent after that use them without waiting,
+ * and requests already on their way still have a valid token. Tokens that are replaced by a login or
+ * logout while they are refreshed are not overwritten.
+ */
+class TokenRefresher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRefresher.class);
+    /** How long to wait before trying again after a failed refresh. */
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final AtomicReference<Login.AuthTokens> tokens;
+    private final Function<String, Login> refresh;
+    private final Duration margin;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> next;
+
+    TokenRefresher(AtomicReference<Login.AuthTokens> tokens, Function<String, Login> refresh, Duration margin) {
+        this.tokens = tokens;
+        this.refresh = refresh;
+        this.margin = margin;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nvdb-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Plans the refresh of new tokens, and cancels the refresh of the tokens they replace.
+     * Nothing is planned for tokens without a refresh token or an id token that tells when it expires.
+     */
+    synchronized void tokensChanged(Login.AuthTokens authTokens) {
+        if (next != null) {
+            next.cancel(false);
+            next = null;
+        }
+        if (authTokens == null || authTokens.refreshToken == null || executor.isShutdown()) {
+            return;
+        }
+        Optional<Instant> expiry = expiry(authTokens.idToken);
+        if (!expiry.isPresent()) {
+            logger.debug("The id token does not tell when it expires, it is not refreshed in the background");
+            return;
+        }
+        Duration delay = Duration.between(Instant.now(), expiry.get().minus(margin));
+        schedule(authTokens, delay.isNegative() ? Duration.ZERO : delay);
+    }
+
+    private synchronized void schedule(Login.AuthTokens authTokens, Duration delay) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        next = executor.schedule(() -> refresh(authTokens), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh(Login.AuthTokens authTokens) {
+        if (tokens.get() != authTokens) {
+            return;
+        }
+        Login login = refresh.apply(authTokens.refreshToken);
+        if (login.isSuccessful()) {
+            if (tokens.compareAndSet(authTokens, login.authTokens)) {
+                logger.debug("Refreshed the id token in the background");
+                tokensChanged(login.authTokens);
+            }
+            return;
+        }
+        Optional<Instant> expiry = expiry(authTokens.idToken);
+        if (expiry.isPresent() && Instant.now().plus(RETRY_DELAY).isBefore(expiry.get())) {
+            logger.warn("Could not refresh the id token, trying again in {} s: {}",
+                RETRY_DELAY.getSeconds(), login.failure.message);
+            schedule(authTokens, RETRY_DELAY);
+        } else {
+            logger.warn("Could not refresh the id token before it expires: {}", login.failure.message);
+        }
+    }
+
+    /**
+     * @param idToken a JWT
+     * @return the time in the exp claim of the token, if it is a JWT with one
+     */
+    static Optional<Instant> expiry(String idToken) {
+        if (idToken == null) {
+            return Optional.empty();
+        }
+        String[] parts = idToken.split("\\.");
+        if (parts.length < 2) {
+            return Optional.empty();
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            JsonElement claims = JsonParser.parseString(payload);
+            if (!claims.isJsonObject()) {
+                return Optional.empty();
+            }
+            JsonObject object = claims.getAsJsonObject();
+            if (!object.has("exp") || !object.get("exp").isJsonPrimitive()) {
+                return Optional.empty();
+            }
+            return Optional.of(Instant.ofEpochSecond(object.get("exp").getAsLong()));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        executor.shutdownNow();
+    }
+}
@@ -29,6 +29,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import no.vegvesen.nvdbapi.client.gson.TransactionInfoParser;
 import no.vegvesen.nvdbapi.client.model.transaction.TransactionInfo;
+import reactor.core.publisher.Mono;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.WebTarget;
@@ -50,7 +51,15 @@ public class TransactionStatusClient extends AbstractJerseyClient {
 
     public List<TransactionInfo> getTransactions(TransactionStatusRequest request) {
         WebTarget target = setupGetTransactions(request);
-        JsonElement jsonElement = JerseyHelper.execute(target);
+        return parseTransactions(JerseyHelper.execute(target));
+    }
+
+    public Mono<List<TransactionInfo>> getTransactionsAsync(TransactionStatusRequest request) {
+        WebTarget target = setupGetTransactions(request);
+        return JerseyHelper.executeAsync(target).map(TransactionStatusClient::parseTransactions);
+    }
+
+    private static List<TransactionInfo> parseTransactions(JsonElement jsonElement) {
         JsonArray jsonArray = jsonElement.getAsJsonArray();
 
         return StreamSupport.stream(jsonArray.spliterator(), false).map(JsonElement::getAsJsonObject)
@@ -38,7 +38,7 @@ public final class AreaParser {
 
     public static Municipality parseMun(JsonObject obj) {
         String name = parseStringMember(obj, "navn");
-        int number = parseIntMember(obj, "nummer");
+        int number = parseIntValue(obj, "nummer");
         Geometry boundingBox = parseGeometry(obj, "kartutsnitt");
         Geometry centerPoint = parseGeometry(obj, "senterpunkt");
 
@@ -56,7 +56,7 @@ public final class AreaParser {
 
     public static County parseCounty(JsonObject obj) {
         String name = parseStringMember(obj, "navn");
-        int number = parseIntMember(obj, "nummer");
+        int number = parseIntValue(obj, "nummer");
         Geometry boundingBox = parseGeometry(obj, "kartutsnitt");
         Geometry centerPoint = parseGeometry(obj, "senterpunkt");
 
@@ -103,8 +103,8 @@ public final class AreaParser {
     }
 
     private static RoadObjectId parseRoadObjectId(JsonObject obj) {
-        long fid = parseLongMember(obj, "id");
-        int tid = parseIntMember(obj, "type");
+        long fid = parseLongValue(obj, "id");
+        int tid = parseIntValue(obj, "type");
         Integer version = parseIntMember(obj, "versjon");
         return new RoadObjectId(tid, fid, version);
     }
@@ -0,0 +1,121 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tells {@link StreamingRoadObjectParser} which parts of a road object to decode. The parts that are left out
+ * are skipped in the response without being parsed, and are empty or null in the road object.
+ * Parts are named by the members of the json, either a member of the road object, such as {@code relasjoner},
+ * or a member of one, such as {@code lokasjon.stedfestinger} or {@code vegsegmenter.geometri},
+ * which for an array applies to each of its elements.
+ */
+public final class DecodingPlan {
+    /** The members of a road object that the {@code inkluder} parameter of the API selects. */
+    public static final List<String> SECTIONS =
+        Collections.unmodifiableList(Arrays.asList("metadata", "egenskaper", "relasjoner", "lokasjon", "vegsegmenter", "geometri"));
+
+    private static final DecodingPlan ALL = new DecodingPlan(Collections.emptySet(), Collections.emptyMap());
+
+    private final Set<String> skipped;
+    private final Map<String, Set<String>> skippedChildren;
+
+    private DecodingPlan(Set<String> skipped, Map<String, Set<String>> skippedChildren) {
+        this.skipped = skipped;
+        this.skippedChildren = skippedChildren;
+    }
+
+    /**
+     * @return a plan that decodes all parts of the road objects
+     */
+    public static DecodingPlan all() {
+        return ALL;
+    }
+
+    /**
+     * @param sections the {@link #SECTIONS} to decode
+     * @return a plan that also skips the other sections
+     */
+    public DecodingPlan onlySections(Collection<String> sections) {
+        Set<String> without = new HashSet<>(SECTIONS);
+        without.removeAll(sections);
+        return without(without);
+    }
+
+    /**
+     * @param paths parts of the road objects, like {@code relasjoner} or {@code lokasjon.stedfestinger}
+     * @return a plan that also skips these parts
+     * @throws IllegalArgumentException if a path has more than two parts, or an empty part
+     */
+    public DecodingPlan without(Collection<String> paths) {
+        if (paths.isEmpty()) {
+            return this;
+        }
+        Set<String> skipped = new HashSet<>(this.skipped);
+        Map<String, Set<String>> skippedChildren = new HashMap<>();
+        this.skippedChildren.forEach((member, children) -> skippedChildren.put(member, new HashSet<>(children)));
+        for (String path : paths) {
+            String[] names = path.split("\\.", -1);
+            if (Arrays.asList(names).contains("")) {
+                throw new IllegalArgumentException("Empty member name in field path: " + path);
+            }
+            if (names.length == 1) {
+                skipped.add(names[0]);
+            } else if (names.length == 2) {
+                skippedChildren.computeIfAbsent(names[0], m -> new HashSet<>()).add(names[1]);
+            } else {
+                throw new IllegalArgumentException("Only members of the road objects and their members can be skipped: " + path);
+            }
+        }
+        return new DecodingPlan(skipped, skippedChildren);
+    }
+
+    public DecodingPlan without(String... paths) {
+        return without(Arrays.asList(paths));
+    }
+
+    /**
+     * @param member a member of the road object
+     * @return true if it is decoded
+     */
+    public boolean decodes(String member) {
+        return !skipped.contains(member);
+    }
+
+    /**
+     * @param member a member of the road object
+     * @param child a member of {@code member}, or of its elements if it is an array
+     * @return true if it is decoded
+     */
+    public boolean decodes(String member, String child) {
+        Set<String> children = skippedChildren.get(member);
+        return children == null || !children.contains(child);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DecodingPlan that = (DecodingPlan) o;
+        return skipped.equals(that.skipped) && skippedChildren.equals(that.skippedChildren);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * skipped.hashCode() + skippedChildren.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "DecodingPlan{" +
+            "skipped=" + skipped +
+            ", skippedChildren=" + skippedChildren +
+            '}';
+    }
+}
@@ -32,8 +32,6 @@ import no.vegvesen.nvdbapi.client.model.GeometryAttributes;
 import no.vegvesen.nvdbapi.client.model.Projection;
 import no.vegvesen.nvdbapi.client.model.Quality;
 
-import java.util.Optional;
-
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.*;
 
 public final class GeometryParser {
@@ -45,8 +43,8 @@ public final class GeometryParser {
         String wkt = parseStringMember(obj, "wkt");
         Projection srid = getNode(obj, "srid").map(GeometryParser::parseProjection).orElse(null);
 
-        boolean isSimplified = Optional.ofNullable(parseBooleanMember(obj, "forenklet")).orElse(false);
-        boolean isOwnGeometry = Optional.ofNullable(parseBooleanMember(obj, "egengeometri")).orElse(false);
+        boolean isSimplified = parseBooleanValue(obj, "forenklet", false);
+        boolean isOwnGeometry = parseBooleanValue(obj, "egengeometri", false);
 
         GeometryAttributes geometryAttributes = getGeometryAttributes(obj);
 
@@ -27,7 +27,6 @@ package no.vegvesen.nvdbapi.client.gson;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.lang.annotation.Annotation;
@@ -43,6 +42,7 @@ import javax.ws.rs.ext.Provider;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import no.vegvesen.nvdbapi.client.JsonEngine;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -52,8 +52,20 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class GsonMessageBodyHandler implements MessageBodyWriter<Object>,
         MessageBodyReader<Object> {
 
+    private final JsonEngine jsonEngine;
     private Gson gson;
 
+    public GsonMessageBodyHandler() {
+        this(JsonEngine.gson());
+    }
+
+    /**
+     * @param jsonEngine reads the json of the responses
+     */
+    public GsonMessageBodyHandler(JsonEngine jsonEngine) {
+        this.jsonEngine = jsonEngine;
+    }
+
     private Gson getGson() {
         if (gson == null) {
             final GsonBuilder gsonBuilder = new GsonBuilder();
@@ -72,7 +84,9 @@ public class GsonMessageBodyHandler implements MessageBodyWriter<Object>,
     public Object readFrom(Class<Object> type, Type type1, Annotation[] antns,
                            MediaType mt, MultivaluedMap<String, String> mm, InputStream in)
             throws IOException, WebApplicationException {
-        try (InputStreamReader streamReader = new InputStreamReader(in, UTF_8)) {
+        // The tree is read by the engine, and bound by Gson, since the type adapters of Gson,
+        // like the one for maps, only work on Gson's own readers
+        try (InputStream stream = in) {
             Type jsonType;
             if (type.equals(type1)) {
                 jsonType = type;
@@ -80,7 +94,7 @@ public class GsonMessageBodyHandler implements MessageBodyWriter<Object>,
             else {
                 jsonType = type1;
             }
-            return getGson().fromJson(streamReader, jsonType);
+            return getGson().fromJson(jsonEngine.readTree(stream), jsonType);
         }
     }
 
@@ -29,11 +29,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -47,12 +49,14 @@ import no.vegvesen.nvdbapi.client.model.datakatalog.JavaType;
 import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.RoadSysRef;
 import no.vegvesen.nvdbapi.client.util.Strings;
 
-import static java.util.stream.Collectors.toList;
-
 public final class GsonUtil {
 
     private static final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /** Far more than the paths of the parsers, which are the ones worth keeping. */
+    private static final int MAX_COMPILED_PATHS = 512;
+    private static final Map<String, String[]> compiledPaths = new ConcurrentHashMap<>();
 
     private GsonUtil() {}
 
@@ -65,25 +69,50 @@ public final class GsonUtil {
     }
 
     public static Double parseDoubleMember(JsonObject obj, String path) {
-        return getNode(obj, path).map(JsonElement::getAsDouble).orElse(null);
+        JsonElement e = resolve(obj, path);
+        return e == null ? null : e.getAsDouble();
+    }
+
+    /**
+     * @return the number at the path, without boxing it
+     * @throws IllegalArgumentException if there is no value at the path
+     */
+    public static double parseDoubleValue(JsonObject obj, String path) {
+        return required(resolve(obj, path), path).getAsDouble();
     }
 
     public static Integer parseIntMember(JsonObject obj, String path) {
-        Optional<JsonPrimitive> e = parseNodeToJsonPrimitive(obj, path);
-        return e.map(JsonElement::getAsInt).orElse(null);
+        JsonPrimitive e = parseNodeToJsonPrimitive(obj, path);
+        return e == null ? null : e.getAsInt();
+    }
+
+    /**
+     * @return the number at the path, without boxing it
+     * @throws IllegalArgumentException if there is no number at the path
+     */
+    public static int parseIntValue(JsonObject obj, String path) {
+        return required(parseNodeToJsonPrimitive(obj, path), path).getAsInt();
     }
 
     public static Long parseLongMember(JsonObject obj, String path) {
-        Optional<JsonPrimitive> e = parseNodeToJsonPrimitive(obj, path);
-        return e.map(JsonElement::getAsLong).orElse(null);
+        JsonPrimitive e = parseNodeToJsonPrimitive(obj, path);
+        return e == null ? null : e.getAsLong();
+    }
+
+    /**
+     * @return the number at the path, without boxing it
+     * @throws IllegalArgumentException if there is no number at the path
+     */
+    public static long parseLongValue(JsonObject obj, String path) {
+        return required(parseNodeToJsonPrimitive(obj, path), path).getAsLong();
     }
 
     public static String parseStringMember(JsonObject obj, String path) {
-        Optional<JsonPrimitive> e = getNode(obj, path).map(JsonElement::getAsJsonPrimitive);
-        if (e.isPresent() && !e.get().isString()) {
+        JsonPrimitive e = primitive(obj, path);
+        if (e != null && !e.isString()) {
             throw new IllegalArgumentException(path + " did not contain a string.");
         }
-        return e.map(JsonElement::getAsString).orElse(null);
+        return e == null ? null : e.getAsString();
     }
 
     public static <T> Stream<T> parseList(JsonObject obj, String path, Function<JsonElement, T> map){
@@ -95,33 +124,47 @@ public final class GsonUtil {
     }
 
     public static Optional<String> parseOptionalStringMember(JsonObject obj, String path) {
-        return getNode(obj, path)
-            .map(JsonElement::getAsJsonPrimitive)
-            .filter(JsonPrimitive::isString)
-            .map(JsonElement::getAsString);
+        JsonPrimitive e = primitive(obj, path);
+        return e != null && e.isString() ? Optional.of(e.getAsString()) : Optional.empty();
     }
 
     public static Boolean parseBooleanMember(JsonObject obj, String path) {
-        Optional<JsonPrimitive> e = getNode(obj, path).map(JsonElement::getAsJsonPrimitive);
-        if (e.isPresent() && !e.get().isBoolean()) {
+        JsonPrimitive e = primitive(obj, path);
+        if (e != null && !e.isBoolean()) {
             throw new IllegalArgumentException(path + " did not contain a boolean.");
         }
-        return e.map(JsonElement::getAsBoolean).orElse(null);
+        return e == null ? null : e.getAsBoolean();
+    }
+
+    /**
+     * @return the boolean at the path, or {@code defaultValue} if there is none
+     */
+    public static boolean parseBooleanValue(JsonObject obj, String path, boolean defaultValue) {
+        Boolean value = parseBooleanMember(obj, path);
+        return value == null ? defaultValue : value;
     }
 
     public static LocalDateTime parseDateTimeMember(JsonObject obj, String path) {
-        return Optional.ofNullable(parseStringMember(obj, path))
-            .map(v -> v.contains("T") ? LocalDateTime.parse(v) : dateTimeFormatter.parse(v, LocalDateTime::from))
-            .orElse(null);
+        String value = parseStringMember(obj, path);
+        return value == null ? null : parseDateTime(value);
+    }
+
+    static LocalDateTime parseDateTime(String value) {
+        return value.contains("T") ? LocalDateTime.parse(value) : dateTimeFormatter.parse(value, LocalDateTime::from);
+    }
+
+    static LocalDate parseDate(String value) {
+        return LocalDate.parse(value, dateFormatter);
     }
 
     public static LocalDate parseDateMember(JsonObject obj, String path) {
-        return parseDateMember(obj, path, "yyyy-MM-dd");
+        String value = parseStringMember(obj, path);
+        return value == null ? null : parseDate(value);
     }
 
     public static LocalTime parseTimeMember(JsonObject obj, String path) {
-        return Optional.ofNullable(parseStringMember(obj, path))
-            .map(v -> LocalTime.parse(v, timeFormatter)).orElse(null);
+        String value = parseStringMember(obj, path);
+        return value == null ? null : LocalTime.parse(value, timeFormatter);
     }
 
     public static LocalDate parseDateMember(JsonObject obj, String path, String pattern) {
@@ -131,33 +174,39 @@ public final class GsonUtil {
     }
 
     public static List<String> parseStringListMember(JsonObject obj, String path) {
-        return getNode(obj, path)
-            .map(JsonElement::getAsJsonArray)
-            .map(a -> StreamSupport.stream(a.spliterator(), false)
-                .map(JsonElement::getAsString)
-                .collect(Collectors.toList()))
-            .orElse(Collections.emptyList());
-
+        JsonElement e = resolve(obj, path);
+        if (e == null) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        for (JsonElement value : e.getAsJsonArray()) {
+            values.add(value.getAsString());
+        }
+        return values;
     }
 
     public static List<Integer> parseIntListMember(JsonObject obj, String path) {
-        return getNode(obj, path)
-            .map(JsonElement::getAsJsonArray)
-            .map(a -> StreamSupport.stream(a.spliterator(), false)
-                .map(JsonElement::getAsInt)
-                .collect(Collectors.toList()))
-            .orElse(Collections.emptyList());
-
+        JsonElement e = resolve(obj, path);
+        if (e == null) {
+            return Collections.emptyList();
+        }
+        List<Integer> values = new ArrayList<>();
+        for (JsonElement value : e.getAsJsonArray()) {
+            values.add(value.getAsInt());
+        }
+        return values;
     }
 
     public static List<Long> parseLongListMember(JsonObject obj, String path) {
-        return getNode(obj, path)
-            .map(JsonElement::getAsJsonArray)
-            .map(a -> StreamSupport.stream(a.spliterator(), false)
-                .map(JsonElement::getAsLong)
-                .collect(Collectors.toList()))
-            .orElse(null);
-
+        JsonElement e = resolve(obj, path);
+        if (e == null) {
+            return null;
+        }
+        List<Long> values = new ArrayList<>();
+        for (JsonElement value : e.getAsJsonArray()) {
+            values.add(value.getAsLong());
+        }
+        return values;
     }
 
     public static Object parseAttributeValue(JsonObject obj, String path, JavaType datatype) {
@@ -182,24 +231,57 @@ public final class GsonUtil {
     }
 
     public static Optional<JsonElement> getNode(JsonObject start, String path) {
-        Optional<JsonElement> temp = Optional.ofNullable(start);
+        return Optional.ofNullable(resolve(start, path));
+    }
 
-        String[] elements = path.split("\\.");
-        for (String p : elements) {
-            if (!temp.isPresent()) {
-                return temp;
+    /**
+     * @return the element at the path, or null if it, or an object on the way to it, is missing or null
+     */
+    private static JsonElement resolve(JsonObject start, String path) {
+        if (start == null) {
+            return null;
+        }
+        JsonElement e = start;
+        for (String name : compile(path)) {
+            if (!e.isJsonObject()) {
+                throw new RuntimeException("Node " + name + "is not an object!");
+            }
+            e = e.getAsJsonObject().get(name);
+            if (e == null || e.isJsonNull()) {
+                return null;
             }
+        }
+        return e;
+    }
 
-            if (!temp.get().isJsonObject()) {
-                throw new RuntimeException("Node " + p + "is not an object!");
+    /**
+     * The parsers use a fixed set of paths, so each path is split into its names once, and then looked up.
+     * Once the cache is full, other paths, such as those built by callers, are split on every call.
+     */
+    private static String[] compile(String path) {
+        String[] names = compiledPaths.get(path);
+        if (names == null) {
+            names = split(path);
+            if (compiledPaths.size() < MAX_COMPILED_PATHS) {
+                compiledPaths.putIfAbsent(path, names);
             }
+        }
+        return names;
+    }
 
+    static int compiledPathCount() {
+        return compiledPaths.size();
+    }
 
-            temp = temp.map(JsonElement::getAsJsonObject)
-                .map(o -> o.get(p))
-                .filter(o -> !o.isJsonNull());
+    private static String[] split(String path) {
+        List<String> names = new ArrayList<>();
+        int start = 0;
+        for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', start)) {
+            names.add(path.substring(start, dot));
+            start = dot + 1;
         }
-        return temp;
+        names.add(path.substring(start));
+        return names.toArray(new String[0]);
     }
 
     public static Optional<JsonArray> getArray(JsonObject node, String path) {
@@ -207,13 +289,15 @@ public final class GsonUtil {
     }
 
     public static <T> List<T> parseArray(JsonObject obj, String path, Function<JsonObject, T> parser) {
-        return getArray(obj, path)
-            .map(array ->
-                StreamSupport.stream(array.spliterator(), false)
-                    .map(JsonElement::getAsJsonObject)
-                    .map(parser)
-                    .collect(toList()))
-            .orElseGet(Collections::emptyList);
+        JsonElement e = resolve(obj, path);
+        if (e == null) {
+            return Collections.emptyList();
+        }
+        List<T> values = new ArrayList<>();
+        for (JsonElement value : e.getAsJsonArray()) {
+            values.add(parser.apply(value.getAsJsonObject()));
+        }
+        return values;
     }
 
     public static Geometry parseGeometryMember(JsonObject obj, String path) {
@@ -242,11 +326,23 @@ public final class GsonUtil {
         };
     }
 
-    private static Optional<JsonPrimitive> parseNodeToJsonPrimitive(JsonObject obj, String path) {
-        Optional<JsonPrimitive> jsonElement = getNode(obj, path).map(JsonElement::getAsJsonPrimitive);
-        if (jsonElement.isPresent() && !jsonElement.get().isNumber()) {
+    private static JsonPrimitive primitive(JsonObject obj, String path) {
+        JsonElement e = resolve(obj, path);
+        return e == null ? null : e.getAsJsonPrimitive();
+    }
+
+    private static JsonPrimitive parseNodeToJsonPrimitive(JsonObject obj, String path) {
+        JsonPrimitive jsonElement = primitive(obj, path);
+        if (jsonElement != null && !jsonElement.isNumber()) {
             throw new IllegalArgumentException(path + " did not contain a number.");
         }
         return jsonElement;
     }
+
+    private static <T extends JsonElement> T required(T e, String path) {
+        if (e == null) {
+            throw new IllegalArgumentException(path + " is missing.");
+        }
+        return e;
+    }
 }
@@ -0,0 +1,88 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonReader;
+import no.vegvesen.nvdbapi.client.JsonEngine;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the json with Jackson, straight from the UTF-8 bytes of the response. Whole responses are built
+ * into trees straight from the tokens of Jackson, and the streaming parsers get the tokens through a
+ * {@link JsonReader}. The trees and readers behave like those of Gson, so the parsers make the same models
+ * with either engine.
+ */
+public final class JacksonJsonEngine implements JsonEngine {
+    private final JsonFactory factory = new JsonFactory();
+
+    @Override
+    public JsonReader newReader(InputStream in) throws IOException {
+        return new JacksonJsonReader(factory.createParser(in));
+    }
+
+    @Override
+    public JsonElement readTree(InputStream in) throws IOException {
+        JsonParser parser = factory.createParser(in);
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return JsonNull.INSTANCE;
+        }
+        JsonElement json = read(parser, token);
+        if (parser.nextToken() != null) {
+            throw new JsonSyntaxException("Did not consume the entire document.");
+        }
+        return json;
+    }
+
+    /**
+     * Numbers are kept as they are written in the json, like Gson does.
+     */
+    private static JsonElement read(JsonParser parser, JsonToken token) throws IOException {
+        if (token == null) {
+            throw new EOFException("End of input at " + parser.getCurrentLocation());
+        }
+        switch (token) {
+            case START_OBJECT:
+                JsonObject object = new JsonObject();
+                for (String name = parser.nextFieldName(); name != null; name = parser.nextFieldName()) {
+                    object.add(name, read(parser, parser.nextToken()));
+                }
+                return object;
+            case START_ARRAY:
+                JsonArray array = new JsonArray();
+                for (JsonToken next = parser.nextToken(); next != JsonToken.END_ARRAY; next = parser.nextToken()) {
+                    array.add(read(parser, next));
+                }
+                return array;
+            case VALUE_STRING:
+                return new JsonPrimitive(parser.getText());
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return new JsonPrimitive(new LazilyParsedNumber(parser.getText()));
+            case VALUE_TRUE:
+                return new JsonPrimitive(true);
+            case VALUE_FALSE:
+                return new JsonPrimitive(false);
+            case VALUE_NULL:
+                return JsonNull.INSTANCE;
+            default:
+                throw new JsonSyntaxException("Unexpected token " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "JacksonJsonEngine";
+    }
+}
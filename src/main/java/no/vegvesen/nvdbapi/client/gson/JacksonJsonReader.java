@@ -0,0 +1,277 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * A {@link JsonReader} that takes its tokens from a Jackson {@link JsonParser}, like Gson's own tree reader
+ * takes them from a tree. The reader Gson is given is never read.
+ * Numbers are read and converted like Gson does, so {@code nextString} gives the number as it is written
+ * in the json, and the trees built from the reader are equal to those of Gson.
+ */
+final class JacksonJsonReader extends JsonReader {
+    private final JsonParser parser;
+    /** The next token, which is not consumed yet. Only valid when {@code fetched}. */
+    private com.fasterxml.jackson.core.JsonToken current;
+    private boolean fetched;
+    private boolean started;
+
+    JacksonJsonReader(JsonParser parser) {
+        super(new StringReader(""));
+        this.parser = parser;
+    }
+
+    private com.fasterxml.jackson.core.JsonToken token() throws IOException {
+        if (!fetched) {
+            current = parser.nextToken();
+            fetched = true;
+            if (current == null && !started) {
+                throw new EOFException("End of input" + location());
+            }
+            started = true;
+        }
+        return current;
+    }
+
+    private void consume() {
+        fetched = false;
+    }
+
+    private void expect(JsonToken expected) throws IOException {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw new IllegalStateException("Expected " + expected + " but was " + token + location());
+        }
+        consume();
+    }
+
+    private IllegalStateException unexpected(String expected) throws IOException {
+        return new IllegalStateException("Expected " + expected + " but was " + peek() + location());
+    }
+
+    @Override
+    public void beginArray() throws IOException {
+        expect(JsonToken.BEGIN_ARRAY);
+    }
+
+    @Override
+    public void endArray() throws IOException {
+        expect(JsonToken.END_ARRAY);
+    }
+
+    @Override
+    public void beginObject() throws IOException {
+        expect(JsonToken.BEGIN_OBJECT);
+    }
+
+    @Override
+    public void endObject() throws IOException {
+        expect(JsonToken.END_OBJECT);
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+        com.fasterxml.jackson.core.JsonToken token = token();
+        return token != null
+            && token != com.fasterxml.jackson.core.JsonToken.END_OBJECT
+            && token != com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+    }
+
+    @Override
+    public JsonToken peek() throws IOException {
+        com.fasterxml.jackson.core.JsonToken token = token();
+        if (token == null) {
+            return JsonToken.END_DOCUMENT;
+        }
+        switch (token) {
+            case START_OBJECT:
+                return JsonToken.BEGIN_OBJECT;
+            case END_OBJECT:
+                return JsonToken.END_OBJECT;
+            case START_ARRAY:
+                return JsonToken.BEGIN_ARRAY;
+            case END_ARRAY:
+                return JsonToken.END_ARRAY;
+            case FIELD_NAME:
+                return JsonToken.NAME;
+            case VALUE_STRING:
+                return JsonToken.STRING;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return JsonToken.NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return JsonToken.BOOLEAN;
+            case VALUE_NULL:
+                return JsonToken.NULL;
+            default:
+                throw new MalformedJsonException("Unexpected token " + token + location());
+        }
+    }
+
+    @Override
+    public String nextName() throws IOException {
+        if (peek() != JsonToken.NAME) {
+            throw unexpected("a name");
+        }
+        String name = parser.getCurrentName();
+        consume();
+        return name;
+    }
+
+    @Override
+    public String nextString() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw unexpected("a string");
+        }
+        String text = parser.getText();
+        consume();
+        return text;
+    }
+
+    @Override
+    public boolean nextBoolean() throws IOException {
+        if (peek() != JsonToken.BOOLEAN) {
+            throw unexpected("a boolean");
+        }
+        boolean value = current == com.fasterxml.jackson.core.JsonToken.VALUE_TRUE;
+        consume();
+        return value;
+    }
+
+    @Override
+    public void nextNull() throws IOException {
+        if (peek() != JsonToken.NULL) {
+            throw unexpected("null");
+        }
+        consume();
+    }
+
+    @Override
+    public double nextDouble() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw unexpected("a double");
+        }
+        // Jackson reads the integer -0 as 0.0, Gson as -0.0
+        double value = current == com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_FLOAT
+            ? parser.getDoubleValue()
+            : Double.parseDouble(parser.getText());
+        if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+            throw new MalformedJsonException("JSON forbids NaN and infinities: " + value + location());
+        }
+        consume();
+        return value;
+    }
+
+    @Override
+    public long nextLong() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw unexpected("a long");
+        }
+        long value;
+        if (current == com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT
+            && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+            value = parser.getLongValue();
+        } else {
+            value = parseLong(parser.getText());
+        }
+        consume();
+        return value;
+    }
+
+    @Override
+    public int nextInt() throws IOException {
+        JsonToken token = peek();
+        if (token != JsonToken.STRING && token != JsonToken.NUMBER) {
+            throw unexpected("an int");
+        }
+        int value;
+        if (current == com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT
+            && parser.getNumberType() == JsonParser.NumberType.INT) {
+            value = parser.getIntValue();
+        } else {
+            value = parseInt(parser.getText());
+        }
+        consume();
+        return value;
+    }
+
+    /**
+     * Like Gson, numbers that are not integers, or too large, are read as doubles, and accepted if the double
+     * is a whole number that fits.
+     */
+    private static long parseLong(String text) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            double value = Double.parseDouble(text);
+            long result = (long) value;
+            if (result != value) {
+                throw new NumberFormatException("Expected a long but was " + text);
+            }
+            return result;
+        }
+    }
+
+    private static int parseInt(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            double value = Double.parseDouble(text);
+            int result = (int) value;
+            if (result != value) {
+                throw new NumberFormatException("Expected an int but was " + text);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void skipValue() throws IOException {
+        com.fasterxml.jackson.core.JsonToken token = token();
+        if (token == com.fasterxml.jackson.core.JsonToken.START_OBJECT
+            || token == com.fasterxml.jackson.core.JsonToken.START_ARRAY) {
+            parser.skipChildren();
+        }
+        consume();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    @Override
+    public String getPath() {
+        StringBuilder path = new StringBuilder();
+        for (JsonStreamContext context = parser.getParsingContext(); !context.inRoot(); context = context.getParent()) {
+            if (context.inArray()) {
+                path.insert(0, "[" + Math.max(context.getCurrentIndex(), 0) + "]");
+            } else if (context.getCurrentName() != null) {
+                path.insert(0, "." + context.getCurrentName());
+            }
+        }
+        return path.insert(0, "$").toString();
+    }
+
+    private String location() {
+        JsonLocation location = parser.getCurrentLocation();
+        return " at line " + location.getLineNr() + " column " + location.getColumnNr() + " path " + getPath();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + location();
+    }
+}
@@ -45,7 +45,9 @@ import no.vegvesen.nvdbapi.client.model.roadobjects.TurnExtentPlacement;
 import static java.util.Objects.isNull;
 
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseLongMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseLongValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseStringListMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseStringMember;
 
@@ -106,14 +108,14 @@ public final class PlacementParser {
                                                                       String endPosField) {
         if (isNull(obj)) return null;
 
-        long netElementId = parseLongMember(obj, "veglenkesekvensid");
+        long netElementId = parseLongValue(obj, "veglenkesekvensid");
 
         double startPos, endPos;
         if (obj.has("relativPosisjon")) {
-            startPos = endPos = parseDoubleMember(obj, "relativPosisjon");
+            startPos = endPos = parseDoubleValue(obj, "relativPosisjon");
         } else {
-            startPos = parseDoubleMember(obj, startPosField);
-            endPos = parseDoubleMember(obj, endPosField);
+            startPos = parseDoubleValue(obj, startPosField);
+            endPos = parseDoubleValue(obj, endPosField);
         }
 
         Direction dir = Optional.ofNullable(parseStringMember(obj, "retning"))
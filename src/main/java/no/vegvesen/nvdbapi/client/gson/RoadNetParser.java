@@ -42,8 +42,10 @@ import static java.util.stream.Collectors.toList;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseBooleanMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDateMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseIntMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseLongMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseLongValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseStringMember;
 
 public final class RoadNetParser {
@@ -53,11 +55,11 @@ public final class RoadNetParser {
     public static LinkSequence parseLinkSequence(JsonObject obj){
         if(obj==null) return null;
 
-        long id = parseLongMember(obj, "veglenkesekvensid");
+        long id = parseLongValue(obj, "veglenkesekvensid");
         List<Port> ports = parsePorts(obj.getAsJsonArray("porter"));
         List<Link> links = parseLinkPorts(obj.getAsJsonArray("veglenker"));
 
-        double length = parseDoubleMember(obj, "lengde");
+        double length = parseDoubleValue(obj, "lengde");
         boolean fixedLength = parseBooleanMember(obj, "låst_lengde");
         return new LinkSequence(id, ports, links, length, fixedLength);
     }
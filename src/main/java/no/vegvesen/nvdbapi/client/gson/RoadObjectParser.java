@@ -76,9 +76,12 @@ import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseBooleanMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDateMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDateTimeMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseIntListMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseIntMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseIntValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseLongMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseLongValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseStringListMember;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseStringMember;
 
@@ -253,11 +256,11 @@ public final class RoadObjectParser {
         Double length = parseDoubleMember(obj, "lengde");
 
         boolean isPoint = obj.has("relativPosisjon");
-        double startPos = isPoint ? parseDoubleMember(obj, "relativPosisjon") : parseDoubleMember(obj, "startposisjon");
-        double endPos   = isPoint ? startPos : parseDoubleMember(obj, "sluttposisjon");
+        double startPos = isPoint ? parseDoubleValue(obj, "relativPosisjon") : parseDoubleValue(obj, "startposisjon");
+        double endPos   = isPoint ? startPos : parseDoubleValue(obj, "sluttposisjon");
 
         Segment segment = new Segment(
-            parseLongMember(obj, "veglenkesekvensid"),
+            parseLongValue(obj, "veglenkesekvensid"),
             startPos,
             endPos,
             Direction.from(parseStringMember(obj, "retning")),
@@ -384,8 +387,8 @@ public final class RoadObjectParser {
     }
 
     public static Statistics parseStatistics(JsonObject obj) {
-        int numFound = parseIntMember(obj, "antall");
-        double length = parseDoubleMember(obj, "lengde");
+        int numFound = parseIntValue(obj, "antall");
+        double length = parseDoubleValue(obj, "lengde");
 
         return new Statistics(numFound, length);
     }
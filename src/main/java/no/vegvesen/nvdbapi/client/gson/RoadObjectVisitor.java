@@ -0,0 +1,65 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import no.vegvesen.nvdbapi.client.model.Projection;
+import no.vegvesen.nvdbapi.client.model.roadobjects.Segment;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.Attribute;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Receives the parts of one road object as it is read from the response, to build a model of its own
+ * instead of a {@code RoadObject}. Parts the visitor does not ask for are skipped without being parsed.
+ * The parts come in the order they have in the response, and {@link #end()} is called last.
+ * @param <T> what the visitor makes of the road object
+ */
+public interface RoadObjectVisitor<T> {
+
+    default void id(long id) {}
+
+    /**
+     * @return true to get the {@link #metadata} of the road object
+     */
+    default boolean visitsMetadata() {
+        return false;
+    }
+
+    default void metadata(Integer typeId,
+                          Integer version,
+                          LocalDate startDate,
+                          LocalDate endDate,
+                          LocalDateTime lastModified) {}
+
+    /**
+     * @param attributeTypeId the id of the attribute type
+     * @return true to get the attributes of this type as {@link #attribute} calls
+     */
+    default boolean visitsAttribute(int attributeTypeId) {
+        return false;
+    }
+
+    default void attribute(Attribute attribute) {}
+
+    /**
+     * @return true to get the segments of the road object as {@link #segment} calls
+     */
+    default boolean visitsSegments() {
+        return false;
+    }
+
+    default void segment(Segment segment) {}
+
+    /**
+     * @return true to get the {@link #geometry} of the road object
+     */
+    default boolean visitsGeometry() {
+        return false;
+    }
+
+    default void geometry(String wkt, Projection projection) {}
+
+    /**
+     * @return the model of the road object
+     */
+    T end();
+}
@@ -46,11 +46,11 @@ public final class SegmentedLinkParser {
 
     public static SegmentedLink parse(JsonObject obj) {
         return new SegmentedLink(
-                parseLongMember(obj, "veglenkesekvensid"),
-                parseDoubleMember(obj, "startposisjon"),
-                parseDoubleMember(obj, "sluttposisjon"),
-                parseIntMember(obj, "veglenkenummer"),
-                parseIntMember(obj, "segmentnummer"),
+                parseLongValue(obj, "veglenkesekvensid"),
+                parseDoubleValue(obj, "startposisjon"),
+                parseDoubleValue(obj, "sluttposisjon"),
+                parseIntValue(obj, "veglenkenummer"),
+                parseIntValue(obj, "segmentnummer"),
                 DetailLevel.fromTextValue(parseStringMember(obj, "detaljnivå")),
                 TopologyLevel.fromValue(parseStringMember(obj, "topologinivå")),
                 TypeOfRoad.fromTextValue(parseStringMember(obj, "typeVeg")),
@@ -62,7 +62,7 @@ public final class SegmentedLinkParser {
                 parseIntMember(obj, "fylke"),
                 parseIntMember(obj, "kommune"),
                 GsonUtil.parseGeometryMember(obj, "geometri"),
-                parseDoubleMember(obj, "lengde"),
+                parseDoubleValue(obj, "lengde"),
                 GsonUtil.parseRoadSysRefMember(obj, "vegsystemreferanse"),
                 RefLinkPartType.fromValue(parseStringMember(obj,"type")),
                 parseContractAreas(obj),
@@ -83,8 +83,8 @@ public final class SegmentedLinkParser {
         if(superLinkId != null) {
             return new RefLinkExtentPlacement(
                 superLinkId,
-                parseDoubleMember(obj, "superstedfesting.startposisjon"),
-                parseDoubleMember(obj, "superstedfesting.sluttposisjon"),
+                parseDoubleValue(obj, "superstedfesting.startposisjon"),
+                parseDoubleValue(obj, "superstedfesting.sluttposisjon"),
                 parseOptionalStringMember(obj, "superstedfesting.retning").map(Direction::from).orElse(null),
                 parseOptionalStringMember(obj, "superstedfesting.sideposisjon").map(SidePosition::from).orElse(null),
                 parseStringListMember(obj, "superstedfesting.kjørefelt")
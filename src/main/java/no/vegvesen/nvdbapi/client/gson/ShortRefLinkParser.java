@@ -28,16 +28,16 @@ package no.vegvesen.nvdbapi.client.gson;
 import com.google.gson.JsonObject;
 import no.vegvesen.nvdbapi.client.model.RefLinkPosition;
 
-import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleMember;
-import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseIntMember;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseDoubleValue;
+import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseIntValue;
 import static no.vegvesen.nvdbapi.client.gson.GsonUtil.parseStringMember;
 
 public final class ShortRefLinkParser {
     private ShortRefLinkParser() {}
 
     public static RefLinkPosition parseShortRefLink(JsonObject reflink) {
-        int id = parseIntMember(reflink, "veglenkesekvensid");
-        double position = parseDoubleMember(reflink, "relativPosisjon");
+        int id = parseIntValue(reflink, "veglenkesekvensid");
+        double position = parseDoubleValue(reflink, "relativPosisjon");
         String shortName = parseStringMember(reflink, "kortform");
 
         return new RefLinkPosition(id, position, shortName);
@@ -0,0 +1,27 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import com.google.gson.JsonObject;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Reads one object from a {@link JsonReader}, positioned at the start of the object, and leaves the reader
+ * after the end of it.
+ * @param <T> the type of the objects read
+ */
+@FunctionalInterface
+public interface StreamingParser<T> {
+
+    T parse(JsonReader reader) throws IOException;
+
+    /**
+     * @param parser a parser of json trees
+     * @return a parser that reads the object into a tree, and then parses the tree
+     */
+    static <T> StreamingParser<T> fromTree(Function<JsonObject, T> parser) {
+        return reader -> parser.apply(Streams.parse(reader).getAsJsonObject());
+    }
+}
@@ -0,0 +1,1480 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import com.google.gson.internal.LazilyParsedNumber;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import no.vegvesen.nvdbapi.client.model.Direction;
+import no.vegvesen.nvdbapi.client.model.Geometry;
+import no.vegvesen.nvdbapi.client.model.GeometryAttributes;
+import no.vegvesen.nvdbapi.client.model.Projection;
+import no.vegvesen.nvdbapi.client.model.Quality;
+import no.vegvesen.nvdbapi.client.model.SidePosition;
+import no.vegvesen.nvdbapi.client.model.areas.ContractArea;
+import no.vegvesen.nvdbapi.client.model.areas.RoadObjectId;
+import no.vegvesen.nvdbapi.client.model.areas.Route;
+import no.vegvesen.nvdbapi.client.model.areas.Street;
+import no.vegvesen.nvdbapi.client.model.datakatalog.Unit;
+import no.vegvesen.nvdbapi.client.model.roadnet.DetailLevel;
+import no.vegvesen.nvdbapi.client.model.roadnet.RefLinkPartType;
+import no.vegvesen.nvdbapi.client.model.roadnet.RoadUserGroup;
+import no.vegvesen.nvdbapi.client.model.roadnet.SeparatePassages;
+import no.vegvesen.nvdbapi.client.model.roadnet.TypeOfRoad;
+import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.Intersection;
+import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.Phase;
+import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.RoadCategory;
+import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.RoadSysRef;
+import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.RoadSystem;
+import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.Section;
+import no.vegvesen.nvdbapi.client.model.roadnet.roadsysref.SideArea;
+import no.vegvesen.nvdbapi.client.model.roadobjects.Association;
+import no.vegvesen.nvdbapi.client.model.roadobjects.ElvegSegment;
+import no.vegvesen.nvdbapi.client.model.roadobjects.Location;
+import no.vegvesen.nvdbapi.client.model.roadobjects.Placement;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RefLinkExtentPlacement;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
+import no.vegvesen.nvdbapi.client.model.roadobjects.Segment;
+import no.vegvesen.nvdbapi.client.model.roadobjects.TurnExtentPlacement;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.AssociationAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.Attribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.BlobAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.BooleanAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.DateAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.IntegerAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.IntegerEnumAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.ListAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.RealAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.RealEnumAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.ReflinkExtentAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.ShortDateAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.SpatialAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.StringAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.StringEnumAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.StructAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.TimeAttribute;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.TurnExtent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Parses road objects straight from a {@link JsonReader}, without building a tree of the json first.
+ * The road objects are the same as the ones {@link RoadObjectParser} makes of the same json.
+ */
+public final class StreamingRoadObjectParser {
+    private StreamingRoadObjectParser() {}
+
+    public static RoadObject parse(JsonReader reader) throws IOException {
+        return parse(reader, DecodingPlan.all());
+    }
+
+    /**
+     * @param plan the parts of the road object to decode, the other parts are skipped
+     */
+    public static RoadObject parse(JsonReader reader, DecodingPlan plan) throws IOException {
+        Integer id = null;
+        Metadata metadata = new Metadata();
+        List<Attribute> attributes = Collections.emptyList();
+        List<Association> children = Collections.emptyList();
+        List<Association> parents = Collections.emptyList();
+        Location location = null;
+        Geometry geometry = null;
+        List<Segment> segments = Collections.emptyList();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!plan.decodes(name)) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    id = readInt(reader);
+                    break;
+                case "metadata":
+                    metadata.read(reader);
+                    break;
+                case "egenskaper":
+                    attributes = readAttributes(reader);
+                    break;
+                case "relasjoner":
+                    if (skipNull(reader)) {
+                        break;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String relation = reader.nextName();
+                        if (!plan.decodes(name, relation)) {
+                            reader.skipValue();
+                            continue;
+                        }
+                        switch (relation) {
+                            case "barn":
+                                children = readAssociations(reader);
+                                break;
+                            case "foreldre":
+                                parents = readAssociations(reader);
+                                break;
+                            default:
+                                reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                case "lokasjon":
+                    location = parseLocation(reader, plan);
+                    break;
+                case "geometri":
+                    geometry = readGeometry(reader);
+                    break;
+                case "vegsegmenter":
+                    segments = readSegments(reader, plan);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new RoadObject(id, metadata.typeId, metadata.version, metadata.startDate, metadata.endDate, segments,
+            location, geometry, metadata.lastModified, attributes, children, parents);
+    }
+
+    /**
+     * @param plan the parts of the road objects to decode
+     * @return a parser that skips the other parts
+     */
+    public static StreamingParser<RoadObject> parser(DecodingPlan plan) {
+        return reader -> parse(reader, plan);
+    }
+
+    /**
+     * @param visitors makes a visitor for each road object
+     * @return a parser that gives the parts of each road object to a visitor, and returns what it makes of them
+     */
+    public static <T> StreamingParser<T> visiting(Supplier<? extends RoadObjectVisitor<T>> visitors) {
+        return reader -> visit(reader, visitors.get());
+    }
+
+    /**
+     * Reads one road object, and gives the parts the visitor asks for to it. The other parts are skipped.
+     * @return what the visitor made of the road object
+     */
+    public static <T> T visit(JsonReader reader, RoadObjectVisitor<T> visitor) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    Long id = readLong(reader);
+                    if (id != null) {
+                        visitor.id(id);
+                    }
+                    break;
+                case "metadata":
+                    if (visitor.visitsMetadata()) {
+                        Metadata metadata = new Metadata();
+                        metadata.read(reader);
+                        visitor.metadata(metadata.typeId, metadata.version, metadata.startDate, metadata.endDate,
+                            metadata.lastModified);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "egenskaper":
+                    if (skipNull(reader)) {
+                        break;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        visitAttribute(reader, visitor);
+                    }
+                    reader.endArray();
+                    break;
+                case "geometri":
+                    if (visitor.visitsGeometry()) {
+                        if (!skipNull(reader)) {
+                            visitGeometry(reader, visitor);
+                        }
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                case "vegsegmenter":
+                    if (visitor.visitsSegments()) {
+                        if (!skipNull(reader)) {
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                visitor.segment(readSegment(reader, DecodingPlan.all()));
+                            }
+                            reader.endArray();
+                        }
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return visitor.end();
+    }
+
+    /**
+     * The id comes first in the attributes of the API, so the rest of an attribute the visitor
+     * does not ask for is skipped.
+     */
+    private static void visitAttribute(JsonReader reader, RoadObjectVisitor<?> visitor) throws IOException {
+        AttributeFields fields = new AttributeFields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!fields.read(name, reader)) {
+                reader.skipValue();
+            }
+            if (name.equals("id") && (fields.id == null || !visitor.visitsAttribute(fields.id))) {
+                while (reader.hasNext()) {
+                    reader.nextName();
+                    reader.skipValue();
+                }
+                reader.endObject();
+                return;
+            }
+        }
+        reader.endObject();
+        if (fields.id != null) {
+            visitor.attribute(fields.attribute());
+        }
+    }
+
+    private static void visitGeometry(JsonReader reader, RoadObjectVisitor<?> visitor) throws IOException {
+        String wkt = null;
+        Projection projection = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "wkt":
+                    wkt = readString(reader);
+                    break;
+                case "srid":
+                    Integer srid = readInt(reader);
+                    projection = srid == null ? null : Projection.of(srid).orElse(null);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        visitor.geometry(wkt, projection);
+    }
+
+    private static final class Metadata {
+        private Integer typeId;
+        private Integer version;
+        private LocalDate startDate;
+        private LocalDate endDate;
+        private LocalDateTime lastModified;
+
+        void read(JsonReader reader) throws IOException {
+            if (skipNull(reader)) {
+                return;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type":
+                        typeId = readTypeId(reader);
+                        break;
+                    case "versjon":
+                        version = readInt(reader);
+                        break;
+                    case "startdato":
+                        startDate = readDate(reader);
+                        break;
+                    case "sluttdato":
+                        endDate = readDate(reader);
+                        break;
+                    case "sist_modifisert":
+                        String lastModified = readString(reader);
+                        this.lastModified = lastModified == null ? null : GsonUtil.parseDateTime(lastModified);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+    }
+
+    private static Integer readTypeId(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        Integer typeId = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("id")) {
+                typeId = readInt(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return typeId;
+    }
+
+    private static List<Association> readAssociations(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return Collections.emptyList();
+        }
+        List<Association> associations = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            associations.add(readAssociation(reader));
+        }
+        reader.endArray();
+        return associations;
+    }
+
+    /**
+     * The type of the association may come after the road objects, so ids are kept until the end.
+     */
+    private static Association readAssociation(JsonReader reader) throws IOException {
+        Integer typeId = null;
+        List<Object> objects = Collections.emptyList();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type":
+                    typeId = readTypeId(reader);
+                    break;
+                case "vegobjekter":
+                    objects = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        JsonToken token = reader.peek();
+                        if (token == JsonToken.BEGIN_OBJECT) {
+                            objects.add(parse(reader));
+                        } else {
+                            objects.add(new LazilyParsedNumber(reader.nextString()).longValue());
+                        }
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        Set<RoadObject> roadObjects = new TreeSet<>(Comparator.comparing(RoadObject::getId));
+        for (Object o : objects) {
+            if (o instanceof RoadObject) {
+                roadObjects.add((RoadObject) o);
+            } else {
+                roadObjects.add(new RoadObject((Long) o, typeId, null, null, null, null, null, null, null, null, null,
+                    null));
+            }
+        }
+        return new Association(typeId, roadObjects);
+    }
+
+    private static List<Attribute> readAttributes(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return Collections.emptyList();
+        }
+        List<Attribute> attributes = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            attributes.add(parseAttribute(reader));
+        }
+        reader.endArray();
+        return attributes;
+    }
+
+    static Attribute parseAttribute(JsonReader reader) throws IOException {
+        AttributeFields fields = new AttributeFields();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!fields.read(name, reader)) {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return fields.attribute();
+    }
+
+    /**
+     * The members of an attribute. The value is kept as it is read, since what it is depends on the
+     * type of the attribute, which may come after it.
+     */
+    private static final class AttributeFields {
+        private Integer id;
+        private String type;
+        private Object value;
+        private Integer enumId;
+        private Unit unit;
+        private Integer blobId;
+        private String blobFormat;
+        private String href;
+        private String placementType;
+        private List<Attribute> content;
+        private final PlacementFields placement = new PlacementFields();
+        private final GeometryFields geometry = new GeometryFields();
+
+        boolean read(String name, JsonReader reader) throws IOException {
+            switch (name) {
+                case "id":
+                    id = readInt(reader);
+                    return true;
+                case "egenskapstype":
+                    type = readString(reader);
+                    return true;
+                case "verdi":
+                    value = readScalar(reader, name);
+                    return true;
+                case "enum_id":
+                    enumId = readInt(reader);
+                    return true;
+                case "enhet":
+                    unit = readUnit(reader);
+                    return true;
+                case "blob_id":
+                    blobId = readInt(reader);
+                    return true;
+                case "blob_format":
+                    blobFormat = readString(reader);
+                    return true;
+                case "href":
+                    href = readString(reader);
+                    return true;
+                case "stedfestingstype":
+                    placementType = readString(reader);
+                    return true;
+                case "innhold":
+                    content = readAttributes(reader);
+                    return true;
+                default:
+                    return placement.read(name, reader) || geometry.read(name, reader);
+            }
+        }
+
+        Attribute attribute() {
+            switch (type) {
+                case "Assosiasjon":
+                    return new AssociationAttribute(id, toLong(value));
+                case "Binær":
+                    return new BlobAttribute(id, blobId, blobFormat, href);
+                case "Boolsk":
+                    return new BooleanAttribute(id, toBoolean(value));
+                case "Dato":
+                    String date = asString(value);
+                    return new DateAttribute(id, date == null ? null : GsonUtil.parseDate(date));
+                case "Flyttall":
+                    return new RealAttribute(id, toDouble(value), unit);
+                case "Flyttallenum":
+                    return new RealEnumAttribute(id, enumId, toDouble(value));
+                case "Geometri":
+                    return new SpatialAttribute(id,
+                        new Geometry(asString(value), Projection.UTM33, false, true, geometry.attributes()));
+                case "Heltall":
+                    return new IntegerAttribute(id, toInt(value), unit);
+                case "Heltallenum":
+                    return new IntegerEnumAttribute(id, enumId, toInt(value));
+                case "Kortdato":
+                    return new ShortDateAttribute(id, MonthDay.parse("--" + asString(value)));
+                case "Liste":
+                    return new ListAttribute(id, content);
+                case "Stedfesting":
+                    switch (placementType) {
+                        case "Punkt":
+                            return new ReflinkExtentAttribute(
+                                id,
+                                placement.netElementId,
+                                Direction.from(placement.direction),
+                                SidePosition.from(placement.sidePosition),
+                                placement.lanes,
+                                placement.relativePosition,
+                                placement.relativePosition);
+                        case "Linje":
+                            return new ReflinkExtentAttribute(
+                                id,
+                                placement.netElementId,
+                                Direction.from(placement.direction),
+                                SidePosition.from(placement.sidePosition),
+                                placement.lanes,
+                                placement.startPosition,
+                                placement.endPosition);
+                        case "Sving":
+                            return new TurnExtent(id, placement.nodeId, placement.start, placement.end);
+                        default:
+                            throw new IllegalArgumentException("Unknown stedfestingstype " + placementType);
+                    }
+                case "Struktur":
+                    return new StructAttribute(id, content);
+                case "Tekst":
+                    return new StringAttribute(id, asString(value));
+                case "Tekstenum":
+                    return new StringEnumAttribute(id, enumId, asString(value));
+                case "Tid":
+                    return new TimeAttribute(id, LocalTime.parse(asString(value)));
+                default:
+                    throw new RuntimeException("Ukjent egenskapstype: " + type);
+            }
+        }
+    }
+
+    private static Unit readUnit(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        Integer id = null;
+        String name = null;
+        String shortName = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = readInt(reader);
+                    break;
+                case "navn":
+                    name = readString(reader);
+                    break;
+                case "kortnavn":
+                    shortName = readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Unit(id, name, shortName);
+    }
+
+    static Location parseLocation(JsonReader reader) throws IOException {
+        return parseLocation(reader, DecodingPlan.all());
+    }
+
+    private static Location parseLocation(JsonReader reader, DecodingPlan plan) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        List<Integer> municipalities = Collections.emptyList();
+        List<Integer> counties = Collections.emptyList();
+        List<ContractArea> contractAreas = Collections.emptyList();
+        List<Route> nationalRoutes = Collections.emptyList();
+        List<Street> streets = Collections.emptyList();
+        Geometry geometry = null;
+        List<RoadSysRef> roadRefs = Collections.emptyList();
+        List<Placement> placements = Collections.emptyList();
+        Double length = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!plan.decodes("lokasjon", name)) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "kommuner":
+                    municipalities = readIntList(reader);
+                    break;
+                case "fylker":
+                    counties = readIntList(reader);
+                    break;
+                case "kontraktsområder":
+                    contractAreas = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        contractAreas.add(new AreaFields().read(reader).contractArea());
+                    }
+                    reader.endArray();
+                    break;
+                case "riksvegruter":
+                    nationalRoutes = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        nationalRoutes.add(new AreaFields().read(reader).route());
+                    }
+                    reader.endArray();
+                    break;
+                case "gater":
+                    streets = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        streets.add(readStreet(reader));
+                    }
+                    reader.endArray();
+                    break;
+                case "geometri":
+                    geometry = readGeometry(reader);
+                    break;
+                case "vegsystemreferanser":
+                    if (skipNull(reader)) {
+                        break;
+                    }
+                    roadRefs = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        roadRefs.add(readRoadSysRef(reader));
+                    }
+                    reader.endArray();
+                    break;
+                case "stedfestinger":
+                    if (skipNull(reader)) {
+                        break;
+                    }
+                    placements = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        placements.add(readPlacement(reader));
+                    }
+                    reader.endArray();
+                    break;
+                case "lengde":
+                    length = readDouble(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Location(municipalities, counties, length, placements, roadRefs, contractAreas,
+            nationalRoutes, streets, geometry);
+    }
+
+    /**
+     * The members of a contract area or a national route.
+     */
+    private static final class AreaFields {
+        private Object number;
+        private String name;
+        private String type;
+        private String description;
+        private String period;
+        private List<RoadObjectId> objects = Collections.emptyList();
+        private List<Integer> counties = Collections.emptyList();
+        private List<Integer> municipalities = Collections.emptyList();
+
+        AreaFields read(JsonReader reader) throws IOException {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "nummer":
+                        number = readScalar(reader, "nummer");
+                        break;
+                    case "navn":
+                        name = readString(reader);
+                        break;
+                    case "type":
+                        type = readString(reader);
+                        break;
+                    case "beskrivelse":
+                        description = readString(reader);
+                        break;
+                    case "periode":
+                        period = readString(reader);
+                        break;
+                    case "vegobjekter":
+                        objects = readRoadObjectIds(reader);
+                        break;
+                    case "fylker":
+                        counties = readIntList(reader);
+                        break;
+                    case "kommuner":
+                        municipalities = readIntList(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return this;
+        }
+
+        ContractArea contractArea() {
+            return new ContractArea(toInt(number), name, type, objects, counties, municipalities);
+        }
+
+        Route route() {
+            return new Route(asString(number), name, description, period, objects,
+                counties, municipalities);
+        }
+    }
+
+    private static List<RoadObjectId> readRoadObjectIds(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return Collections.emptyList();
+        }
+        List<RoadObjectId> ids = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Long id = null;
+            Integer type = null;
+            Integer version = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = readLong(reader);
+                        break;
+                    case "type":
+                        type = readInt(reader);
+                        break;
+                    case "versjon":
+                        version = readInt(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            long fid = id;
+            int tid = type;
+            ids.add(new RoadObjectId(tid, fid, version));
+        }
+        reader.endArray();
+        return ids;
+    }
+
+    private static Street readStreet(JsonReader reader) throws IOException {
+        String name = null;
+        Integer streetCode = null;
+        Boolean sideStreet = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "navn":
+                    name = readString(reader);
+                    break;
+                case "gatekode":
+                    streetCode = readInt(reader);
+                    break;
+                case "sideveg":
+                    sideStreet = readBoolean(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Street(name, streetCode, sideStreet);
+    }
+
+    private static List<Segment> readSegments(JsonReader reader, DecodingPlan plan) throws IOException {
+        if (skipNull(reader)) {
+            return Collections.emptyList();
+        }
+        List<Segment> segments = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            segments.add(readSegment(reader, plan));
+        }
+        reader.endArray();
+        return segments;
+    }
+
+    private static Segment readSegment(JsonReader reader, DecodingPlan plan) throws IOException {
+        PlacementFields placement = new PlacementFields();
+        Geometry geometry = null;
+        Integer municipality = null;
+        Integer county = null;
+        RoadSysRef ref = null;
+        Double length = null;
+        LocalDate startDate = null;
+        LocalDate endDate = null;
+        String refLinkPartType = null;
+        String detailLevel = null;
+        String typeOfRoad = null;
+        List<String> lanes = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!plan.decodes("vegsegmenter", name)) {
+                reader.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "geometri":
+                    geometry = readGeometry(reader);
+                    break;
+                case "kommune":
+                    municipality = readInt(reader);
+                    break;
+                case "fylke":
+                    county = readInt(reader);
+                    break;
+                case "vegsystemreferanse":
+                    ref = readRoadSysRef(reader);
+                    break;
+                case "lengde":
+                    length = readDouble(reader);
+                    break;
+                case "startdato":
+                    startDate = readDate(reader);
+                    break;
+                case "sluttdato":
+                    endDate = readDate(reader);
+                    break;
+                case "veglenkeType":
+                    refLinkPartType = readString(reader);
+                    break;
+                case "detaljnivå":
+                    detailLevel = readString(reader);
+                    break;
+                case "typeVeg":
+                    typeOfRoad = readString(reader);
+                    break;
+                case "feltoversikt":
+                    lanes = readStringList(reader);
+                    break;
+                default:
+                    if (!placement.read(name, reader)) {
+                        reader.skipValue();
+                    }
+            }
+        }
+        reader.endObject();
+
+        double startPos = placement.hasRelativePosition ? placement.relativePosition : placement.startPosition;
+        double endPos = placement.hasRelativePosition ? startPos : placement.endPosition;
+
+        Segment segment = new Segment(
+            placement.netElementId,
+            startPos,
+            endPos,
+            Direction.from(placement.direction),
+            geometry,
+            municipality,
+            county,
+            ref,
+            length,
+            startDate,
+            endDate,
+            RefLinkPartType.fromValue(refLinkPartType),
+            DetailLevel.fromTextValue(detailLevel),
+            TypeOfRoad.fromTextValue(typeOfRoad));
+        if (lanes != null) {
+            return ElvegSegment.fromSegment(segment, lanes);
+        } else return segment;
+    }
+
+    private static Placement readPlacement(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        return new PlacementFields().readObject(reader).placement();
+    }
+
+    /**
+     * The members of a placement on the road network, which are also found in segments and attributes.
+     */
+    private static final class PlacementFields {
+        private String type;
+        private Long nodeId;
+        private RefLinkExtentPlacement start;
+        private RefLinkExtentPlacement end;
+        private Long netElementId;
+        private boolean hasRelativePosition;
+        private Double relativePosition;
+        private Double startPosition;
+        private Double endPosition;
+        private String direction;
+        private String sidePosition;
+        private List<String> lanes = Collections.emptyList();
+
+        PlacementFields readObject(JsonReader reader) throws IOException {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!read(reader.nextName(), reader)) {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return this;
+        }
+
+        boolean read(String name, JsonReader reader) throws IOException {
+            switch (name) {
+                case "type":
+                    type = readString(reader);
+                    return true;
+                case "nodeid":
+                    nodeId = readLong(reader);
+                    return true;
+                case "startpunkt":
+                    start = skipNull(reader) ? null : new PlacementFields().readObject(reader).refLinkExtent();
+                    return true;
+                case "sluttpunkt":
+                    end = skipNull(reader) ? null : new PlacementFields().readObject(reader).refLinkExtent();
+                    return true;
+                case "veglenkesekvensid":
+                    netElementId = readLong(reader);
+                    return true;
+                case "relativPosisjon":
+                    hasRelativePosition = true;
+                    relativePosition = readDouble(reader);
+                    return true;
+                case "startposisjon":
+                    startPosition = readDouble(reader);
+                    return true;
+                case "sluttposisjon":
+                    endPosition = readDouble(reader);
+                    return true;
+                case "retning":
+                    direction = readString(reader);
+                    return true;
+                case "sideposisjon":
+                    sidePosition = readString(reader);
+                    return true;
+                case "kjørefelt":
+                    lanes = readStringList(reader);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        Placement placement() {
+            if (type != null && type.equalsIgnoreCase("sving")) {
+                return new TurnExtentPlacement(nodeId, start, end);
+            }
+            return refLinkExtent();
+        }
+
+        RefLinkExtentPlacement refLinkExtent() {
+            long netElementId = this.netElementId;
+
+            double startPos, endPos;
+            if (hasRelativePosition) {
+                startPos = endPos = relativePosition;
+            } else {
+                startPos = startPosition;
+                endPos = endPosition;
+            }
+
+            Direction dir = direction == null ? null : Direction.from(direction);
+            SidePosition sidePos = sidePosition == null ? null : SidePosition.from(sidePosition);
+
+            return new RefLinkExtentPlacement(netElementId, startPos, endPos, dir, sidePos, lanes);
+        }
+    }
+
+    private static Geometry readGeometry(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        String wkt = null;
+        Projection srid = null;
+        Boolean isSimplified = null;
+        Boolean isOwnGeometry = null;
+        GeometryFields fields = new GeometryFields();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "wkt":
+                    wkt = readString(reader);
+                    break;
+                case "srid":
+                    Integer projection = readInt(reader);
+                    srid = projection == null ? null : Projection.of(projection).orElse(null);
+                    break;
+                case "forenklet":
+                    isSimplified = readBoolean(reader);
+                    break;
+                case "egengeometri":
+                    isOwnGeometry = readBoolean(reader);
+                    break;
+                default:
+                    if (!fields.read(name, reader)) {
+                        reader.skipValue();
+                    }
+            }
+        }
+        reader.endObject();
+
+        return new Geometry(wkt, srid, isSimplified != null && isSimplified, isOwnGeometry != null && isOwnGeometry,
+            fields.attributes());
+    }
+
+    /**
+     * The members of a geometry that describe how it was captured, which are also found in geometry attributes.
+     */
+    private static final class GeometryFields {
+        private LocalDate capturedDate;
+        private LocalDate verifiedDate;
+        private LocalDate updatedDate;
+        private String processHistory;
+        private Integer municipality;
+        private String medium;
+        private String sosiName;
+        private Integer themeCode;
+        private Boolean referenceGeometry;
+        private Double length;
+        private Integer heightReference;
+        private Quality quality;
+
+        boolean read(String name, JsonReader reader) throws IOException {
+            switch (name) {
+                case "datafangstdato":
+                    capturedDate = readDate(reader);
+                    return true;
+                case "verifiseringsdato":
+                    verifiedDate = readDate(reader);
+                    return true;
+                case "oppdateringsdato":
+                    updatedDate = readDate(reader);
+                    return true;
+                case "prosesshistorikk":
+                    processHistory = readString(reader);
+                    return true;
+                case "kommune":
+                    municipality = readInt(reader);
+                    return true;
+                case "medium":
+                    medium = readString(reader);
+                    return true;
+                case "sosinavn":
+                    sosiName = readString(reader);
+                    return true;
+                case "temakode":
+                    themeCode = readInt(reader);
+                    return true;
+                case "referansegeometri":
+                    referenceGeometry = readBoolean(reader);
+                    return true;
+                case "lengde":
+                    length = readDouble(reader);
+                    return true;
+                case "høydereferanse":
+                    heightReference = readInt(reader);
+                    return true;
+                case "kvalitet":
+                    quality = readQuality(reader);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        GeometryAttributes attributes() {
+            return new GeometryAttributes(capturedDate, verifiedDate, updatedDate, processHistory, municipality,
+                medium, sosiName, themeCode, referenceGeometry, length, heightReference, quality);
+        }
+    }
+
+    private static Quality readQuality(JsonReader reader) throws IOException {
+        Integer method = null;
+        Integer accuracy = null;
+        Integer heightMethod = null;
+        Integer heightAccuracy = null;
+        Integer tolerance = null;
+        Integer visibility = null;
+        String captureMethod = null;
+        String heightCaptureMethod = null;
+        if (!skipNull(reader)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "målemetode":
+                        method = readInt(reader);
+                        break;
+                    case "nøyaktighet":
+                        accuracy = readInt(reader);
+                        break;
+                    case "målemetodeHøyde":
+                        heightMethod = readInt(reader);
+                        break;
+                    case "nøyaktighetHøyde":
+                        heightAccuracy = readInt(reader);
+                        break;
+                    case "maksimaltAvvik":
+                        tolerance = readInt(reader);
+                        break;
+                    case "synbarhet":
+                        visibility = readInt(reader);
+                        break;
+                    case "datafangstmetode":
+                        captureMethod = readString(reader);
+                        break;
+                    case "datafangstmetodeHøyde":
+                        heightCaptureMethod = readString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return new Quality(method, accuracy, heightMethod, heightAccuracy, tolerance, visibility, captureMethod,
+            heightCaptureMethod);
+    }
+
+    private static RoadSysRef readRoadSysRef(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        boolean hasRoadSystem = false;
+        RoadSystem roadSystem = null;
+        Section section = null;
+        Intersection intersection = null;
+        SideArea sideArea = null;
+        String shortForm = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "vegsystem":
+                    hasRoadSystem = true;
+                    roadSystem = readRoadSystem(reader);
+                    break;
+                case "strekning":
+                    section = skipNull(reader) ? null : new RefPartFields().read(reader).section();
+                    break;
+                case "kryssystem":
+                    intersection = skipNull(reader) ? null : new RefPartFields().read(reader).intersection();
+                    break;
+                case "sideanlegg":
+                    sideArea = skipNull(reader) ? null : new RefPartFields().read(reader).sideArea();
+                    break;
+                case "kortform":
+                    shortForm = readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasRoadSystem) return null;
+        return new RoadSysRef(roadSystem, section, intersection, sideArea, shortForm);
+    }
+
+    private static RoadSystem readRoadSystem(JsonReader reader) throws IOException {
+        Long id = null;
+        Integer version = null;
+        Integer number = null;
+        String category = null;
+        String phase = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = readLong(reader);
+                    break;
+                case "versjon":
+                    version = readInt(reader);
+                    break;
+                case "nummer":
+                    number = readInt(reader);
+                    break;
+                case "vegkategori":
+                    category = readString(reader);
+                    break;
+                case "fase":
+                    phase = readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new RoadSystem(id, version, number, RoadCategory.valueOf(category), Phase.valueOf(phase));
+    }
+
+    /**
+     * The members of the section, intersection or side area of a road system reference.
+     */
+    private static final class RefPartFields {
+        private Long id;
+        private Integer version;
+        private Integer section;
+        private Integer subsection;
+        private Boolean arm;
+        private String separatePassages;
+        private String separatePassagesNumber;
+        private String roadUserGroup;
+        private Double fromMeter;
+        private Double toMeter;
+        private Double meter;
+        private String direction;
+        private Integer intersection;
+        private Integer intersectionPart;
+        private Integer sideArea;
+        private Integer sideAreaPart;
+
+        RefPartFields read(JsonReader reader) throws IOException {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "id":
+                        id = readLong(reader);
+                        break;
+                    case "versjon":
+                        version = readInt(reader);
+                        break;
+                    case "strekning":
+                        section = readInt(reader);
+                        break;
+                    case "delstrekning":
+                        subsection = readInt(reader);
+                        break;
+                    case "arm":
+                        arm = readBoolean(reader);
+                        break;
+                    case "adskilte_løp":
+                        separatePassages = readOptionalString(reader);
+                        break;
+                    case "adskilte_løp_nummer":
+                        separatePassagesNumber = readOptionalString(reader);
+                        break;
+                    case "trafikantgruppe":
+                        roadUserGroup = readString(reader);
+                        break;
+                    case "fra_meter":
+                        fromMeter = readDouble(reader);
+                        break;
+                    case "til_meter":
+                        toMeter = readDouble(reader);
+                        break;
+                    case "meter":
+                        meter = readDouble(reader);
+                        break;
+                    case "retning":
+                        direction = readString(reader);
+                        break;
+                    case "kryssystem":
+                        intersection = readInt(reader);
+                        break;
+                    case "kryssdel":
+                        intersectionPart = readInt(reader);
+                        break;
+                    case "sideanlegg":
+                        sideArea = readInt(reader);
+                        break;
+                    case "sideanleggsdel":
+                        sideAreaPart = readInt(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return this;
+        }
+
+        private Double from() {
+            return fromMeter == null ? meter : fromMeter;
+        }
+
+        private Double to() {
+            return toMeter == null ? meter : toMeter;
+        }
+
+        Section section() {
+            return new Section(
+                id,
+                version,
+                section,
+                subsection,
+                arm,
+                separatePassages == null ? null : SeparatePassages.fromValue(separatePassages),
+                separatePassagesNumber,
+                RoadUserGroup.fromValue(roadUserGroup),
+                from(),
+                to(),
+                Direction.from(direction));
+        }
+
+        Intersection intersection() {
+            if (intersection == null) return null;
+            return new Intersection(
+                id,
+                version,
+                intersection,
+                intersectionPart,
+                from(),
+                to(),
+                Direction.from(direction),
+                RoadUserGroup.fromValue(roadUserGroup));
+        }
+
+        SideArea sideArea() {
+            if (sideArea == null) return null;
+            return new SideArea(
+                id,
+                version,
+                sideArea,
+                sideAreaPart,
+                from(),
+                to(),
+                Direction.from(direction),
+                RoadUserGroup.fromValue(roadUserGroup));
+        }
+    }
+
+    /**
+     * @return true if the next value is null, which is then skipped
+     */
+    private static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static Object readScalar(JsonReader reader, String name) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case NUMBER:
+                return new LazilyParsedNumber(reader.nextString());
+            case STRING:
+                return reader.nextString();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                throw new IllegalStateException(name + " is not a value at " + reader.getPath());
+        }
+    }
+
+    private static Number readNumber(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case NUMBER:
+                return new LazilyParsedNumber(reader.nextString());
+            default:
+                throw new IllegalArgumentException(reader.getPath() + " did not contain a number.");
+        }
+    }
+
+    private static Integer readInt(JsonReader reader) throws IOException {
+        Number number = readNumber(reader);
+        return number == null ? null : number.intValue();
+    }
+
+    private static Long readLong(JsonReader reader) throws IOException {
+        Number number = readNumber(reader);
+        return number == null ? null : number.longValue();
+    }
+
+    private static Double readDouble(JsonReader reader) throws IOException {
+        return toDouble(readScalar(reader, reader.getPath()));
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case STRING:
+                return reader.nextString();
+            default:
+                throw new IllegalArgumentException(reader.getPath() + " did not contain a string.");
+        }
+    }
+
+    /**
+     * @return the string, or null if the value is not a string
+     */
+    private static String readOptionalString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.STRING) {
+            return reader.nextString();
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    private static Boolean readBoolean(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                throw new IllegalArgumentException(reader.getPath() + " did not contain a boolean.");
+        }
+    }
+
+    private static LocalDate readDate(JsonReader reader) throws IOException {
+        String date = readString(reader);
+        return date == null ? null : GsonUtil.parseDate(date);
+    }
+
+    private static List<Integer> readIntList(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return Collections.emptyList();
+        }
+        List<Integer> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(toInt(readScalar(reader, reader.getPath())));
+        }
+        reader.endArray();
+        return values;
+    }
+
+    private static List<String> readStringList(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(reader.peek() == JsonToken.BOOLEAN ? Boolean.toString(reader.nextBoolean()) : reader.nextString());
+        }
+        reader.endArray();
+        return values;
+    }
+
+    private static Integer toInt(Object value) {
+        if (value == null) return null;
+        if (value instanceof Number) return ((Number) value).intValue();
+        return Integer.parseInt(value.toString());
+    }
+
+    private static Long toLong(Object value) {
+        if (value == null) return null;
+        if (value instanceof Number) return ((Number) value).longValue();
+        throw new IllegalArgumentException(value + " is not a number.");
+    }
+
+    private static Double toDouble(Object value) {
+        if (value == null) return null;
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        return Double.parseDouble(value.toString());
+    }
+
+    private static Boolean toBoolean(Object value) {
+        if (value == null) return null;
+        if (value instanceof Boolean) return (Boolean) value;
+        throw new IllegalArgumentException(value + " is not a boolean.");
+    }
+
+    private static String asString(Object value) {
+        if (value == null) return null;
+        if (value instanceof String) return (String) value;
+        throw new IllegalArgumentException(value + " is not a string.");
+    }
+}
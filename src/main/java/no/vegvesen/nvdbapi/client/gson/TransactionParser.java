@@ -77,7 +77,7 @@ public class TransactionParser {
 
     private static RoadObjectType parseRoadObjectType(JsonObject obj) {
         if(obj==null) return null;
-        int id = parseIntMember(obj, "id");
+        int id = parseIntValue(obj, "id");
         String name = parseStringMember(obj, "navn");
 
         return new RoadObjectType(id, name);
@@ -0,0 +1,97 @@
+package no.vegvesen.nvdbapi.client.model;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Tunes the number of objects per page of a result set from the size and duration of the pages fetched so far.
+ * <p>
+ * After each page the count of the next page is set so that it is expected to take about {@code targetDuration}
+ * and to be about {@code targetBytes} large, whichever gives the smaller page. The count never grows by more
+ * than a factor of two from one page to the next, and always stays between {@code minCount} and {@code maxCount}.
+ */
+public final class AdaptivePaging {
+    private static final AdaptivePaging DEFAULT =
+        new AdaptivePaging(100, 10000, Duration.ofSeconds(2), 4L * 1024 * 1024);
+
+    private final int minCount;
+    private final int maxCount;
+    private final Duration targetDuration;
+    private final long targetBytes;
+
+    private AdaptivePaging(int minCount, int maxCount, Duration targetDuration, long targetBytes) {
+        this.minCount = minCount;
+        this.maxCount = maxCount;
+        this.targetDuration = targetDuration;
+        this.targetBytes = targetBytes;
+    }
+
+    /**
+     * @return pages of 100 to 10000 objects, aiming at two seconds and 4 MB per page
+     */
+    public static AdaptivePaging defaults() {
+        return DEFAULT;
+    }
+
+    public int getMinCount() {
+        return minCount;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    public Duration getTargetDuration() {
+        return targetDuration;
+    }
+
+    public long getTargetBytes() {
+        return targetBytes;
+    }
+
+    public AdaptivePaging withBounds(int minCount, int maxCount) {
+        if (minCount < 1) {
+            throw new IllegalArgumentException("Min count must be greater than 0.");
+        }
+        if (maxCount < minCount) {
+            throw new IllegalArgumentException("Max count must not be less than min count.");
+        }
+        return new AdaptivePaging(minCount, maxCount, targetDuration, targetBytes);
+    }
+
+    public AdaptivePaging withTargetDuration(Duration targetDuration) {
+        Objects.requireNonNull(targetDuration, "Missing targetDuration argument!");
+        if (targetDuration.isNegative() || targetDuration.isZero()) {
+            throw new IllegalArgumentException("Target duration must be positive.");
+        }
+        return new AdaptivePaging(minCount, maxCount, targetDuration, targetBytes);
+    }
+
+    public AdaptivePaging withTargetBytes(long targetBytes) {
+        if (targetBytes < 1) {
+            throw new IllegalArgumentException("Target bytes must be greater than 0.");
+        }
+        return new AdaptivePaging(minCount, maxCount, targetDuration, targetBytes);
+    }
+
+    /**
+     * @param requested number of objects requested in the last page
+     * @param returned number of objects returned in the last page
+     * @param bytes size of the response body of the last page
+     * @param nanos time spent fetching and parsing the last page
+     * @return number of objects to request in the next page
+     */
+    public int nextCount(int requested, int returned, long bytes, long nanos) {
+        if (returned < 1) {
+            return clamp(requested);
+        }
+        double bySize = (double) targetBytes * returned / Math.max(bytes, 1);
+        double byDuration = (double) targetDuration.toNanos() * returned / Math.max(nanos, 1);
+        double next = Math.min(Math.min(bySize, byDuration), 2.0 * requested);
+        return clamp((long) next);
+    }
+
+    private int clamp(long count) {
+        return (int) Math.max(minCount, Math.min(maxCount, count));
+    }
+}
@@ -0,0 +1,83 @@
+package no.vegvesen.nvdbapi.client.model;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Where a paged download can continue from: the request, including all its query parameters,
+ * the number of objects per page, and the {@code start} token of the first page not yet consumed.
+ */
+public final class Checkpoint {
+    private final String request;
+    private final int count;
+    private final String start;
+    private final boolean complete;
+
+    private Checkpoint(String request, int count, String start, boolean complete) {
+        this.request = Objects.requireNonNull(request, "Missing request argument!");
+        this.count = count;
+        this.start = start;
+        this.complete = complete;
+    }
+
+    /**
+     * @param request the request URI, without paging parameters
+     * @param page the first page not yet consumed
+     * @return a checkpoint for a download that is not complete
+     */
+    public static Checkpoint of(String request, Page page) {
+        return new Checkpoint(request, page.getCount(), page.getStart().orElse(null), false);
+    }
+
+    /**
+     * @return a checkpoint read back from a {@link no.vegvesen.nvdbapi.client.util.CheckpointStore}
+     */
+    public static Checkpoint restore(String request, int count, String start, boolean complete) {
+        return new Checkpoint(request, count, start, complete);
+    }
+
+    public String getRequest() {
+        return request;
+    }
+
+    public Page getPage() {
+        return Page.count(count).withStart(start);
+    }
+
+    /**
+     * @return true if all pages of the download have been consumed
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Checkpoint completed() {
+        return new Checkpoint(request, count, start, true);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Checkpoint that = (Checkpoint) o;
+        return count == that.count &&
+            complete == that.complete &&
+            request.equals(that.request) &&
+            Objects.equals(start, that.start);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(request, count, start, complete);
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint{" +
+            "request='" + request + '\'' +
+            ", count=" + count +
+            ", start=" + Optional.ofNullable(start).orElse("") +
+            ", complete=" + complete +
+            '}';
+    }
+}
@@ -0,0 +1,58 @@
+package no.vegvesen.nvdbapi.client.model;
+
+/**
+ * Number of connections in the pool shared by the clients of a {@code ClientFactory}.
+ */
+public final class ConnectionPoolStats {
+    public static final ConnectionPoolStats EMPTY = new ConnectionPoolStats(0, 0, 0, 0);
+
+    private final int leased;
+    private final int pending;
+    private final int available;
+    private final int max;
+
+    public ConnectionPoolStats(int leased, int pending, int available, int max) {
+        this.leased = leased;
+        this.pending = pending;
+        this.available = available;
+        this.max = max;
+    }
+
+    /**
+     * @return number of connections in use by a request
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return number of requests waiting for a connection
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * @return number of open connections that are available for reuse
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * @return max number of connections
+     */
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats{" +
+            "leased=" + leased +
+            ", pending=" + pending +
+            ", available=" + available +
+            ", max=" + max +
+            '}';
+    }
+}
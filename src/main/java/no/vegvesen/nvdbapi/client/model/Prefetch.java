@@ -0,0 +1,48 @@
+package no.vegvesen.nvdbapi.client.model;
+
+/**
+ * How far ahead of the consumer a paged result set may fetch.
+ * <p>
+ * {@code depth} is the number of pages that may be fetched and held in memory before they are consumed,
+ * {@code maxBufferedBytes} is the total size of the response bodies of those pages. A new page is not
+ * requested while either limit is reached, so the byte limit may be exceeded by at most one page.
+ */
+public final class Prefetch {
+    private final int depth;
+    private final long maxBufferedBytes;
+
+    private Prefetch(int depth, long maxBufferedBytes) {
+        this.depth = depth;
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    public static Prefetch depth(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be greater than 0.");
+        }
+        return new Prefetch(depth, Long.MAX_VALUE);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getMaxBufferedBytes() {
+        return maxBufferedBytes;
+    }
+
+    public Prefetch withDepth(int depth) {
+        return depth(depth).withMaxBufferedBytes(maxBufferedBytes);
+    }
+
+    /**
+     * @param maxBufferedBytes upper bound for the size of the response bodies of pages fetched ahead
+     * @return a copy with the given memory cap
+     */
+    public Prefetch withMaxBufferedBytes(long maxBufferedBytes) {
+        if (maxBufferedBytes < 1) {
+            throw new IllegalArgumentException("Max buffered bytes must be greater than 0.");
+        }
+        return new Prefetch(depth, maxBufferedBytes);
+    }
+}
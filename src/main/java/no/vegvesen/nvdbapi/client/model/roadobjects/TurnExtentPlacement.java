@@ -1,5 +1,7 @@
 package no.vegvesen.nvdbapi.client.model.roadobjects;
 
+import java.util.Objects;
+
 public class TurnExtentPlacement implements Placement{
 
     private final long nodeId;
@@ -23,4 +25,28 @@ public class TurnExtentPlacement implements Placement{
     public RefLinkExtentPlacement getEndPosition() {
         return endPosition;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TurnExtentPlacement that = (TurnExtentPlacement) o;
+        return nodeId == that.nodeId &&
+                Objects.equals(startPosition, that.startPosition) &&
+                Objects.equals(endPosition, that.endPosition);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeId, startPosition, endPosition);
+    }
+
+    @Override
+    public String toString() {
+        return "TurnExtentPlacement{" +
+                "nodeId=" + nodeId +
+                ", startPosition=" + startPosition +
+                ", endPosition=" + endPosition +
+                '}';
+    }
 }
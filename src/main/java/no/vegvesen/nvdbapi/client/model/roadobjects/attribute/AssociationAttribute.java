@@ -1,5 +1,7 @@
 package no.vegvesen.nvdbapi.client.model.roadobjects.attribute;
 
+import java.util.Objects;
+
 public class AssociationAttribute extends Attribute {
 
     private final long featureId;
@@ -22,4 +24,18 @@ public class AssociationAttribute extends Attribute {
     public AttributeType getAttributeType() {
         return AttributeType.ASSOCIATION;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        AssociationAttribute that = (AssociationAttribute) o;
+        return featureId == that.featureId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), featureId);
+    }
 }
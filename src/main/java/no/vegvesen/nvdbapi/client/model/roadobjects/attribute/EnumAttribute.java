@@ -36,11 +36,12 @@ public abstract class EnumAttribute<T> extends Attribute {
         if (o == null || getClass() != o.getClass()) return false;
         if (!super.equals(o)) return false;
         EnumAttribute that = (EnumAttribute) o;
-        return Objects.equals(enumId, that.enumId);
+        return Objects.equals(enumId, that.enumId) &&
+            Objects.equals(value, that.value);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), enumId);
+        return Objects.hash(super.hashCode(), enumId, value);
     }
 }
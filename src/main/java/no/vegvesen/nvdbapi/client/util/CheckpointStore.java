@@ -0,0 +1,19 @@
+package no.vegvesen.nvdbapi.client.util;
+
+import no.vegvesen.nvdbapi.client.model.Checkpoint;
+
+import java.util.Optional;
+
+/**
+ * Durable storage for the {@link Checkpoint} of one paged download.
+ * {@link #save(Checkpoint)} must not return before the checkpoint is stored,
+ * and a failed save must leave the previous checkpoint in place.
+ */
+public interface CheckpointStore {
+
+    Optional<Checkpoint> load();
+
+    void save(Checkpoint checkpoint);
+
+    void clear();
+}
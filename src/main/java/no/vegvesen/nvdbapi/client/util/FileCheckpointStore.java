@@ -0,0 +1,79 @@
+package no.vegvesen.nvdbapi.client.util;
+
+import no.vegvesen.nvdbapi.client.model.Checkpoint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Stores a checkpoint as a properties file. A new checkpoint is written to a temporary file next to it,
+ * synced to disk and then moved in place, so the file always holds a complete checkpoint.
+ */
+public class FileCheckpointStore implements CheckpointStore {
+    private final Path file;
+
+    public FileCheckpointStore(Path file) {
+        this.file = Objects.requireNonNull(file, "Missing file argument!");
+    }
+
+    @Override
+    public Optional<Checkpoint> load() {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read checkpoint from " + file, e);
+        }
+        return Optional.of(Checkpoint.restore(
+            properties.getProperty("request"),
+            Integer.parseInt(properties.getProperty("count")),
+            properties.getProperty("start"),
+            Boolean.parseBoolean(properties.getProperty("complete"))));
+    }
+
+    @Override
+    public void save(Checkpoint checkpoint) {
+        Properties properties = new Properties();
+        properties.setProperty("request", checkpoint.getRequest());
+        properties.setProperty("count", String.valueOf(checkpoint.getPage().getCount()));
+        checkpoint.getPage().getStart().ifPresent(start -> properties.setProperty("start", start));
+        properties.setProperty("complete", String.valueOf(checkpoint.isComplete()));
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(channel);
+                properties.store(out, null);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write checkpoint to " + file, e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete checkpoint " + file, e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package no.vegvesen.nvdbapi.client.util;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import no.vegvesen.nvdbapi.client.gson.StreamingParser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A {@link SpillCodec} for the objects of a {@code GenericResultSet}, which need not be {@code Serializable}.
+ * The json each object is parsed from is kept until the object is written to the temporary file,
+ * and parsed again with the parser of the result set when it is read back.
+ * The objects must be read with the parser from {@link #wrap(StreamingParser)}, which
+ * {@code GenericResultSet.getAll(SpillCodec, int)} does.
+ * <p>
+ * The json of the objects held in memory by the collector is kept as well, so they take about twice
+ * the memory of the objects alone. It is dropped when the collector is closed.
+ * @param <T> Result type
+ */
+public final class JsonSpillCodec<T> implements SpillCodec<T> {
+
+    private final Map<T, String> json = Collections.synchronizedMap(new IdentityHashMap<>());
+    private volatile StreamingParser<T> parser;
+
+    JsonSpillCodec() {
+    }
+
+    /**
+     * @param parser the parser of the result set
+     * @return a parser that keeps the json of each object it reads
+     */
+    public StreamingParser<T> wrap(StreamingParser<T> parser) {
+        this.parser = parser;
+        return reader -> {
+            StringWriter writer = new StringWriter();
+            copy(reader, new JsonWriter(writer));
+            String text = writer.toString();
+            T value = parse(parser, text);
+            json.put(value, text);
+            return value;
+        };
+    }
+
+    /**
+     * Drops the json of the objects that are not written to the temporary file.
+     */
+    void clear() {
+        json.clear();
+    }
+
+    /**
+     * Copies the next value, token by token. Numbers are copied as they are written.
+     */
+    private static void copy(JsonReader in, JsonWriter out) throws IOException {
+        int depth = 0;
+        do {
+            switch (in.peek()) {
+                case BEGIN_ARRAY:
+                    in.beginArray();
+                    out.beginArray();
+                    depth++;
+                    break;
+                case END_ARRAY:
+                    in.endArray();
+                    out.endArray();
+                    depth--;
+                    break;
+                case BEGIN_OBJECT:
+                    in.beginObject();
+                    out.beginObject();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    in.endObject();
+                    out.endObject();
+                    depth--;
+                    break;
+                case NAME:
+                    out.name(in.nextName());
+                    break;
+                case STRING:
+                    out.value(in.nextString());
+                    break;
+                case NUMBER:
+                    out.jsonValue(in.nextString());
+                    break;
+                case BOOLEAN:
+                    out.value(in.nextBoolean());
+                    break;
+                case NULL:
+                    in.nextNull();
+                    out.nullValue();
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected end of json at " + in.getPath());
+            }
+        } while (depth > 0);
+        out.flush();
+    }
+
+    private static <T> T parse(StreamingParser<T> parser, String text) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(text))) {
+            return parser.parse(reader);
+        }
+    }
+
+    @Override
+    public void write(DataOutputStream out, T value) throws IOException {
+        String text = json.remove(value);
+        if (text == null) {
+            throw new IllegalStateException("Object was not read by the parser of this codec: " + value);
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public T read(DataInputStream in) throws IOException {
+        if (parser == null) {
+            throw new IllegalStateException("The codec was not given the parser of a result set.");
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return parse(parser, new String(bytes, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,61 @@
+package no.vegvesen.nvdbapi.client.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Writes objects to, and reads them back from, the temporary file of a {@link SpillingResultSetCollector}.
+ * {@link #read(DataInputStream)} must read exactly what {@link #write(DataOutputStream, Object)} wrote.
+ * @param <T> Result type
+ */
+public interface SpillCodec<T> {
+
+    void write(DataOutputStream out, T value) throws IOException;
+
+    T read(DataInputStream in) throws IOException;
+
+    /**
+     * @return a codec that writes the json the objects of a {@code GenericResultSet} were parsed from,
+     * and parses it again when they are read back, for result types that are not {@code Serializable},
+     * such as {@code RoadObject}
+     * @see JsonSpillCodec
+     */
+    static <T> SpillCodec<T> json() {
+        return new JsonSpillCodec<>();
+    }
+
+    /**
+     * @return a codec using java serialization, for result types that are {@code Serializable}
+     */
+    static <T extends Serializable> SpillCodec<T> serializable() {
+        return new SpillCodec<T>() {
+            @Override
+            public void write(DataOutputStream out, T value) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                    objects.writeObject(value);
+                }
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T read(DataInputStream in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+    }
+}
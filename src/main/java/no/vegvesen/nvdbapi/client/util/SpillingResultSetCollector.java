@@ -0,0 +1,230 @@
+package no.vegvesen.nvdbapi.client.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Like {@link ResultSetCollector}, but for results larger than the heap. Objects are collected a page at a time,
+ * and when more than {@code maxInMemory} objects are held, those held are written to a temporary file with a
+ * {@link SpillCodec}, compressed with deflate. So at most {@code maxInMemory} objects and one page are held
+ * in memory, and with {@link SpillCodec#json()} also their json. The collected objects are read back in order,
+ * from the file and then from memory, each time the collector is iterated or streamed.
+ * Closing the collector deletes the temporary file.
+ * @param <T> Result type
+ */
+public class SpillingResultSetCollector<T> implements Iterable<T>, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SpillCodec<T> codec;
+    private final int maxInMemory;
+    private final Path directory;
+    private final List<T> memory = new ArrayList<>();
+    private Path file;
+    private DataOutputStream out;
+    private Deflater deflater;
+    private long spilled = 0;
+    private int numberOfIterations = 0;
+
+    /**
+     * @param codec how objects are written to the temporary file
+     * @param maxInMemory number of objects held in memory before they are written to the file
+     * @param directory where the temporary file is created, or null for the default temporary directory
+     */
+    public SpillingResultSetCollector(SpillCodec<T> codec, int maxInMemory, Path directory) {
+        if (maxInMemory < 0) {
+            throw new IllegalArgumentException("Max in memory must not be negative.");
+        }
+        this.codec = Objects.requireNonNull(codec, "Missing codec argument!");
+        this.maxInMemory = maxInMemory;
+        this.directory = directory;
+    }
+
+    public SpillingResultSetCollector(SpillCodec<T> codec, int maxInMemory) {
+        this(codec, maxInMemory, null);
+    }
+
+    public void collect(Iterator<List<T>> it) {
+        while (it.hasNext()) {
+            memory.addAll(it.next());
+            numberOfIterations++;
+            if (memory.size() > maxInMemory) {
+                spill();
+            }
+        }
+    }
+
+    public int getNumberOfIterations() {
+        return numberOfIterations;
+    }
+
+    public long size() {
+        return spilled + memory.size();
+    }
+
+    /**
+     * @return number of objects written to the temporary file
+     */
+    public long getSpilled() {
+        return spilled;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (file == null) {
+            return memory.iterator();
+        }
+        flush();
+        return new SpillIterator();
+    }
+
+    /**
+     * Close the stream to close the temporary file if it is not read to the end.
+     * @return the collected objects
+     */
+    public Stream<T> stream() {
+        Iterator<T> iterator = iterator();
+        Stream<T> stream = StreamSupport.stream(
+            Spliterators.spliterator(iterator, size(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        if (iterator instanceof SpillingResultSetCollector.SpillIterator) {
+            return stream.onClose(((SpillIterator) iterator)::close);
+        }
+        return stream;
+    }
+
+    @Override
+    public void close() {
+        memory.clear();
+        if (codec instanceof JsonSpillCodec) {
+            ((JsonSpillCodec<T>) codec).clear();
+        }
+        try {
+            if (out != null) {
+                out.close();
+                deflater.end();
+            }
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out = null;
+            deflater = null;
+            file = null;
+            spilled = 0;
+        }
+    }
+
+    public static <T> SpillingResultSetCollector<T> getAll(Iterator<List<T>> it, SpillCodec<T> codec, int maxInMemory) {
+        SpillingResultSetCollector<T> rsc = new SpillingResultSetCollector<>(codec, maxInMemory);
+        rsc.collect(it);
+        return rsc;
+    }
+
+    private void spill() {
+        try {
+            if (out == null) {
+                file = directory == null
+                    ? Files.createTempFile("nvdb-", ".spill")
+                    : Files.createTempFile(directory, "nvdb-", ".spill");
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                out = new DataOutputStream(new BufferedOutputStream(
+                    new DeflaterOutputStream(Files.newOutputStream(file), deflater, BUFFER_SIZE, true), BUFFER_SIZE));
+            }
+            for (T value : memory) {
+                codec.write(out, value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to " + file, e);
+        }
+        spilled += memory.size();
+        memory.clear();
+    }
+
+    private void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to " + file, e);
+        }
+    }
+
+    private class SpillIterator implements Iterator<T> {
+        private final long count = spilled;
+        private DataInputStream in;
+        private long read = 0;
+        private Iterator<T> tailIterator;
+
+        SpillIterator() {
+            try {
+                in = new DataInputStream(new BufferedInputStream(
+                    new InflaterInputStream(Files.newInputStream(file)), BUFFER_SIZE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + file, e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return read < count || tail().hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (read < count) {
+                try {
+                    T value = codec.read(in);
+                    if (++read == count) {
+                        close();
+                    }
+                    return value;
+                } catch (IOException e) {
+                    close();
+                    throw new UncheckedIOException("Could not read " + file, e);
+                }
+            }
+            if (!tail().hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return tailIterator.next();
+        }
+
+        private Iterator<T> tail() {
+            if (tailIterator == null) {
+                tailIterator = memory.iterator();
+            }
+            return tailIterator;
+        }
+
+        void close() {
+            try {
+                if (in != null) {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                in = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
+import no.vegvesen.nvdbapi.client.RateLimit;
+import no.vegvesen.nvdbapi.client.exceptions.ClientException;
+import no.vegvesen.nvdbapi.client.model.Status;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AsyncClientTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void responseIsParsedOffTheCallingThread() throws Exception {
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            Thread caller = Thread.currentThread();
+            Mono<Status> status = clientFactory.getStatusClient().getStatusAsync();
+            Thread parser = status.map(s -> Thread.currentThread()).block();
+            assertThat(parser, is(not(caller)));
+            assertThat(status.block().getDatakatalogVersion().getVersion(), is("2.12"));
+        }
+    }
+
+    @Test
+    void missingObjectIsEmptyAndErrorsAreSignalled() throws Exception {
+        stubFor(get(urlEqualTo("/vegobjekttyper/versjon")).willReturn(aResponse().withStatus(404)));
+        stubFor(get(urlEqualTo("/vegobjekttyper/enheter")).willReturn(aResponse()
+            .withStatus(500)
+            .withBody("[{\"code\":500,\"message\":\"Internal error\",\"help_url\":\"\"}]")));
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            DatakatalogClient client = clientFactory.getDatakatalogClient();
+            assertThat(client.getVersionAsync().blockOptional().isPresent(), is(false));
+            ClientException e = assertThrows(ClientException.class, () -> client.getUnitsAsync().block());
+            assertThat(e.getStatusCode(), is(500));
+        }
+    }
+
+    @Test
+    void concurrentMonosShareTheBoundedThreads() throws Exception {
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withFixedDelay(100)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test",
+            ClientConfigurationBuilder.builder()
+                .withAsyncThreads(4)
+                .withRateLimit(RateLimit.none().withMaxConcurrentRequests(2))
+                .build())) {
+            StatusClient client = clientFactory.getStatusClient();
+            Set<String> threads = Flux.range(0, 32)
+                .flatMap(i -> client.getStatusAsync().map(s -> Thread.currentThread().getName()), 32)
+                .collect(Collectors.toSet())
+                .block();
+
+            assertThat(threads.size(), is(lessThanOrEqualTo(4)));
+            assertThat(threads, everyItem(startsWith("nvdb-async-")));
+        }
+    }
+
+    @Test
+    void cancelledMonoGivesUpItsConnectionAndRateLimitSlot() throws Exception {
+        byte[] status = Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI()));
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withFixedDelay(5000)
+            .withBody(status)));
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test",
+            ClientConfigurationBuilder.builder()
+                .withRateLimit(RateLimit.none().withMaxConcurrentRequests(1))
+                .build())) {
+            StatusClient client = clientFactory.getStatusClient();
+            Disposable slow = client.getStatusAsync().subscribe();
+            awaitLeasedConnections(clientFactory, 1);
+            slow.dispose();
+            awaitLeasedConnections(clientFactory, 0);
+
+            stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+                .withStatus(200)
+                .withBody(status)));
+            assertThat(client.getStatusAsync().block(Duration.ofSeconds(2)).getDatakatalogVersion().getVersion(), is("2.12"));
+        }
+    }
+
+    private static void awaitLeasedConnections(ClientFactory clientFactory, int leased) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (clientFactory.getConnectionPoolStats().getLeased() != leased && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(clientFactory.getConnectionPoolStats().getLeased(), is(leased));
+    }
+}
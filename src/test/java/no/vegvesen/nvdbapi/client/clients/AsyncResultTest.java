@@ -0,0 +1,149 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
+import no.vegvesen.nvdbapi.client.model.Page;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+
+public class AsyncResultTest {
+
+    private static WireMockServer wireMockServer;
+    private static Client client;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)).gzipDisabled(true));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+        stubPage(null, "a", "[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4}]");
+        stubPage("a", "a", "[{\"id\":5}]");
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        client.close();
+        wireMockServer.stop();
+    }
+
+    private static void stubPage(String start, String next, String objekter) {
+        stubFor(get(urlPathEqualTo("/objekter"))
+            .withQueryParam("start", start == null ? absent() : equalTo(start))
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withBody("{\"objekter\":" + objekter + ",\"metadata\":{\"neste\":{\"start\":\"" + next + "\"}}}")));
+    }
+
+    private AsyncResult<Long> result() {
+        return new AsyncResult<>(
+            client.target(wireMockServer.baseUrl()).path("objekter"),
+            Page.count(4),
+            o -> o.get("id").getAsLong());
+    }
+
+    @Test
+    void emitsAllPages() {
+        List<Long> ids = result().get().collectList().block();
+        assertThat(ids, is(asList(1L, 2L, 3L, 4L, 5L)));
+    }
+
+    @Test
+    void nextPageIsOnlyFetchedOnDemand() {
+        wireMockServer.resetRequests();
+        Flux<Long> flux = result().get(1);
+        Iterator<Long> iterator = flux.toIterable(1).iterator();
+        // at most the buffer size of the rate limiter and the iterator is read ahead of what is consumed
+        assertThat(iterator.next(), is(1L));
+        verify(1, getRequestedFor(urlPathEqualTo("/objekter")));
+        List<Long> rest = new ArrayList<>();
+        iterator.forEachRemaining(rest::add);
+        assertThat(rest, is(asList(2L, 3L, 4L, 5L)));
+        verify(2, getRequestedFor(urlPathEqualTo("/objekter")));
+    }
+
+    @Test
+    void runsOnSchedulerOfClient() {
+        AsyncScheduler scheduler = AsyncScheduler.create(ClientConfigurationBuilder.builder().withAsyncThreads(1).build());
+        try {
+            List<String> threads = new AsyncResult<>(
+                client.target(wireMockServer.baseUrl()).path("objekter").property(AsyncScheduler.PROPERTY, scheduler),
+                Page.count(4),
+                o -> Thread.currentThread().getName())
+                .get()
+                .collectList()
+                .block();
+            assertThat(threads.get(0), startsWith("nvdb-async-"));
+            assertThat(scheduler.getQueuedTasks(), is(0));
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    void cancellingAbortsRequestOfCurrentPage() {
+        StringBuilder objekter = new StringBuilder("[");
+        for (int i = 1; i <= 5000; i++) {
+            objekter.append(i > 1 ? "," : "").append("{\"id\":").append(i).append('}');
+        }
+        stubFor(get(urlPathEqualTo("/slow"))
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withBody("{\"objekter\":" + objekter + "],\"metadata\":{\"neste\":{\"start\":\"a\"}}}")
+                .withChunkedDribbleDelay(50, 10000)));
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        Client apacheClient = ClientBuilder.newClient(new ClientConfig()
+            .connectorProvider(new ApacheConnectorProvider())
+            .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager));
+        try {
+            long started = System.nanoTime();
+            List<Long> first = new AsyncResult<>(
+                apacheClient.target(wireMockServer.baseUrl()).path("slow"),
+                Page.count(5000),
+                o -> o.get("id").getAsLong())
+                .get()
+                .take(1)
+                .collectList()
+                .block();
+            long millis = (System.nanoTime() - started) / 1_000_000;
+
+            assertThat(first, is(asList(1L)));
+            assertThat(millis, lessThan(5000L));
+            assertThat(connectionManager.getTotalStats().getLeased(), is(0));
+        } finally {
+            apacheClient.close();
+        }
+    }
+}
@@ -7,9 +7,12 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.glassfish.jersey.client.HttpUrlConnectorProvider;
 
 import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
 
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Random;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
@@ -18,6 +21,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ClientConfigurationTest {
@@ -53,4 +57,34 @@ public class ClientConfigurationTest {
         assertTrue(exception.getMessage()
                             .contains("Timeout"));
     }
+
+    @Test
+    public void shouldSizeConnectionPool() throws Exception {
+        configureFor("localhost", wireMockServer.port());
+        stubFor(get(urlEqualTo("/status")).willReturn(
+                aResponse()
+                        .withStatus(200)
+                        .withBody(Files.readAllBytes(
+                            Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(),
+                "nvdbapi-client-test", ClientConfigurationBuilder.builder()
+                                                                 .withMaxConnections(5)
+                                                                 .withMaxConnectionsPerRoute(3)
+                                                                 .build())) {
+            clientFactory.getStatusClient().getStatus();
+            assertEquals(5, clientFactory.getConnectionPoolStats().getMax());
+            assertEquals(0, clientFactory.getConnectionPoolStats().getLeased());
+        }
+    }
+
+    @Test
+    public void ownTransportHasNoConnectionPool() throws Exception {
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(),
+                "nvdbapi-client-test", ClientConfigurationBuilder.builder()
+                                                                 .withTransport(config -> config.connectorProvider(new HttpUrlConnectorProvider()))
+                                                                 .build())) {
+            assertEquals(0, clientFactory.getConnectionPoolStats().getMax());
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import no.vegvesen.nvdbapi.client.ClientConfiguration;
+import no.vegvesen.nvdbapi.client.JsonEngine;
+import no.vegvesen.nvdbapi.client.model.datakatalog.Version;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ClientFactoryTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void concurrentCallersShareClientsAndDatakatalogVersion() throws Exception {
+        stubFor(get(urlEqualTo("/vegobjekttyper/versjon")).willReturn(aResponse()
+            .withStatus(200)
+            .withFixedDelay(500)
+            .withBody("{\"id\":1,\"versjon\":\"2.21\",\"dato\":\"2020-05-01\"}")));
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<StatusClient>> clients = new ArrayList<>();
+            List<Future<Version>> versions = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                clients.add(executor.submit(() -> {
+                    start.await();
+                    return clientFactory.getStatusClient();
+                }));
+                versions.add(executor.submit(() -> {
+                    start.await();
+                    return clientFactory.getDatakatalogVersion();
+                }));
+            }
+            start.countDown();
+            StatusClient first = clients.get(0).get();
+            for (Future<StatusClient> client : clients) {
+                assertThat(client.get(), is(sameInstance(first)));
+            }
+            for (Future<Version> version : versions) {
+                assertThat(version.get().getVersion(), is("2.21"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        verify(1, getRequestedFor(urlEqualTo("/vegobjekttyper/versjon")));
+    }
+
+    @Test
+    void closedClientIsReplaced() throws Exception {
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            StatusClient closed = clientFactory.getStatusClient();
+            closed.close();
+            StatusClient replacement = clientFactory.getStatusClient();
+            assertThat(replacement.isClosed(), is(false));
+            assertThat(clientFactory.getStatusClient(), is(sameInstance(replacement)));
+        }
+    }
+
+    @Test
+    void gzippedResponsesLeaveTheirConnectionInThePool() throws Exception {
+        stubFor(get(urlEqualTo("/vegobjekttyper/versjon")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody("{\"id\":1,\"versjon\":\"2.21\",\"dato\":\"2020-05-01\"}")));
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            StatusClient client = clientFactory.getStatusClient();
+            client.getStatus();
+            assertThat(clientFactory.getConnectionPoolStats().getAvailable(), is(1));
+            client.getStatusAsync().block(Duration.ofSeconds(10));
+            assertThat(clientFactory.getConnectionPoolStats().getAvailable(), is(1));
+        }
+        List<LoggedRequest> requests = wireMockServer.findAll(getRequestedFor(urlEqualTo("/status")));
+        assertThat(requests.get(requests.size() - 1).getHeader("Accept-Encoding"), containsString("gzip"));
+    }
+
+    @Test
+    void warmUpOpensConnections() throws Exception {
+        stubFor(get(urlEqualTo("/vegobjekttyper/versjon")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody("{\"id\":1,\"versjon\":\"2.21\",\"dato\":\"2020-05-01\"}")));
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withFixedDelay(200)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            clientFactory.warmUp(4).block(Duration.ofSeconds(10));
+            assertThat(clientFactory.getConnectionPoolStats().getAvailable(), is(4));
+        }
+        assertThat(wireMockServer.findAll(getRequestedFor(urlEqualTo("/status"))).size(), is(greaterThanOrEqualTo(8)));
+    }
+
+    @Test
+    void jacksonEngineReadsSameResponsesAsGson() throws Exception {
+        stubFor(get(urlEqualTo("/vegobjekttyper/versjon")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody("{\"id\":1,\"versjon\":\"2.21\",\"dato\":\"2020-05-01\"}")));
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+        stubFor(get(urlPathEqualTo("/vegobjekter/105")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/vegobjekter/105.json").toURI())))));
+
+        List<RoadObject> expected;
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            expected = clientFactory.getRoadObjectClient().getRoadObjects(105).next();
+        }
+
+        ClientConfiguration config = ClientConfiguration.ClientConfigurationBuilder.builder()
+            .withJsonEngine(JsonEngine.jackson())
+            .build();
+        try (ClientFactory clientFactory =
+                 new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test", null, null, config)) {
+            assertThat(clientFactory.getRoadObjectClient().getRoadObjects(105).next(), is(expected));
+            assertThat(clientFactory.getStatusClient().getStatus().getDatakatalogVersion().getVersion(), is("2.12"));
+        } finally {
+            wireMockServer.resetRequests();
+        }
+    }
+}
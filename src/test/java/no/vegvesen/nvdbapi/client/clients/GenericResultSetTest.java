@@ -0,0 +1,332 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import no.vegvesen.nvdbapi.client.exceptions.ClientException;
+import no.vegvesen.nvdbapi.client.model.AdaptivePaging;
+import no.vegvesen.nvdbapi.client.model.Page;
+import no.vegvesen.nvdbapi.client.model.Prefetch;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
+import no.vegvesen.nvdbapi.client.util.CheckpointStore;
+import no.vegvesen.nvdbapi.client.util.FileCheckpointStore;
+import no.vegvesen.nvdbapi.client.util.SpillCodec;
+import no.vegvesen.nvdbapi.client.util.SpillingResultSetCollector;
+import reactor.core.scheduler.Schedulers;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GenericResultSetTest {
+
+    private static WireMockServer wireMockServer;
+    private static Client client;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+        stubPage(null, "a", 1, 2);
+        stubPage("a", "b", 3, 4);
+        stubPage("b", "b", 5);
+        client = ClientBuilder.newClient();
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        client.close();
+        wireMockServer.stop();
+    }
+
+    private static void stubPage(String start, String next, long... ids) {
+        StringBuilder objekter = new StringBuilder();
+        for (long id : ids) {
+            if (objekter.length() > 0) objekter.append(',');
+            objekter.append("{\"id\":").append(id).append('}');
+        }
+        String body = "{\"objekter\":[" + objekter + "],"
+            + "\"metadata\":{\"antall\":5,\"returnert\":" + ids.length + ",\"neste\":{\"start\":\"" + next + "\"}}}";
+        stubFor(get(urlPathEqualTo("/objekter"))
+            .withQueryParam("start", start == null ? absent() : equalTo(start))
+            .willReturn(aResponse().withStatus(200).withBody(body)));
+    }
+
+    private GenericResultSet<Long> resultSet() {
+        return resultSet(client);
+    }
+
+    private GenericResultSet<Long> resultSet(Client client) {
+        return new GenericResultSet<>(
+            client.target(wireMockServer.baseUrl()).path("objekter"),
+            Page.count(2),
+            o -> o.get("id").getAsLong());
+    }
+
+    @Test
+    void pagesUntilTokenIsRepeated() {
+        GenericResultSet<Long> resultSet = resultSet();
+        assertThat(resultSet.nextToken(), is(nullValue()));
+        assertThat(resultSet.next(), is(asList(1L, 2L)));
+        assertThat(resultSet.nextToken(), is("a"));
+        assertThat(resultSet.getAll(), is(asList(3L, 4L, 5L)));
+        assertThat(resultSet.hasNext(), is(false));
+    }
+
+    @Test
+    void unpagedResultWithoutNextPageHasNoToken() {
+        stubFor(get(urlPathEqualTo("/enkelt")).willReturn(aResponse().withStatus(200)
+            .withBody("{\"objekter\":[{\"id\":1}],\"metadata\":{\"antall\":1,\"returnert\":1}}")));
+        GenericResultSet<Long> resultSet = new GenericResultSet<>(
+            client.target(wireMockServer.baseUrl()).path("enkelt"),
+            null,
+            o -> o.get("id").getAsLong());
+        assertThat(resultSet.next(), is(asList(1L)));
+        assertThat(resultSet.nextToken(), is(nullValue()));
+        assertThat(resultSet.hasNext(), is(false));
+    }
+
+    @Test
+    void streamOnlyFetchesPagesThatAreConsumed() {
+        wireMockServer.resetRequests();
+        try (Stream<Long> stream = resultSet().stream()) {
+            assertThat(stream.limit(2).collect(Collectors.toList()), is(asList(1L, 2L)));
+        }
+        verify(1, getRequestedFor(urlPathEqualTo("/objekter")));
+    }
+
+    @Test
+    void prefetchGivesSameResultAsSequentialPaging() {
+        try (GenericResultSet<Long> resultSet = resultSet().withPrefetch(Prefetch.depth(2).withMaxBufferedBytes(64))) {
+            List<String> tokens = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            while (resultSet.hasNext()) {
+                ids.addAll(resultSet.next());
+                tokens.add(resultSet.nextToken());
+            }
+            assertThat(ids, is(asList(1L, 2L, 3L, 4L, 5L)));
+            assertThat(tokens, is(asList("a", "b", "b")));
+        }
+    }
+
+    @Test
+    void prefetchOfManyResultSetsSharesOneThread() {
+        ThreadPoolExecutor executor = singleThread();
+        Client shared = ClientBuilder.newClient()
+            .property(AsyncScheduler.PROPERTY, Schedulers.fromExecutorService(executor));
+        try {
+            List<GenericResultSet<Long>> resultSets = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                resultSets.add(resultSet(shared).withPrefetch(Prefetch.depth(2)));
+            }
+            for (GenericResultSet<Long> resultSet : resultSets) {
+                assertThat(resultSet.getAll(), is(asList(1L, 2L, 3L, 4L, 5L)));
+            }
+            assertThat(executor.getLargestPoolSize(), is(1));
+        } finally {
+            shared.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void closeAbortsPageBeingPrefetched() throws InterruptedException {
+        stubFor(get(urlPathEqualTo("/langsom"))
+            .withQueryParam("start", absent())
+            .willReturn(aResponse().withStatus(200).withBody(
+                "{\"objekter\":[{\"id\":1}],\"metadata\":{\"antall\":2,\"returnert\":1,\"neste\":{\"start\":\"s\"}}}")));
+        stubFor(get(urlPathEqualTo("/langsom"))
+            .withQueryParam("start", equalTo("s"))
+            .willReturn(aResponse().withStatus(200)
+                .withBody("{\"objekter\":[{\"id\":2}],\"metadata\":{\"antall\":2,\"returnert\":1}}")
+                .withChunkedDribbleDelay(20, 20000)));
+        ThreadPoolExecutor executor = singleThread();
+        Client shared = ClientBuilder.newClient()
+            .property(AsyncScheduler.PROPERTY, Schedulers.fromExecutorService(executor));
+        try {
+            GenericResultSet<Long> resultSet = new GenericResultSet<Long>(
+                shared.target(wireMockServer.baseUrl()).path("langsom"),
+                Page.count(1),
+                o -> o.get("id").getAsLong())
+                .withPrefetch(Prefetch.depth(2));
+            assertThat(resultSet.next(), is(asList(1L)));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (wireMockServer.findAll(getRequestedFor(urlPathEqualTo("/langsom"))
+                .withQueryParam("start", equalTo("s"))).isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            assertThat(executor.getActiveCount(), is(1));
+
+            resultSet.close();
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (executor.getActiveCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(executor.getActiveCount(), is(0));
+        } finally {
+            shared.close();
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadPoolExecutor singleThread() {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    }
+
+    @Test
+    void adaptivePagingGrowsSmallPagesWithinBounds() {
+        GenericResultSet<Long> resultSet = resultSet().withAdaptivePaging(AdaptivePaging.defaults()
+            .withBounds(1, 3)
+            .withTargetDuration(Duration.ofMinutes(1)));
+        assertThat(resultSet.getAll(), is(asList(1L, 2L, 3L, 4L, 5L)));
+        assertThat(resultSet.getPageSizes(), is(asList(2, 3, 3)));
+    }
+
+    @Test
+    void adaptivePagingShrinksLargePagesWithinBounds() {
+        GenericResultSet<Long> resultSet = resultSet().withAdaptivePaging(AdaptivePaging.defaults()
+            .withBounds(2, 10)
+            .withTargetBytes(1));
+        assertThat(resultSet.getAll(), is(asList(1L, 2L, 3L, 4L, 5L)));
+        assertThat(resultSet.getPageSizes(), is(asList(2, 2, 2)));
+    }
+
+    @Test
+    void resumesFromCheckpointOfPageBeingConsumed(@TempDir Path dir) {
+        CheckpointStore store = new FileCheckpointStore(dir.resolve("download.checkpoint"));
+        GenericResultSet<Long> interrupted = resultSet().withCheckpoints(store);
+        assertThat(interrupted.next(), is(asList(1L, 2L)));
+        assertThat(interrupted.next(), is(asList(3L, 4L)));
+
+        assertThat(resultSet().withCheckpoints(store).getAll(), is(asList(3L, 4L, 5L)));
+        assertThat(store.load().get().isComplete(), is(true));
+        assertThat(resultSet().withCheckpoints(store).getAll(), is(empty()));
+    }
+
+    @Test
+    void checkpointOfOtherRequestIsRejected(@TempDir Path dir) {
+        CheckpointStore store = new FileCheckpointStore(dir.resolve("download.checkpoint"));
+        resultSet().withCheckpoints(store).next();
+        GenericResultSet<Long> other = new GenericResultSet<>(
+            client.target(wireMockServer.baseUrl()).path("objekter").queryParam("kommune", 301),
+            Page.count(2),
+            o -> o.get("id").getAsLong());
+        assertThrows(IllegalStateException.class, () -> other.withCheckpoints(store));
+    }
+
+    @Test
+    void spillingCollectorReadsBackAllObjectsInOrder() {
+        try (SpillingResultSetCollector<Long> all = resultSet().getAll(SpillCodec.serializable(), 2)) {
+            assertThat(all.getSpilled(), is(4L));
+            assertThat(all.size(), is(5L));
+            List<Long> ids = new ArrayList<>();
+            all.forEach(ids::add);
+            assertThat(ids, is(asList(1L, 2L, 3L, 4L, 5L)));
+            try (Stream<Long> stream = all.stream()) {
+                assertThat(stream.collect(Collectors.toList()), is(asList(1L, 2L, 3L, 4L, 5L)));
+            }
+        }
+    }
+
+    @Test
+    void jsonCodecSpillsRoadObjectsAndParsesThemAgain() throws IOException {
+        stubRoadObjectPage(null, "a", "14", "95");
+        stubRoadObjectPage("a", "a", "105", "581");
+        WebTarget target = client.target(wireMockServer.baseUrl()).path("vegobjekter");
+        List<RoadObject> expected = new RoadObjectClient.RoadObjectsResult(target, Page.count(2)).getAll();
+
+        try (SpillingResultSetCollector<RoadObject> all =
+                 new RoadObjectClient.RoadObjectsResult(target, Page.count(2)).getAll(SpillCodec.json(), 1)) {
+            assertThat(all.getSpilled(), is(4L));
+            List<RoadObject> actual = new ArrayList<>();
+            all.forEach(actual::add);
+            assertThat(actual, is(expected));
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).getAttributes(), is(expected.get(i).getAttributes()));
+                assertThat(actual.get(i).getLocation(), is(expected.get(i).getLocation()));
+            }
+        }
+    }
+
+    @Test
+    void parseErrorOfRoadObjectCarriesStatusAndRequestId() {
+        stubFor(get(urlPathEqualTo("/ugyldige"))
+            .willReturn(aResponse().withStatus(200).withHeader("X-REQUEST-ID", "abc-123")
+                .withBody("{\"objekter\":[{\"id\":1,\"egenskaper\":\"ikke en liste\"}],"
+                    + "\"metadata\":{\"antall\":1,\"returnert\":1}}")));
+        WebTarget target = client.target(wireMockServer.baseUrl()).path("ugyldige");
+
+        ClientException e = assertThrows(ClientException.class,
+            () -> new RoadObjectClient.RoadObjectsResult(target, Page.count(2)).getAll());
+        assertThat(e.getStatusCode(), is(200));
+        assertThat(e.getRequestId(), is("abc-123"));
+
+        ClientException async = assertThrows(ClientException.class,
+            () -> new RoadObjectClient.AsyncRoadObjectsResult(target, Page.count(2)).get().blockLast());
+        assertThat(async.getStatusCode(), is(200));
+        assertThat(async.getRequestId(), is("abc-123"));
+    }
+
+    @Test
+    void jsonCodecNeedsTheParserOfAResultSet() {
+        SpillCodec<RoadObject> codec = SpillCodec.json();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(new byte[] {0, 0, 0, 2, '{', '}'}));
+
+        assertThrows(IllegalStateException.class, () -> codec.read(in));
+    }
+
+    private static void stubRoadObjectPage(String start, String next, String... files) throws IOException {
+        StringBuilder objekter = new StringBuilder();
+        for (String file : files) {
+            if (objekter.length() > 0) objekter.append(',');
+            try (Reader json = new InputStreamReader(GenericResultSetTest.class.getResourceAsStream(
+                "/jsonresponse/vegobjekter/" + file + ".json"), StandardCharsets.UTF_8)) {
+                objekter.append(JsonParser.parseReader(json).getAsJsonObject().getAsJsonArray("objekter").get(0));
+            }
+        }
+        String body = "{\"objekter\":[" + objekter + "],"
+            + "\"metadata\":{\"antall\":4,\"returnert\":" + files.length + ",\"neste\":{\"start\":\"" + next + "\"}}}";
+        stubFor(get(urlPathEqualTo("/vegobjekter"))
+            .withQueryParam("start", start == null ? absent() : equalTo(start))
+            .willReturn(aResponse().withStatus(200).withBody(body)));
+    }
+}
@@ -0,0 +1,110 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.google.gson.JsonParser;
+import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
+import no.vegvesen.nvdbapi.client.HedgingPolicy;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class HedgerTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void slowRequestIsHedgedAndFirstResponseUsed() throws Exception {
+        String roadObject = JsonParser.parseString(new String(Files.readAllBytes(
+            Paths.get(getClass().getResource("/jsonresponse/vegobjekter/105.json").toURI())), StandardCharsets.UTF_8))
+            .getAsJsonObject().getAsJsonArray("objekter").get(0).toString();
+        stubFor(get(urlPathEqualTo("/vegobjekttyper/versjon"))
+            .willReturn(aResponse().withStatus(200).withBody("{\"id\": 1, \"versjon\": \"2.21\", \"dato\": \"2020-05-01\"}")));
+        stubFor(get(urlPathEqualTo("/vegobjekter/105/1"))
+            .willReturn(aResponse().withStatus(200).withBody(roadObject)));
+        stubFor(get(urlPathEqualTo("/vegobjekter/105/2")).inScenario("slow")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(200).withBody(roadObject).withFixedDelay(2000))
+            .willSetStateTo("hedged"));
+        stubFor(get(urlPathEqualTo("/vegobjekter/105/2")).inScenario("slow")
+            .whenScenarioStateIs("hedged")
+            .willReturn(aResponse().withStatus(200).withBody(roadObject)));
+
+        HedgingPolicy policy = HedgingPolicy.atPercentile(50)
+            .withMaxExtraLoad(0.5)
+            .withWindow(20, 5)
+            .withMinDelay(Duration.ofMillis(50));
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test",
+            ClientConfigurationBuilder.builder().withHedgingPolicy(policy).build())) {
+            RoadObjectClient client = clientFactory.getRoadObjectClient();
+            for (int i = 0; i < 5; i++) {
+                client.getRoadObject(105, 1);
+            }
+            assertThat(clientFactory.getHedgedRequestCount(), is(0L));
+
+            long start = System.nanoTime();
+            assertThat(client.getRoadObject(105, 2).getId(), is(78697179L));
+            assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis(), lessThan(1500L));
+            assertThat(clientFactory.getHedgedRequestCount(), is(1L));
+            assertThat(clientFactory.getHedgedRequestWins(), is(1L));
+        }
+        verify(2, getRequestedFor(urlPathEqualTo("/vegobjekter/105/2")));
+    }
+
+    @Test
+    void requestWithoutHedgeIsSentOnTheCallingThread() {
+        stubFor(get(urlPathEqualTo("/vegobjekter/105/3"))
+            .willReturn(aResponse().withStatus(200).withBody("{\"id\": 3}")));
+        AtomicInteger executed = new AtomicInteger();
+        Hedger hedger = new Hedger(HedgingPolicy.atPercentile(50).withWindow(20, 5), task -> {
+            executed.incrementAndGet();
+            task.run();
+        });
+        Client client = ClientBuilder.newClient();
+        try {
+            WebTarget target = client.target(wireMockServer.baseUrl()).path("vegobjekter/105/3");
+            for (int i = 0; i < 10; i++) {
+                assertThat(hedger.execute(target).getAsJsonObject().get("id").getAsInt(), is(3));
+            }
+        } finally {
+            hedger.close();
+            client.close();
+        }
+        assertThat(hedger.getHedgedRequests(), is(0L));
+        assertThat(executed.get(), is(0));
+    }
+}
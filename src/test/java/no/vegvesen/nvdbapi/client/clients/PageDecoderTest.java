@@ -0,0 +1,52 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PageDecoderTest {
+
+    private static List<Long> ids(PageDecoder decoder) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        for (JsonObject object = decoder.next(); object != null; object = decoder.next()) {
+            ids.add(object.get("id").getAsLong());
+        }
+        return ids;
+    }
+
+    @Test
+    void readsObjectsBeforeMetadata() throws IOException {
+        PageDecoder decoder = new PageDecoder(new JsonReader(new StringReader(
+            "{\"objekter\":[{\"id\":1},{\"id\":2}],\"metadata\":{\"returnert\":2,\"neste\":{\"start\":\"a\"}}}")),
+            "objekter");
+        assertThat(ids(decoder), is(asList(1L, 2L)));
+        assertThat(decoder.nextToken(), is("a"));
+        assertThat(decoder.getMetadata().get("returnert").getAsInt(), is(2));
+    }
+
+    @Test
+    void readsMetadataBeforeObjectsAndSkipsOtherMembers() throws IOException {
+        PageDecoder decoder = new PageDecoder(new JsonReader(new StringReader(
+            "{\"metadata\":{\"neste\":{\"start\":\"b\"}},\"annet\":{\"objekter\":[]},\"gater\":[{\"id\":3}]}")),
+            "gater");
+        assertThat(ids(decoder), is(asList(3L)));
+        assertThat(decoder.nextToken(), is("b"));
+    }
+
+    @Test
+    void pageWithoutObjectsOrMetadata() throws IOException {
+        PageDecoder decoder = new PageDecoder(new JsonReader(new StringReader("{}")), "objekter");
+        assertThat(decoder.next(), is(nullValue()));
+        assertThat(decoder.nextToken(), is(nullValue()));
+    }
+}
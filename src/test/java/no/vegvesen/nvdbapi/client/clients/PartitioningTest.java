@@ -0,0 +1,144 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class PartitioningTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void balancesAreasByNumberOfObjects() {
+        List<List<Integer>> partitions = Partitioning.balance(asList(
+            new Partitioning.AreaSize(3, 100),
+            new Partitioning.AreaSize(11, 60),
+            new Partitioning.AreaSize(15, 0),
+            new Partitioning.AreaSize(18, 30),
+            new Partitioning.AreaSize(30, 20)),
+            2);
+
+        assertThat(partitions, is(asList(asList(11, 18, 30), singletonList(3))));
+    }
+
+    @Test
+    void neverMoreThanOnePartitionPerArea() {
+        List<List<Integer>> partitions = Partitioning.balance(asList(
+            new Partitioning.AreaSize(3, 100),
+            new Partitioning.AreaSize(11, 60)),
+            8);
+
+        assertThat(partitions, is(asList(singletonList(3), singletonList(11))));
+    }
+
+    @Test
+    void downloadsTheLocationOfEveryRequest() {
+        Partitioning partitioning = Partitioning.byCounty();
+
+        RoadObjectRequest withoutIncludes = partitioning.download(RoadObjectRequest.DEFAULT, singletonList(3));
+        assertThat(withoutIncludes.getIncludes(),
+            is(EnumSet.of(RoadObjectClient.Include.METADATA, RoadObjectClient.Include.LOCATION)));
+
+        RoadObjectRequest withoutLocation = partitioning.download(RoadObjectRequest.newBuilder()
+            .withIncludes(RoadObjectClient.Include.ATTRIBUTES)
+            .withoutFields("lokasjon", "lokasjon.fylker", "relasjoner")
+            .build(), singletonList(3));
+        assertThat(withoutLocation.getIncludes(),
+            is(EnumSet.of(RoadObjectClient.Include.ATTRIBUTES, RoadObjectClient.Include.LOCATION)));
+        assertThat(withoutLocation.getSkippedFields(), is(singleton("relasjoner")));
+        assertThat(withoutLocation.getCounties(), is(singletonList(3)));
+    }
+
+    @Test
+    void returnsEachObjectOnceAcrossPartitions() throws Exception {
+        stubFor(get(urlEqualTo("/vegobjekttyper/versjon")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody("{\"id\":1,\"versjon\":\"2.21\",\"dato\":\"2020-05-01\"}")));
+        stubStats(3, 3);
+        stubStats(11, 3);
+        // 2 is in both counties, 5 is returned without its location by both partitions
+        stubObjects(3, object(1, 3), object(2, 3, 11), object(5));
+        stubObjects(11, object(2, 3, 11), object(4, 11), object(5));
+
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test")) {
+            List<Long> ids = clientFactory.getRoadObjectClient()
+                .getRoadObjectsPartitioned(105,
+                    RoadObjectRequest.newBuilder().withIncludes(RoadObjectClient.Include.ATTRIBUTES).build(),
+                    Partitioning.byCounty().withAreas(asList(3, 11)).withConcurrency(2).withPartitions(2))
+                .map(RoadObject::getId)
+                .collectList()
+                .block();
+
+            assertThat(ids, containsInAnyOrder(1L, 2L, 4L, 5L));
+
+            List<Long> defaultIds = clientFactory.getRoadObjectClient()
+                .getRoadObjectsPartitioned(105,
+                    RoadObjectRequest.newBuilder().withoutFields("lokasjon").build(),
+                    Partitioning.byCounty().withAreas(asList(3, 11)).withConcurrency(2).withPartitions(2))
+                .map(RoadObject::getId)
+                .collectList()
+                .block();
+
+            assertThat(defaultIds, containsInAnyOrder(1L, 2L, 4L, 5L));
+        }
+    }
+
+    private static void stubStats(int county, int count) {
+        stubFor(get(urlPathEqualTo("/vegobjekter/105/statistikk"))
+            .withQueryParam("fylke", equalTo(String.valueOf(county)))
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withBody("{\"antall\":" + count + ",\"lengde\":0}")));
+    }
+
+    private static void stubObjects(int county, String... objects) {
+        stubFor(get(urlPathEqualTo("/vegobjekter/105"))
+            .withQueryParam("fylke", equalTo(String.valueOf(county)))
+            .withQueryParam("inkluder", containing("lokasjon"))
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withBody("{\"objekter\":[" + String.join(",", objects) + "],"
+                    + "\"metadata\":{\"antall\":" + objects.length + ",\"returnert\":" + objects.length + "}}")));
+    }
+
+    private static String object(long id, Integer... counties) {
+        String location = counties.length == 0 ? ""
+            : ",\"lokasjon\":{\"fylker\":" + asList(counties).stream().map(String::valueOf).collect(toList()) + "}";
+        return "{\"id\":" + id + ",\"metadata\":{\"type\":{\"id\":105},\"versjon\":1}" + location + "}";
+    }
+}
@@ -0,0 +1,122 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import no.vegvesen.nvdbapi.client.RateLimit;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.HttpUrlConnectorProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RateLimiterTest {
+
+    @Test
+    void letsThroughOneSecondBurstAndThenTheRate() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimit.perSecond(10));
+        long start = System.nanoTime();
+        for (int i = 0; i < 15; i++) {
+            limiter.acquire();
+            limiter.release();
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(elapsed, greaterThanOrEqualTo(400L));
+        assertThat(elapsed, lessThan(2000L));
+    }
+
+    @Test
+    void halvesRateOnceForBurstOfThrottledResponses() {
+        RateLimiter limiter = new RateLimiter(RateLimit.perSecond(100).withMinRequestsPerSecond(40));
+
+        limiter.throttled();
+        limiter.throttled();
+        assertThat(limiter.getRate(), lessThan(51.0));
+        assertThat(limiter.getRate(), greaterThanOrEqualTo(50.0));
+    }
+
+    @Test
+    void limitsConcurrentRequests() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimit.none().withMaxConcurrentRequests(1));
+        limiter.acquire();
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            try {
+                limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+        limiter.release();
+        second.get(1, TimeUnit.SECONDS);
+        assertThat(second.isDone(), is(true));
+    }
+
+    @Test
+    void asyncRequestsWaitWithoutHoldingAThread() throws Exception {
+        RateLimiter limiter = new RateLimiter(RateLimit.none().withMaxConcurrentRequests(1));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Thread> first = new CompletableFuture<>();
+            CompletableFuture<Thread> second = new CompletableFuture<>();
+            limiter.acquireAsync(() -> first.complete(Thread.currentThread()), executor);
+            limiter.acquireAsync(() -> second.complete(Thread.currentThread()), executor);
+
+            assertThat(first.getNow(null), is(Thread.currentThread()));
+            assertThat(second.isDone(), is(false));
+            limiter.release();
+            assertThat(second.get(1, TimeUnit.SECONDS), is(not(Thread.currentThread())));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void requestHoldsItsSlotUntilTheResponseIsClosed() throws Exception {
+        WireMockServer server = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        server.start();
+        RateLimiter limiter = new RateLimiter(RateLimit.none().withMaxConcurrentRequests(1));
+        ClientConfig config = new ClientConfig().connectorProvider((client, runtimeConfig) -> new RateLimitingConnector(
+            new HttpUrlConnectorProvider().getConnector(client, runtimeConfig), limiter, Runnable::run));
+        Client client = ClientBuilder.newClient(config);
+        try {
+            server.stubFor(get(urlEqualTo("/side")).willReturn(aResponse().withStatus(200).withBody("{}")));
+            WebTarget target = client.target(server.baseUrl()).path("side");
+
+            Response first = target.request().get();
+            CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> {
+                try (Response response = target.request().get()) {
+                    return response.getStatus();
+                }
+            });
+
+            assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+            first.close();
+            assertThat(second.get(5, TimeUnit.SECONDS), is(200));
+        } finally {
+            client.close();
+            server.stop();
+        }
+    }
+}
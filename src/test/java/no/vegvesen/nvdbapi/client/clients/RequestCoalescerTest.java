@@ -0,0 +1,120 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.google.gson.JsonObject;
+import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
+import no.vegvesen.nvdbapi.client.model.Status;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class RequestCoalescerTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneRequest() throws Exception {
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withFixedDelay(1000)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test",
+            ClientConfigurationBuilder.builder().withRequestCoalescing(true).build())) {
+            StatusClient client = clientFactory.getStatusClient();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Status>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return client.getStatus();
+                }));
+            }
+            start.countDown();
+            for (Future<Status> result : results) {
+                assertThat(result.get().getDatakatalogVersion().getVersion(), is("2.12"));
+            }
+            assertThat(clientFactory.getCoalescedRequestCounts(), is(Collections.singletonMap("/status", 7L)));
+        } finally {
+            executor.shutdown();
+        }
+        verify(1, getRequestedFor(urlEqualTo("/status")));
+    }
+
+    @Test
+    void orderOfQueryParametersDoesNotMatter() {
+        assertThat(RequestCoalescer.canonical(URI.create("https://host/vegobjekter/105?srid=5973&inkluder=alle")),
+            is(RequestCoalescer.canonical(URI.create("https://host/vegobjekter/105?inkluder=alle&srid=5973"))));
+    }
+
+    @Test
+    void callersGetTheirOwnCopyOfTheJson() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        URI uri = URI.create("https://host/status");
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch respond = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<JsonObject> first = executor.submit(() -> coalescer.execute("json", uri, () -> {
+                sent.countDown();
+                try {
+                    respond.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                JsonObject json = new JsonObject();
+                json.addProperty("versjon", "2.12");
+                return json;
+            }, JsonObject::deepCopy));
+            sent.await();
+            Future<JsonObject> second = executor.submit(() -> coalescer.execute("json", uri, () -> {
+                throw new IllegalStateException("Should wait for the request in flight");
+            }, JsonObject::deepCopy));
+            while (coalescer.getSavedRequests().isEmpty()) {
+                Thread.sleep(10);
+            }
+            respond.countDown();
+
+            first.get().addProperty("versjon", "changed");
+            assertThat(second.get().get("versjon").getAsString(), is("2.12"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
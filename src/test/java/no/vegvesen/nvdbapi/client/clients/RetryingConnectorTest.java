@@ -0,0 +1,92 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
+import no.vegvesen.nvdbapi.client.RetryPolicy;
+import no.vegvesen.nvdbapi.client.exceptions.ClientException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RetryingConnectorTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    public void reset() {
+        wireMockServer.resetAll();
+    }
+
+    private ClientFactory clientFactory() {
+        return new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test",
+            ClientConfigurationBuilder.builder()
+                .withRetryPolicy(RetryPolicy.defaults().withBackoff(Duration.ofMillis(10), Duration.ofMillis(50)))
+                .build());
+    }
+
+    private void stubUnavailableThenOk(String retryAfter) throws Exception {
+        stubFor(get(urlEqualTo("/status")).inScenario("retry")
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse().withStatus(503).withHeader("Retry-After", retryAfter)
+                .withBody("[{\"code\": 503, \"message\": \"Service unavailable\"}]"))
+            .willSetStateTo("available"));
+        stubFor(get(urlEqualTo("/status")).inScenario("retry")
+            .whenScenarioStateIs("available")
+            .willReturn(aResponse()
+                .withStatus(200)
+                .withBody(Files.readAllBytes(
+                    Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+    }
+
+    @Test
+    void retriesUnavailableAndCountsRetriesPerEndpoint() throws Exception {
+        stubUnavailableThenOk("0");
+        try (ClientFactory clientFactory = clientFactory()) {
+            assertThat(clientFactory.getStatusClient().getStatus().getDatakatalogVersion().getVersion(), is("2.12"));
+            assertThat(clientFactory.getRetryCounts(), is(Collections.singletonMap("/status", 1L)));
+        }
+        verify(2, getRequestedFor(urlEqualTo("/status")));
+    }
+
+    @Test
+    void doesNotWaitLongerThanMaxRetryTime() throws Exception {
+        stubUnavailableThenOk("600");
+        try (ClientFactory clientFactory = clientFactory()) {
+            ClientException e = assertThrows(ClientException.class, () -> clientFactory.getStatusClient().getStatus());
+            assertThat(e.getStatusCode(), is(503));
+        }
+        verify(1, getRequestedFor(urlEqualTo("/status")));
+    }
+}
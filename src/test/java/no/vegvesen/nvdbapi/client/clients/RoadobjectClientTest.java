@@ -1,9 +1,17 @@
 package no.vegvesen.nvdbapi.client.clients;
 
+import no.vegvesen.nvdbapi.client.gson.DecodingPlan;
 import no.vegvesen.nvdbapi.client.util.Stopwatch;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 @SuppressWarnings("WeakerAccess")
 public class RoadobjectClientTest {
 
@@ -30,4 +38,32 @@ public class RoadobjectClientTest {
         Stopwatch stop = started.stop();
         System.out.println(stop.elapsedMillis());
     }
+
+    @Test
+    void decodesOnlyIncludedSections() {
+        assertEquals(DecodingPlan.all(), RoadObjectClient.decodingPlan(RoadObjectRequest.DEFAULT));
+        assertEquals(DecodingPlan.all(),
+            RoadObjectClient.decodingPlan(RoadObjectRequest.newBuilder().includeAll().build()));
+
+        RoadObjectRequest request = RoadObjectRequest.newBuilder()
+            .withIncludes(RoadObjectClient.Include.ATTRIBUTES, RoadObjectClient.Include.LOCATION)
+            .withoutFields("lokasjon.stedfestinger")
+            .build();
+        assertEquals(DecodingPlan.all().without("relasjoner", "vegsegmenter", "geometri", "lokasjon.stedfestinger"),
+            RoadObjectClient.decodingPlan(request));
+    }
+
+    @Test
+    void skippedFieldsAreCopiedAndCheckedWhenBuilt() {
+        Set<String> fields = new HashSet<>(Collections.singleton("relasjoner"));
+        RoadObjectRequest request = RoadObjectRequest.newBuilder().withoutFields(fields).build();
+        fields.add("vegsegmenter");
+
+        assertEquals(Collections.singleton("relasjoner"), request.getSkippedFields());
+        assertEquals(DecodingPlan.all().without("relasjoner"), request.getFieldsPlan());
+        assertThrows(IllegalArgumentException.class,
+            () -> RoadObjectRequest.newBuilder().withoutFields("lokasjon.geometri.wkt").build());
+        assertThrows(IllegalArgumentException.class,
+            () -> RoadObjectRequest.newBuilder().withoutFields("lokasjon.").build());
+    }
 }
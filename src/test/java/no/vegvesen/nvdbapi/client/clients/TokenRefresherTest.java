@@ -0,0 +1,97 @@
+package no.vegvesen.nvdbapi.client.clients;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import no.vegvesen.nvdbapi.client.ClientConfiguration.ClientConfigurationBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Random;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.configureFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TokenRefresherTest {
+
+    private static WireMockServer wireMockServer;
+
+    @BeforeAll
+    public static void setUp() {
+        wireMockServer = new WireMockServer(options().port(1024 + new Random().nextInt(20000)));
+        wireMockServer.start();
+        configureFor("localhost", wireMockServer.port());
+    }
+
+    @AfterAll
+    public static void cleanUp() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    void expiryIsReadFromTheIdToken() {
+        Instant expiry = Instant.ofEpochSecond(1700000000);
+        assertThat(TokenRefresher.expiry(jwt("user", expiry)), is(Optional.of(expiry)));
+        assertThat(TokenRefresher.expiry("not-a-jwt"), is(Optional.empty()));
+        assertThat(TokenRefresher.expiry(null), is(Optional.empty()));
+    }
+
+    @Test
+    void tokenIsRefreshedBeforeItExpires() throws Exception {
+        String first = jwt("first", Instant.now().plusSeconds(3));
+        String second = jwt("second", Instant.now().plusSeconds(3600));
+        stubFor(post(urlEqualTo("/auth/login")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"idToken\":\"" + first + "\",\"refreshToken\":\"refresh-1\"}")));
+        stubFor(post(urlEqualTo("/auth/refresh")).willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody("{\"idToken\":\"" + second + "\",\"refreshToken\":\"refresh-2\"}")));
+        stubFor(get(urlEqualTo("/status")).willReturn(aResponse()
+            .withStatus(200)
+            .withBody(Files.readAllBytes(Paths.get(getClass().getResource("/jsonresponse/status.json").toURI())))));
+
+        try (ClientFactory clientFactory = new ClientFactory(wireMockServer.baseUrl(), "nvdbapi-client-test",
+            ClientConfigurationBuilder.builder().withTokenRefresh(Duration.ofSeconds(2)).build())) {
+            assertThat(clientFactory.login("user", "password").isSuccessful(), is(true));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (wireMockServer.findAll(postRequestedFor(urlEqualTo("/auth/refresh"))).isEmpty()
+                && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Thread.sleep(100);
+            clientFactory.getStatusClient().getStatus();
+        }
+        verify(1, postRequestedFor(urlEqualTo("/auth/refresh"))
+            .withRequestBody(containing("refresh-1")));
+        verify(getRequestedFor(urlEqualTo("/status"))
+            .withHeader("Authorization", equalTo("Bearer " + second)));
+    }
+
+    private static String jwt(String subject, Instant expiry) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(
+            ("{\"sub\":\"" + subject + "\",\"exp\":" + expiry.getEpochSecond() + "}").getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".";
+    }
+}
@@ -30,6 +30,9 @@ import com.google.gson.JsonParser;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class GsonUtilTest {
 
@@ -41,4 +44,32 @@ public class GsonUtilTest {
 
         assertEquals(expectedStartDate, GsonUtil.parseStringMember(e, "versjon.startdato"));
     }
+
+    @Test
+    public void testParseValues() {
+        JsonObject e = JsonParser.parseString(
+            "{\"id\":81456352,\"lengde\":12.5,\"metadata\":{\"type\":{\"id\":105},\"versjon\":null}}")
+            .getAsJsonObject();
+
+        assertEquals(81456352L, GsonUtil.parseLongValue(e, "id"));
+        assertEquals(12.5, GsonUtil.parseDoubleValue(e, "lengde"));
+        assertEquals(105, GsonUtil.parseIntValue(e, "metadata.type.id"));
+        assertEquals(105, GsonUtil.parseIntMember(e, "metadata.type.id"));
+        assertNull(GsonUtil.parseIntMember(e, "metadata.versjon"));
+        assertNull(GsonUtil.parseIntMember(e, "metadata.versjon.id"));
+        assertTrue(GsonUtil.parseBooleanValue(e, "metadata.forenklet", true));
+        assertThrows(IllegalArgumentException.class, () -> GsonUtil.parseIntValue(e, "metadata.versjon"));
+        assertThrows(RuntimeException.class, () -> GsonUtil.parseIntMember(e, "id.versjon"));
+    }
+
+    @Test
+    public void pathsOfCallersDoNotGrowTheCache() {
+        JsonObject e = JsonParser.parseString("{\"a\":{\"b\":1}}").getAsJsonObject();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertNull(GsonUtil.parseIntMember(e, "a.c" + i));
+        }
+        assertEquals(1, GsonUtil.parseIntMember(e, "a.b"));
+        assertTrue(GsonUtil.compiledPathCount() <= 512);
+    }
 }
@@ -3,8 +3,15 @@ package no.vegvesen.nvdbapi.client.gson;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -14,6 +21,10 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
 class Helper {
 
     private final static String utf8 = StandardCharsets.UTF_8.name();
@@ -58,4 +69,62 @@ class Helper {
 
         }
     }
+
+    /**
+     * Compares two models field by field, so fields left out of their {@code equals} are compared too.
+     * Classes of the JDK are compared with {@code equals}.
+     */
+    static void assertSameFields(Object expected, Object actual) {
+        assertSameFields(expected, actual, "$");
+    }
+
+    private static void assertSameFields(Object expected, Object actual, String path) {
+        if (expected == null || actual == null) {
+            assertEquals(expected, actual, path);
+            return;
+        }
+        assertEquals(expected.getClass(), actual.getClass(), path);
+        Class<?> type = expected.getClass();
+        if (expected instanceof Optional) {
+            assertSameFields(((Optional<?>) expected).orElse(null), ((Optional<?>) actual).orElse(null), path);
+        } else if (expected instanceof Collection) {
+            Collection<?> expectedItems = (Collection<?>) expected;
+            Collection<?> actualItems = (Collection<?>) actual;
+            assertEquals(expectedItems.size(), actualItems.size(), path + ".size");
+            Iterator<?> items = actualItems.iterator();
+            int i = 0;
+            for (Object item : expectedItems) {
+                assertSameFields(item, items.next(), path + "[" + i++ + "]");
+            }
+        } else if (expected instanceof Map) {
+            Map<?, ?> expectedEntries = (Map<?, ?>) expected;
+            Map<?, ?> actualEntries = (Map<?, ?>) actual;
+            assertEquals(expectedEntries.keySet(), actualEntries.keySet(), path + ".keys");
+            for (Map.Entry<?, ?> entry : expectedEntries.entrySet()) {
+                assertSameFields(entry.getValue(), actualEntries.get(entry.getKey()), path + "[" + entry.getKey() + "]");
+            }
+        } else if (type.isArray()) {
+            assertEquals(Array.getLength(expected), Array.getLength(actual), path + ".length");
+            for (int i = 0; i < Array.getLength(expected); i++) {
+                assertSameFields(Array.get(expected, i), Array.get(actual, i), path + "[" + i + "]");
+            }
+        } else if (type.isEnum() || type.getName().startsWith("java.")) {
+            assertEquals(expected, actual, path);
+        } else {
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    try {
+                        assertSameFields(field.get(expected), field.get(actual), path + "." + field.getName());
+                    } catch (IllegalAccessException e) {
+                        fail(path + "." + field.getName(), e);
+                    }
+                }
+            }
+            assertTrue(expected.equals(actual), path + " equals");
+        }
+    }
 }
@@ -0,0 +1,377 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.internal.Streams;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import no.vegvesen.nvdbapi.client.JsonEngine;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
+import no.vegvesen.nvdbapi.client.util.Stopwatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reads the responses in {@code /jsonresponse} with both engines, which must give the same tokens,
+ * the same trees and the same models.
+ */
+class JsonEngineParityTest {
+    private static final JsonEngine GSON = JsonEngine.gson();
+    private static final JsonEngine JACKSON = JsonEngine.jackson();
+
+    static Stream<String> responses() throws IOException, URISyntaxException {
+        Path root = Paths.get(JsonEngineParityTest.class.getResource("/jsonresponse").toURI());
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                .filter(f -> f.toString().endsWith(".json"))
+                .map(f -> root.relativize(f).toString().replace('\\', '/'))
+                .sorted()
+                .collect(Collectors.toList())
+                .stream();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("responses")
+    void readsSameTokens(String file) throws IOException {
+        try (JsonReader expected = reader(GSON, file);
+             JsonReader actual = reader(JACKSON, file)) {
+            JsonToken token;
+            do {
+                token = expected.peek();
+                assertEquals(token, actual.peek());
+                switch (token) {
+                    case BEGIN_ARRAY:
+                        expected.beginArray();
+                        actual.beginArray();
+                        break;
+                    case END_ARRAY:
+                        expected.endArray();
+                        actual.endArray();
+                        break;
+                    case BEGIN_OBJECT:
+                        expected.beginObject();
+                        actual.beginObject();
+                        break;
+                    case END_OBJECT:
+                        expected.endObject();
+                        actual.endObject();
+                        break;
+                    case NAME:
+                        assertEquals(expected.nextName(), actual.nextName());
+                        break;
+                    case STRING:
+                    case NUMBER:
+                        assertEquals(expected.nextString(), actual.nextString());
+                        break;
+                    case BOOLEAN:
+                        assertEquals(expected.nextBoolean(), actual.nextBoolean());
+                        break;
+                    case NULL:
+                        expected.nextNull();
+                        actual.nextNull();
+                        break;
+                    default:
+                        break;
+                }
+            } while (token != JsonToken.END_DOCUMENT);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("responses")
+    void buildsSameTrees(String file) throws IOException {
+        assertEquals(tree(GSON, file), tree(JACKSON, file));
+    }
+
+    @ParameterizedTest
+    @MethodSource("responses")
+    void readsSameWholeTrees(String file) throws IOException {
+        JsonElement expected = tree(GSON, file);
+        try (InputStream gson = resource(file); InputStream jackson = resource(file)) {
+            assertEquals(expected, GSON.readTree(gson));
+            assertEquals(expected, JACKSON.readTree(jackson));
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"'{}{}'", "'[1,2'", "'{\"a\":'", "'{\"a\"'"})
+    void wholeTreeMustBeOneCompleteValue(String json) {
+        for (JsonEngine engine : new JsonEngine[] {GSON, JACKSON}) {
+            assertThrows(Exception.class,
+                () -> engine.readTree(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))), json);
+        }
+    }
+
+    @Test
+    void bodyHandlerReadsMapsWithBothEngines() throws IOException {
+        Type type = new TypeToken<Map<String, List<Double>>>() {}.getType();
+        String json = "{\"a\":[1],\"b\":[2,3]}";
+        Map<String, List<Double>> expected = new LinkedHashMap<>();
+        expected.put("a", Collections.singletonList(1.0));
+        expected.put("b", Arrays.asList(2.0, 3.0));
+
+        for (JsonEngine engine : new JsonEngine[] {GSON, JACKSON}) {
+            assertEquals(expected, readBody(engine, type, json));
+            assertEquals(expected, readBody(engine, Map.class, json));
+            assertThrows(Exception.class, () -> readBody(engine, type, "{\"a\":[1]}{}"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object readBody(JsonEngine engine, Type type, String json) throws IOException {
+        GsonMessageBodyHandler handler = new GsonMessageBodyHandler(engine);
+        return handler.readFrom((Class<Object>) (Class<?>) Map.class, type, new Annotation[0],
+            MediaType.APPLICATION_JSON_TYPE, new MultivaluedHashMap<>(),
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void emptyResponseIsJsonNull() throws IOException {
+        assertEquals(JsonNull.INSTANCE, GSON.readTree(new ByteArrayInputStream(new byte[0])));
+        assertEquals(JsonNull.INSTANCE, JACKSON.readTree(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void jacksonNamesTheMissingDependency() throws Exception {
+        URL classes = JsonEngine.class.getProtectionDomain().getCodeSource().getLocation();
+        URL gson = JsonElement.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader withoutJackson = new URLClassLoader(new URL[] {classes, gson}, null)) {
+            Method jackson = withoutJackson.loadClass(JsonEngine.class.getName()).getMethod("jackson");
+
+            InvocationTargetException e = assertThrows(InvocationTargetException.class, () -> jackson.invoke(null));
+            assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+            assertThat(e.getCause().getMessage(), containsString("com.fasterxml.jackson.core:jackson-core"));
+        }
+    }
+
+    @Test
+    @Disabled("manual test")
+    void compareSpeed() throws IOException {
+        List<String> files = Arrays.asList("vegobjekter/14.json", "vegobjekter/95.json",
+            "vegobjekter/105.json", "vegobjekter/581.json", "vegnett/veglenkesekvenser.json");
+        Map<String, byte[]> responses = new LinkedHashMap<>();
+        for (String file : files) {
+            try (InputStream in = resource(file)) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                    bytes.write(buffer, 0, n);
+                }
+                responses.put(file, bytes.toByteArray());
+            }
+        }
+        for (int round = 0; round < 3; round++) {
+            for (JsonEngine engine : new JsonEngine[] {GSON, JACKSON}) {
+                Stopwatch trees = Stopwatch.createStarted();
+                for (int i = 0; i < 2000; i++) {
+                    for (byte[] response : responses.values()) {
+                        engine.readTree(new ByteArrayInputStream(response));
+                    }
+                }
+                long treeMillis = trees.stop().elapsedMillis();
+                Stopwatch streamed = Stopwatch.createStarted();
+                for (int i = 0; i < 2000; i++) {
+                    for (String file : files.subList(0, 4)) {
+                        try (JsonReader reader = engine.newReader(new ByteArrayInputStream(responses.get(file)))) {
+                            readRoadObjects(reader);
+                        }
+                    }
+                }
+                System.out.println((engine == GSON ? "Gson" : "Jackson") + ": trees " + treeMillis
+                    + " ms, streamed road objects " + streamed.stop().elapsedMillis() + " ms");
+            }
+        }
+    }
+
+    static Stream<Arguments> models() {
+        return Stream.of(
+            Arguments.of("vegobjekter/14.json", objekter(RoadObjectParser::parse)),
+            Arguments.of("vegobjekter/95.json", objekter(RoadObjectParser::parse)),
+            Arguments.of("vegobjekter/105.json", objekter(RoadObjectParser::parse)),
+            Arguments.of("vegobjekter/581.json", objekter(RoadObjectParser::parse)),
+            Arguments.of("vegobjekter/egenskaper.json", plain(RoadObjectParser::parseAttribute)),
+            Arguments.of("vegobjekter/lokasjon_punkt.json", object(RoadObjectParser::parseLocation)),
+            Arguments.of("vegobjekter/lokasjon_linje.json", object(RoadObjectParser::parseLocation)),
+            Arguments.of("vegobjekter/lokasjon_sving.json", object(RoadObjectParser::parseLocation)),
+            Arguments.of("vegobjekter/105_statistikk.json", object(RoadObjectParser::parseStatistics)),
+            Arguments.of("vegobjekter/vegsystemreferanse_med_nummer.json", object(RoadSysRefParser::parse)),
+            Arguments.of("vegobjekter/vegsystemreferanse_uten_nummer.json", object(RoadSysRefParser::parse)),
+            Arguments.of("vegnett/noder.json", objekter(RoadNetParser::parseNode)),
+            Arguments.of("vegnett/veglenkesekvenser.json", objekter(RoadNetParser::parseLinkSequence)),
+            Arguments.of("vegnett/veglenkesekvenser_segmentert.json", objekter(SegmentedLinkParser::parse)),
+            Arguments.of("rute/rute_langtformat.json", object(RouteParser::parseDetailed)),
+            Arguments.of("rute/rute_kortformat.json", object(RouteParser::parseBrief)),
+            Arguments.of("transaksjoner.json", objekter(TransactionParser::parseTransaction)),
+            Arguments.of("posisjon/posisjon.json", object(PlacementParser::parsePosition)),
+            Arguments.of("omrader/kommuner.json", plain(AreaParser::parseMun)),
+            Arguments.of("omrader/fylker.json", plain(AreaParser::parseCounty))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("models")
+    void parsesSameModels(String file, Function<JsonElement, Object> parser) throws IOException {
+        Helper.assertSameFields(parser.apply(tree(GSON, file)), parser.apply(tree(JACKSON, file)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"14", "95", "105", "581"})
+    void streamsSameRoadObjects(String file) throws IOException {
+        List<RoadObject> expected = streamRoadObjects(GSON, "vegobjekter/" + file + ".json");
+
+        assertThat(expected.size(), is(not(0)));
+        Helper.assertSameFields(expected, streamRoadObjects(JACKSON, "vegobjekter/" + file + ".json"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1", "-1", "1.0", "1e2", "-0", "2.5", "12345678901", "9223372036854775808", "'\"7\"'", "'\"x\"'"})
+    void convertsNumbersLikeGson(String json) {
+        assertEquals(outcome(GSON, json, JsonReader::nextInt), outcome(JACKSON, json, JsonReader::nextInt));
+        assertEquals(outcome(GSON, json, JsonReader::nextLong), outcome(JACKSON, json, JsonReader::nextLong));
+        assertEquals(outcome(GSON, json, JsonReader::nextDouble), outcome(JACKSON, json, JsonReader::nextDouble));
+        assertEquals(outcome(GSON, json, JsonReader::nextString), outcome(JACKSON, json, JsonReader::nextString));
+    }
+
+    @Test
+    void failsOnEmptyInput() throws IOException {
+        try (JsonReader reader = JACKSON.newReader(new ByteArrayInputStream(new byte[0]))) {
+            assertThrows(java.io.EOFException.class, reader::peek);
+        }
+    }
+
+    @Test
+    void skipsValues() throws IOException {
+        String json = "{\"a\":[1,{\"b\":2}],\"c\":{\"d\":[]},\"e\":3}";
+        for (JsonEngine engine : new JsonEngine[] {GSON, JACKSON}) {
+            try (JsonReader reader = engine.newReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+                reader.beginObject();
+                reader.nextName();
+                reader.skipValue();
+                reader.nextName();
+                reader.skipValue();
+                assertEquals("e", reader.nextName());
+                assertEquals(3, reader.nextInt());
+                reader.endObject();
+                assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+            }
+        }
+    }
+
+    private interface ReaderFunction {
+        Object apply(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * @return the value read, or the type of exception thrown
+     */
+    private static Object outcome(JsonEngine engine, String json, ReaderFunction read) {
+        try (JsonReader reader = engine.newReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            return read.apply(reader);
+        } catch (NumberFormatException | IllegalStateException e) {
+            return e.getClass();
+        } catch (IOException e) {
+            return IOException.class;
+        }
+    }
+
+    private static List<RoadObject> streamRoadObjects(JsonEngine engine, String file) throws IOException {
+        try (JsonReader reader = reader(engine, file)) {
+            return readRoadObjects(reader);
+        }
+    }
+
+    private static List<RoadObject> readRoadObjects(JsonReader reader) throws IOException {
+        List<RoadObject> roadObjects = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("objekter")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    roadObjects.add(StreamingRoadObjectParser.parse(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return roadObjects;
+    }
+
+    private static Function<JsonElement, Object> objekter(Function<JsonObject, ?> parser) {
+        return e -> list(e.getAsJsonObject().getAsJsonArray("objekter"), parser);
+    }
+
+    private static Function<JsonElement, Object> plain(Function<JsonObject, ?> parser) {
+        return e -> list(e, parser);
+    }
+
+    private static Function<JsonElement, Object> object(Function<JsonObject, ?> parser) {
+        return e -> parser.apply(e.getAsJsonObject());
+    }
+
+    private static List<?> list(JsonElement array, Function<JsonObject, ?> parser) {
+        return StreamSupport.stream(array.getAsJsonArray().spliterator(), false)
+            .map(JsonElement::getAsJsonObject)
+            .map(parser)
+            .collect(Collectors.toList());
+    }
+
+    private static JsonElement tree(JsonEngine engine, String file) throws IOException {
+        try (JsonReader reader = reader(engine, file)) {
+            return Streams.parse(reader);
+        }
+    }
+
+    private static JsonReader reader(JsonEngine engine, String file) throws IOException {
+        return engine.newReader(resource(file));
+    }
+
+    private static InputStream resource(String file) {
+        return JsonEngineParityTest.class.getResourceAsStream("/jsonresponse/" + file);
+    }
+}
@@ -0,0 +1,304 @@
+package no.vegvesen.nvdbapi.client.gson;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import no.vegvesen.nvdbapi.client.model.Projection;
+import no.vegvesen.nvdbapi.client.model.roadobjects.Location;
+import no.vegvesen.nvdbapi.client.model.roadobjects.RoadObject;
+import no.vegvesen.nvdbapi.client.model.roadobjects.Segment;
+import no.vegvesen.nvdbapi.client.model.roadobjects.attribute.Attribute;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static no.vegvesen.nvdbapi.client.gson.Helper.parseObject;
+import static no.vegvesen.nvdbapi.client.gson.Helper.parseObjekterList;
+import static no.vegvesen.nvdbapi.client.gson.Helper.parsePlainList;
+
+class StreamingRoadObjectParserTest {
+
+    @ParameterizedTest
+    @CsvSource({"14","95","105","581"})
+    void parsesRoadObjectsLikeTreeParser(String file) throws IOException {
+        List<RoadObject> expected = parseObjekterList("vegobjekter/" + file + ".json", RoadObjectParser::parse);
+
+        List<RoadObject> roadObjects = new ArrayList<>();
+        try (JsonReader reader = reader("vegobjekter/" + file + ".json")) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("objekter")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        roadObjects.add(StreamingRoadObjectParser.parse(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        assertThat(roadObjects.size(), is(not(0)));
+        Helper.assertSameFields(expected, roadObjects);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"punkt", "linje", "sving"})
+    void parsesLocationLikeTreeParser(String type) throws IOException {
+        String file = "vegobjekter/lokasjon_" + type + ".json";
+        Location expected = parseObject(file, RoadObjectParser::parseLocation);
+
+        try (JsonReader reader = reader(file)) {
+            assertThat(StreamingRoadObjectParser.parseLocation(reader), is(expected));
+        }
+    }
+
+    @Test
+    void parsesAttributesLikeTreeParser() throws IOException {
+        List<Attribute> expected = parsePlainList("vegobjekter/egenskaper.json", RoadObjectParser::parseAttribute);
+
+        List<Attribute> attributes = new ArrayList<>();
+        try (JsonReader reader = reader("vegobjekter/egenskaper.json")) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                attributes.add(StreamingRoadObjectParser.parseAttribute(reader));
+            }
+            reader.endArray();
+        }
+
+        assertThat(attributes, is(expected));
+    }
+
+    @Test
+    void givesRequestedPartsToVisitor() throws IOException {
+        List<RoadObject> expected = parseObjekterList("vegobjekter/105.json", RoadObjectParser::parse);
+        int attributeTypeId = expected.get(0).getAttributes().get(0).getId();
+
+        List<Compact> compacts = new ArrayList<>();
+        StreamingParser<Compact> parser = StreamingRoadObjectParser.visiting(() -> new CompactVisitor(attributeTypeId));
+        try (JsonReader reader = reader("vegobjekter/105.json")) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("objekter")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        compacts.add(parser.parse(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        assertThat(compacts.size(), is(expected.size()));
+        for (int i = 0; i < compacts.size(); i++) {
+            RoadObject roadObject = expected.get(i);
+            Compact compact = compacts.get(i);
+            assertThat(compact.id, is(roadObject.getId()));
+            assertThat(compact.version, is(roadObject.getVersion()));
+            assertThat(compact.wkt, is(roadObject.getGeometry().getWkt()));
+            assertThat(compact.segments, is(roadObject.getSegments().size()));
+            assertThat(compact.attributes, is(roadObject.getAttributes().stream()
+                .filter(a -> a.getId() == attributeTypeId)
+                .collect(Collectors.toList())));
+        }
+    }
+
+    @Test
+    void skipsPartsLeftOutOfPlan() throws IOException {
+        List<RoadObject> expected = parseObjekterList("vegobjekter/105.json", RoadObjectParser::parse);
+        DecodingPlan plan = DecodingPlan.all().without("relasjoner", "lokasjon.stedfestinger", "vegsegmenter.geometri");
+
+        List<RoadObject> roadObjects = parseObjekter("vegobjekter/105.json", StreamingRoadObjectParser.parser(plan));
+
+        assertThat(roadObjects.size(), is(expected.size()));
+        for (int i = 0; i < roadObjects.size(); i++) {
+            RoadObject full = expected.get(i);
+            RoadObject partial = roadObjects.get(i);
+            assertThat(partial.getId(), is(full.getId()));
+            assertThat(partial.getVersion(), is(full.getVersion()));
+            assertThat(partial.getAttributes(), is(full.getAttributes()));
+            assertThat(partial.getGeometry(), is(full.getGeometry()));
+            assertThat(partial.getChildren(), is(empty()));
+            assertThat(partial.getParents(), is(empty()));
+            assertThat(partial.getLocation().getPlacements(), is(empty()));
+            assertThat(partial.getLocation().getMunicipalities(), is(full.getLocation().getMunicipalities()));
+            assertThat(partial.getSegments().size(), is(full.getSegments().size()));
+            for (Segment segment : partial.getSegments()) {
+                assertThat(segment.getGeometry(), is(nullValue()));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"metadata", "egenskaper", "relasjoner", "lokasjon", "geometri", "vegsegmenter"})
+    void readsNullMembers(String member) throws IOException {
+        String inMiddle = "{\"" + member + "\":null,\"id\":7}";
+        String atEnd = "{\"id\":7,\"" + member + "\":null}";
+
+        for (String json : new String[] {inMiddle, atEnd}) {
+            try (JsonReader reader = new JsonReader(new StringReader("[" + json + "," + json + "]"))) {
+                reader.beginArray();
+                assertThat(StreamingRoadObjectParser.parse(reader).getId(), is(7L));
+                assertThat(StreamingRoadObjectParser.visit(reader, new IdVisitor()), is(7L));
+                reader.endArray();
+            }
+        }
+    }
+
+    @Test
+    void rejectsDeepPaths() {
+        assertThrows(IllegalArgumentException.class, () -> DecodingPlan.all().without("lokasjon.geometri.wkt"));
+    }
+
+    private static <T> List<T> parseObjekter(String file, StreamingParser<T> parser) throws IOException {
+        List<T> objects = new ArrayList<>();
+        try (JsonReader reader = reader(file)) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("objekter")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        objects.add(parser.parse(reader));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        }
+        return objects;
+    }
+
+    /**
+     * Asks for every part of the road object, and returns its id.
+     */
+    private static final class IdVisitor implements RoadObjectVisitor<Long> {
+        private Long id;
+
+        @Override
+        public void id(long id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean visitsMetadata() {
+            return true;
+        }
+
+        @Override
+        public boolean visitsAttribute(int attributeTypeId) {
+            return true;
+        }
+
+        @Override
+        public boolean visitsSegments() {
+            return true;
+        }
+
+        @Override
+        public boolean visitsGeometry() {
+            return true;
+        }
+
+        @Override
+        public Long end() {
+            return id;
+        }
+    }
+
+    private static final class Compact {
+        private long id;
+        private Integer version;
+        private String wkt;
+        private int segments;
+        private final List<Attribute> attributes = new ArrayList<>();
+    }
+
+    private static final class CompactVisitor implements RoadObjectVisitor<Compact> {
+        private final int attributeTypeId;
+        private final Compact compact = new Compact();
+
+        CompactVisitor(int attributeTypeId) {
+            this.attributeTypeId = attributeTypeId;
+        }
+
+        @Override
+        public void id(long id) {
+            compact.id = id;
+        }
+
+        @Override
+        public boolean visitsMetadata() {
+            return true;
+        }
+
+        @Override
+        public void metadata(Integer typeId, Integer version, LocalDate startDate, LocalDate endDate,
+                             LocalDateTime lastModified) {
+            compact.version = version;
+        }
+
+        @Override
+        public boolean visitsAttribute(int attributeTypeId) {
+            return attributeTypeId == this.attributeTypeId;
+        }
+
+        @Override
+        public void attribute(Attribute attribute) {
+            compact.attributes.add(attribute);
+        }
+
+        @Override
+        public boolean visitsSegments() {
+            return true;
+        }
+
+        @Override
+        public void segment(Segment segment) {
+            compact.segments++;
+        }
+
+        @Override
+        public boolean visitsGeometry() {
+            return true;
+        }
+
+        @Override
+        public void geometry(String wkt, Projection projection) {
+            compact.wkt = wkt;
+        }
+
+        @Override
+        public Compact end() {
+            return compact;
+        }
+    }
+
+    private static JsonReader reader(String file) {
+        InputStream resource = StreamingRoadObjectParserTest.class.getResourceAsStream("/jsonresponse/" + file);
+        return new JsonReader(new InputStreamReader(resource, StandardCharsets.UTF_8));
+    }
+}